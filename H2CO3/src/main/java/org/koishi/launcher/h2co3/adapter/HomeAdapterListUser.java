@@ -10,7 +10,6 @@ import static org.koishi.launcher.h2co3.core.H2CO3Auth.setUserState;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
-import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -33,16 +32,13 @@ import org.koishi.launcher.h2co3.resources.component.H2CO3CardView;
 import org.koishi.launcher.h2co3.resources.component.dialog.H2CO3MaterialDialog;
 import org.koishi.launcher.h2co3.ui.fragment.home.HomeFragment;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class HomeAdapterListUser extends RecyclerView.Adapter<HomeAdapterListUser.ViewHolder> {
 
     private final Context context;
     private final List<UserBean> list;
     private final boolean hasFooter;
-    private final Map<String, Drawable> userIconCache = new HashMap<>();
     private final HomeFragment fragment;
     private int selectedPosition;
     private boolean isRemoveUserDialogShowing = false;
@@ -53,11 +49,6 @@ public class HomeAdapterListUser extends RecyclerView.Adapter<HomeAdapterListUse
         this.list = list;
         this.selectedPosition = -1;
         this.hasFooter = true;
-
-        for (UserBean user : list) {
-            Drawable userIcon = getUserIcon(user);
-            user.setUserIcon(userIcon);
-        }
     }
 
     @Override
@@ -116,11 +107,7 @@ public class HomeAdapterListUser extends RecyclerView.Adapter<HomeAdapterListUse
             holder.nameTextView.setText(user.getUserName());
             holder.stateTextView.setText(getUserStateText(user));
 
-            if (user.getUserIcon() == null) {
-                Drawable userIcon = getUserIcon(user);
-                user.setUserIcon(userIcon);
-            }
-            holder.userIcon.setImageDrawable(user.getUserIcon());
+            setUserIcon(user, holder.userIcon);
 
             holder.removeImageButton.setOnClickListener(v -> {
                 if (!isRemoveUserDialogShowing) {
@@ -133,18 +120,12 @@ public class HomeAdapterListUser extends RecyclerView.Adapter<HomeAdapterListUse
         }
     }
 
-    private Drawable getUserIcon(UserBean user) {
+    private void setUserIcon(UserBean user, ImageView imageView) {
         if (user.getIsOffline()) {
-            return ContextCompat.getDrawable(context, org.koishi.launcher.h2co3.resources.R.drawable.ic_home_user);
+            imageView.setImageDrawable(ContextCompat.getDrawable(context, org.koishi.launcher.h2co3.resources.R.drawable.ic_home_user));
         } else {
-            Drawable cachedIcon = userIconCache.get(user.getUserName());
-            if (cachedIcon != null) {
-                return cachedIcon;
-            } else {
-                Drawable userIcon = H2CO3Loader.getHeadDrawable(fragment.requireActivity(), user.getSkinTexture());
-                userIconCache.put(user.getUserName(), userIcon);
-                return userIcon;
-            }
+            // 头像按视图尺寸渲染并缓存，异步加载
+            H2CO3Loader.getHead(fragment.requireActivity(), user.getSkinTexture(), imageView);
         }
     }
 
@@ -189,7 +170,7 @@ public class HomeAdapterListUser extends RecyclerView.Adapter<HomeAdapterListUse
         setUserState(user);
         fragment.homeUserName.setText(user.getUserName());
         fragment.homeUserState.setText(getUserStateText(user));
-        fragment.homeUserIcon.setImageDrawable(getUserIcon(user));
+        setUserIcon(user, fragment.homeUserIcon);
     }
 
     private void resetUserState() {
@@ -17,12 +17,12 @@ import org.koishi.launcher.h2co3.control.ckb.support.KeyboardRecorder;
 import org.koishi.launcher.h2co3.control.controller.Controller;
 import org.koishi.launcher.h2co3.core.H2CO3Tools;
 import org.koishi.launcher.h2co3.core.login.utils.DisplayUtils;
+import org.koishi.launcher.h2co3.core.utils.file.DebouncedFileWriter;
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
 import org.koishi.launcher.h2co3.resources.component.dialog.DialogUtils;
 import org.koishi.launcher.h2co3.resources.component.dialog.support.DialogSupports;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -39,6 +39,9 @@ public class CkbManager {
     private final CallCustomizeKeyboard mCall;
     private final Controller mController;
     private boolean hasHide = false;
+    // Set by every change of the layout that is saved, cleared once a snapshot has been taken
+    private boolean layoutChanged = false;
+    private DebouncedFileWriter autoSaveWriter;
 
     private GameButtonArray<GameButton> buttonList;
 
@@ -56,26 +59,23 @@ public class CkbManager {
     }
 
     public static void outputFile(KeyboardRecorder kr, String fileName) {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String jsonString = gson.toJson(kr);
         try {
-            File dir = new File(H2CO3Tools.H2CO3_CONTROL_DIR);
-            if (!dir.exists()) {
-                dir.mkdirs();
-            }
-            File file = new File(dir, fileName + ".json");
-            if (!file.exists()) {
-                file.createNewFile();
-            }
-            FileWriter jsonWriter = new FileWriter(file);
-            BufferedWriter out = new BufferedWriter(jsonWriter);
-            out.write(jsonString);
-            out.close();
+            FileTools.makeDirectory(new File(H2CO3Tools.H2CO3_CONTROL_DIR));
+            FileTools.saveSafely(getLayoutFile(fileName).toPath(), toJson(kr));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    private static File getLayoutFile(String fileName) {
+        return new File(H2CO3Tools.H2CO3_CONTROL_DIR, fileName + ".json");
+    }
+
+    private static String toJson(KeyboardRecorder kr) {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(kr);
+    }
+
     public int[] getDisplaySize() {
         return new int[]{displayWidth, displayHeight};
     }
@@ -101,6 +101,7 @@ public class CkbManager {
             }
             buttonList.add(button);
             addView(button);
+            markChanged();
         }
     }
 
@@ -112,6 +113,7 @@ public class CkbManager {
         if (containGameButton(button)) {
             buttonList.remove(button);
             removeView(button);
+            markChanged();
         }
     }
 
@@ -163,7 +165,14 @@ public class CkbManager {
         }
     }
 
-    public void exportKeyboard(String fileName) {
+    /**
+     * Called by {@link GameButton} and by this manager whenever a saved property of the layout changes.
+     */
+    public void markChanged() {
+        layoutChanged = true;
+    }
+
+    private KeyboardRecorder recordKeyboard() {
         GameButtonRecorder[] gbrs = new GameButtonRecorder[buttonList.size()];
         for (int a = 0; a < buttonList.size(); a++) {
             GameButtonRecorder gbr = new GameButtonRecorder();
@@ -174,16 +183,48 @@ public class CkbManager {
         kr.setScreenArgs(mContext.getResources().getDisplayMetrics().widthPixels, mContext.getResources().getDisplayMetrics().heightPixels);
         kr.setRecorderDatas(gbrs);
         kr.setVersionCode(KeyboardRecorder.VERSION_THIS);
+        layoutChanged = false;
+        return kr;
+    }
 
-        outputFile(kr, fileName);
+    public void exportKeyboard(String fileName) {
+        KeyboardRecorder kr = recordKeyboard();
+        if (LAST_KEYBOARD_LAYOUT_NAME.equals(fileName)) {
+            // Must not be overtaken by an older auto save still in flight
+            try {
+                getAutoSaveWriter().writeNow(toJson(kr));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else {
+            outputFile(kr, fileName);
+        }
     }
 
+    /**
+     * Save the layout in the background if it changed since the last save. Must be called on the UI thread.
+     */
     public void autoSaveKeyboard() {
-        exportKeyboard(LAST_KEYBOARD_LAYOUT_NAME);
+        if (!layoutChanged) {
+            return;
+        }
+        // Buttons are only read here, the writer thread gets a detached copy
+        KeyboardRecorder kr = recordKeyboard();
+        getAutoSaveWriter().submit(() -> toJson(kr));
+    }
+
+    private DebouncedFileWriter getAutoSaveWriter() {
+        if (autoSaveWriter == null) {
+            autoSaveWriter = new DebouncedFileWriter(getLayoutFile(LAST_KEYBOARD_LAYOUT_NAME).toPath());
+        }
+        return autoSaveWriter;
     }
 
     public void autoLoadKeyboard() {
-        loadKeyboard(LAST_KEYBOARD_LAYOUT_NAME + ".json");
+        if (loadKeyboard(LAST_KEYBOARD_LAYOUT_NAME + ".json")) {
+            // The buttons were just built from the saved file
+            layoutChanged = false;
+        }
     }
 
     public boolean loadKeyboard(File file) {
@@ -245,6 +286,7 @@ public class CkbManager {
             removeView(button);
         }
         buttonList.clear();
+        markChanged();
     }
 
     public void showOrHideGameButtons(int i) {
@@ -4,7 +4,6 @@ import static androidx.core.math.MathUtils.clamp;
 import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.KEYBOARD_BUTTON;
 import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_BUTTON;
 import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_POINTER;
-import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_POINTER_INC;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
@@ -23,7 +22,6 @@ import org.koishi.launcher.h2co3.control.ckb.support.CallCustomizeKeyboard;
 import org.koishi.launcher.h2co3.control.ckb.support.CkbThemeMarker;
 import org.koishi.launcher.h2co3.control.ckb.support.CkbThemeRecorder;
 import org.koishi.launcher.h2co3.control.controller.Controller;
-import org.koishi.launcher.h2co3.control.event.BaseKeyEvent;
 import org.koishi.launcher.h2co3.core.login.utils.DisplayUtils;
 import org.koishi.launcher.h2co3.core.utils.ColorUtils;
 import org.koishi.launcher.h2co3.resources.component.activity.H2CO3Activity;
@@ -72,7 +70,9 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
     private int screenHeight;
     private String[] keyMaps;  //最多映射N个按键
     private int[] keyTypes; //映射的按键的类型
+    private int[][] keyCodes; //预先解析的键值
     private CkbThemeRecorder mRecorder; //主题记录器
+    private Object designKey; //当前背景的外观参数
 
     private boolean isKeep;  //自动保持
     private boolean isHide; //隐藏
@@ -89,8 +89,8 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
     private boolean isFirstAdded = false; //被首次创建
     private HashMap<String, Boolean> stateMap;
     private boolean isBeingPressed = false;
-    private int initialX = 0;
-    private int initialY = 0;
+    private float initialX = 0;
+    private float initialY = 0;
     private boolean hasDragged = false;
     private int touchPosX;
     private int touchPosY;
@@ -168,11 +168,13 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
 
     public void setInputChars(boolean b) {
         this.isChars = b;
+        mManager.markChanged();
     }
 
     public boolean setChars(String chars) {
         if (chars != null) {
             this.keyChars = chars;
+            mManager.markChanged();
             return true;
         } else {
             return false;
@@ -188,6 +190,8 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
             return null;
         } else {
             keyMaps[index] = keyName;
+            keyCodes = null;
+            mManager.markChanged();
             return keyMaps;
         }
     }
@@ -197,6 +201,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         if (color != 0) {
             this.mRecorder.setColors(0, color);
             updateUI();
+            mManager.markChanged();
             return true;
         }
         return false;
@@ -207,6 +212,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         if (color != 0) {
             this.setTextColor(color);
             this.mRecorder.setTextColor(color);
+            mManager.markChanged();
             return true;
         }
         return false;
@@ -228,6 +234,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         this.setY(ry);
 
         this.keyPos = new float[]{x, y};
+        mManager.markChanged();
 
         return this.keyPos; //x ,y
     }
@@ -242,6 +249,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
             params.height = heightPx;
             this.requestLayout();
             this.keySize = new float[]{widthDp, heightDp};
+            mManager.markChanged();
             return true;
         } else {
             return false;
@@ -252,6 +260,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         if (str != null) {
             this.setText(str);
             this.keyName = str;
+            mManager.markChanged();
             return true;
         } else {
             return false;
@@ -263,6 +272,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
 
         this.setTextSize((float) DisplayUtils.getPxFromSp(mContext, spValue));
         this.textSize = spValue;
+        mManager.markChanged();
     }
 
     public String[] getColorHexs() {
@@ -277,8 +287,8 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
 
     public void setGrabbed(boolean mode) {
         this.isGrabbed = mode;
-        //执行UI刷新
-        updateUI();
+        //鼠标捕获只影响显示/隐藏
+        updateVisibility();
     }
 
     public GameButton getNewButtonLikeThis() {
@@ -305,7 +315,8 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         return g;
     }
 
-    private void sendKey(String keyName, boolean pressed, int type) {
+    private void sendKey(int index, boolean pressed) {
+        String keyName = keyMaps[index];
         boolean isKeyStateTrue = stateMap.containsKey(keyName) && Boolean.TRUE.equals(stateMap.get(keyName));
         boolean isKeyStateFalse = stateMap.containsKey(keyName) && Boolean.FALSE.equals(stateMap.get(keyName));
 
@@ -317,7 +328,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         } else {
             if (isKeyStateTrue) {
                 stateMap.put(keyName, false);
-                mController.sendKey(new BaseKeyEvent(TAG, keyName, false, type, null));
+                mController.sendKeyCodes(keyTypes[index], getKeyCodes(index), false);
             }
         }
 
@@ -327,10 +338,24 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         }
 
         if (pressed) {
-            mController.sendKey(new BaseKeyEvent(TAG, keyName, true, type, null));
+            mController.sendKeyCodes(keyTypes[index], getKeyCodes(index), true);
         }
     }
 
+    /**
+     * Codes of {@code keyMaps[index]}, resolved on first use after the maps change.
+     */
+    private int[] getKeyCodes(int index) {
+        if (keyCodes == null) {
+            int[][] codes = new int[MAX_KEYMAP_SIZE][];
+            for (int a = 0; a < MAX_KEYMAP_SIZE; a++) {
+                codes[a] = mController.resolveKeyCodes(keyMaps[a]);
+            }
+            keyCodes = codes;
+        }
+        return keyCodes[index];
+    }
+
     public GameButton setFirstAdded() {
         this.isFirstAdded = true;
         return this;
@@ -343,13 +368,13 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
     private void inputPointerEvent(MotionEvent e) {
         switch (e.getAction()) {
             case MotionEvent.ACTION_DOWN:
-                initialX = (int) e.getX();
-                initialY = (int) e.getY();
+                initialX = e.getX();
+                initialY = e.getY();
                 break;
             case MotionEvent.ACTION_MOVE:
-                mController.sendKey(new BaseKeyEvent(TAG, null, false, MOUSE_POINTER_INC, new int[]{(int) (e.getX() - initialX), (int) (e.getY() - initialY)}));
-                initialX = (int) e.getX();
-                initialY = (int) e.getY();
+                mController.sendPointerInc(e.getX() - initialX, e.getY() - initialY);
+                initialX = e.getX();
+                initialY = e.getY();
                 break;
             case MotionEvent.ACTION_UP:
                 break;
@@ -364,14 +389,14 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
                     if (!isBeingPressed) {
                         for (int a = 0; a < MAX_KEYMAP_SIZE; a++) {
                             if (keyMaps[a] != null && !keyMaps[a].equals("")) {
-                                sendKey(keyMaps[a], true, keyTypes[a]);
+                                sendKey(a, true);
                             }
                         }
                     }
                 } else {
                     for (int a = 0; a < MAX_KEYMAP_SIZE; a++) {
                         if (keyMaps[a] != null && !keyMaps[a].equals("")) {
-                            sendKey(keyMaps[a], true, keyTypes[a]);
+                            sendKey(a, true);
                         }
                     }
                 }
@@ -381,7 +406,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
                     if (isBeingPressed) {
                         for (int a = 0; a < MAX_KEYMAP_SIZE; a++) {
                             if (keyMaps[a] != null && !keyMaps[a].equals("")) {
-                                sendKey(keyMaps[a], false, keyTypes[a]);
+                                sendKey(a, false);
                             }
                         }
                         isBeingPressed = false;
@@ -393,7 +418,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
                 } else {
                     for (int a = 0; a < MAX_KEYMAP_SIZE; a++) {
                         if (keyMaps[a] != null && !keyMaps[a].equals("")) {
-                            sendKey(keyMaps[a], false, keyTypes[a]);
+                            sendKey(a, false);
                         }
                     }
                 }
@@ -496,7 +521,16 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
     }
 
     public void updateUI() {
+        updateVisibility();
+        //刷新背景，外观未变化时保留当前背景
+        Object designKey = CkbThemeMarker.getDesignKey(mRecorder);
+        if (!designKey.equals(this.designKey)) {
+            this.designKey = designKey;
+            this.setBackground(CkbThemeMarker.getDesign(mRecorder));
+        }
+    }
 
+    private void updateVisibility() {
         //判断按键的显示/隐藏
         switch (this.buttonMode) {
             case MODE_GAME:
@@ -525,8 +559,6 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
                 }
                 break;
         }
-        //刷新背景
-        this.setBackground(CkbThemeMarker.getDesign(mRecorder));
     }
 
     public int getButtonMode() {
@@ -550,6 +582,8 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
             String[] tmp = new String[MAX_KEYMAP_SIZE];
             System.arraycopy(map, 0, tmp, 0, MAX_KEYMAP_SIZE);
             this.keyMaps = tmp;
+            this.keyCodes = null;
+            mManager.markChanged();
         } else {
         }
     }
@@ -560,6 +594,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
 
     public void setKeep(boolean isKeep) {
         this.isKeep = isKeep;
+        mManager.markChanged();
     }
 
     public String getBackColorHex() {
@@ -592,6 +627,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         radius = clamp(radius, MIN_CORNER_SIZE_PT, MAX_CORNER_SIZE_PT);
         this.mRecorder.setCornerRadiusPt(radius);
         updateUI();
+        mManager.markChanged();
     }
 
     public int getAlphaSize() {
@@ -603,6 +639,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
 
         this.setAlpha(alphaPt * 0.01f);
         this.alphaSize = alphaPt;
+        mManager.markChanged();
     }
 
     public String getKeyName() {
@@ -617,6 +654,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
         this.isHide = isHide;
         //UI刷新
         updateUI();
+        mManager.markChanged();
     }
 
     public boolean isFirstAdded() {
@@ -629,6 +667,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
 
     public void setViewerFollow(boolean follow) {
         this.viewerFollow = follow;
+        mManager.markChanged();
     }
 
     public int getDesignIndex() {
@@ -638,6 +677,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
     public void setDesignIndex(int index) {
         this.mRecorder.setDesignIndex(index);
         updateUI();
+        mManager.markChanged();
     }
 
     public CkbThemeRecorder getThemeRecorder() {
@@ -653,6 +693,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
             int[] tmp = new int[MAX_KEYMAP_SIZE];
             System.arraycopy(types, 0, tmp, 0, MAX_KEYMAP_SIZE);
             this.keyTypes = tmp;
+            mManager.markChanged();
         } else {
         }
     }
@@ -664,6 +705,7 @@ public class GameButton extends AppCompatButton implements View.OnTouchListener
     public void setShow(int s) {
         this.show = s;
         updateUI();
+        mManager.markChanged();
     }
 
 }
\ No newline at end of file
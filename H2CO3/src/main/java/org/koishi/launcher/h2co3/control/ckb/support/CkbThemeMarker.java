@@ -7,6 +7,9 @@ import android.graphics.drawable.GradientDrawable;
 import android.graphics.drawable.LayerDrawable;
 import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.RoundRectShape;
+import android.util.LruCache;
+
+import java.util.Objects;
 
 public class CkbThemeMarker {
 
@@ -16,8 +19,36 @@ public class CkbThemeMarker {
     public final static int DESIGN_BLACK_SHADOW = 4; //阴影背景
     public final static String[] DESIGNS = new String[]{"1", "2", "3", "4"};
     private final static String TAG = "CkbThemeMaker";
+    private final static int MAX_CACHED_DESIGNS = 64;
+
+    //相同外观的按键共用同一份ConstantState，每个按键只持有轻量的Drawable实例
+    private final static LruCache<DesignKey, Drawable.ConstantState> designCache = new LruCache<>(MAX_CACHED_DESIGNS);
+
+    /**
+     * @return 决定按键背景外观的全部参数，相等时背景相同，无需重新设置
+     */
+    public static Object getDesignKey(final CkbThemeRecorder recorder) {
+        return new DesignKey(recorder);
+    }
 
-    public static LayerDrawable getDesign(final CkbThemeRecorder recorder) {
+    public static Drawable getDesign(final CkbThemeRecorder recorder) {
+        DesignKey key = new DesignKey(recorder);
+        Drawable.ConstantState state = designCache.get(key);
+        if (state == null) {
+            LayerDrawable design = createDesign(recorder);
+            if (design == null) {
+                return null;
+            }
+            state = design.getConstantState();
+            if (state == null) {
+                return design;
+            }
+            designCache.put(key, state);
+        }
+        return state.newDrawable();
+    }
+
+    private static LayerDrawable createDesign(final CkbThemeRecorder recorder) {
 
         return switch (recorder.getDesignIndex()) {
             case DESIGN_SIGNLE_FILL -> getDesign_signle_fill(recorder);
@@ -112,4 +143,30 @@ public class CkbThemeMarker {
 
         return mainDrawable;
     }
+
+    private static class DesignKey {
+        private final int designIndex;
+        private final int mainColor;
+        private final int cornerRadius;
+
+        DesignKey(CkbThemeRecorder recorder) {
+            this.designIndex = recorder.getDesignIndex();
+            //阴影背景不使用主题颜色
+            this.mainColor = designIndex == DESIGN_BLACK_SHADOW ? 0 : recorder.getColor(0);
+            this.cornerRadius = recorder.getCornerRadius();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DesignKey key = (DesignKey) o;
+            return designIndex == key.designIndex && mainColor == key.mainColor && cornerRadius == key.cornerRadius;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(designIndex, mainColor, cornerRadius);
+        }
+    }
 }
@@ -6,6 +6,8 @@
 
 package org.koishi.launcher.h2co3.control.codes;
 
+import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MARK_KEYNAME_SPLIT;
+
 /**
  * @author caini
  */
@@ -18,4 +20,19 @@ public class Translation {
     public int trans(String str) {
         return (Integer) this.xKeyMap.translate(str);
     }
+
+    /**
+     * @param keyName one key name, or several joined by {@code MARK_KEYNAME_SPLIT}
+     */
+    public int[] transAll(String keyName) {
+        if (keyName == null) {
+            return new int[0];
+        }
+        String[] names = keyName.split(MARK_KEYNAME_SPLIT);
+        int[] codes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            codes[i] = trans(names[i]);
+        }
+        return codes;
+    }
 }
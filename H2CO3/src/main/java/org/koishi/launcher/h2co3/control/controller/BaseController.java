@@ -6,18 +6,27 @@
 
 package org.koishi.launcher.h2co3.control.controller;
 
+import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.KEYBOARD_BUTTON;
+import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_BUTTON;
+import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_POINTER;
+import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_POINTER_INC;
+
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.view.ViewGroup;
 
 import org.koishi.launcher.h2co3.control.client.H2CO3ControlClient;
+import org.koishi.launcher.h2co3.control.codes.Translation;
 import org.koishi.launcher.h2co3.control.input.Input;
 import org.koishi.launcher.h2co3.core.login.utils.DisplayUtils;
 import org.koishi.launcher.h2co3.launcher.utils.H2CO3LauncherBridge;
 
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Arrays;
+
+import timber.log.Timber;
 
 /**
  * @author caini
@@ -32,7 +41,17 @@ public abstract class BaseController implements Controller {
     private final Config mConfig;
     private final boolean isTimerEnable;
     public ArrayList<Input> inputs;
-    private Timer mTimer;
+    // Inputs read their views while saving, so the auto save runs on the UI thread and only writes what changed
+    private final Handler autoSaveHandler = new Handler(Looper.getMainLooper());
+    private final Runnable autoSaveTask = new Runnable() {
+        @Override
+        public void run() {
+            BaseController.this.saveConfig();
+            autoSaveHandler.postDelayed(this, internalTime);
+        }
+    };
+    private boolean isAutoSaving;
+    private final PointerDeltaAccumulator pointerAccumulator;
 
     public BaseController(H2CO3ControlClient h2CO3ControlClient, int intervalTime, boolean enableTimer) {
         this.h2CO3ControlClient = h2CO3ControlClient;
@@ -41,6 +60,7 @@ public abstract class BaseController implements Controller {
         this.internalTime = intervalTime;
         this.mConfig = new Config(DisplayUtils.getDisplayWindowSize(context)[0], DisplayUtils.getDisplayWindowSize(context)[1]);
         this.isTimerEnable = enableTimer;
+        this.pointerAccumulator = new PointerDeltaAccumulator(h2CO3ControlClient);
         if (enableTimer) {
             createAutoSaveTimer();
         }
@@ -56,6 +76,50 @@ public abstract class BaseController implements Controller {
     }
 
 
+    protected abstract Translation getTranslation();
+
+    @Override
+    public int[] resolveKeyCodes(String keyName) {
+        return getTranslation().transAll(keyName);
+    }
+
+    @Override
+    public void sendKeyCodes(int type, int[] codes, boolean pressed) {
+        if (Timber.treeCount() > 0) {
+            Timber.tag(TAG).e("Type: " + type + " Codes: " + Arrays.toString(codes) + " Pressed: " + pressed);
+        }
+        for (int code : codes) {
+            if (type == KEYBOARD_BUTTON) {
+                h2CO3ControlClient.setKey(code, pressed);
+            } else if (type == MOUSE_BUTTON) {
+                h2CO3ControlClient.setMouseButton(code, pressed);
+            }
+        }
+    }
+
+    @Override
+    public void sendPointer(int type, int x, int y) {
+        if (Timber.treeCount() > 0) {
+            Timber.tag(TAG).e("Type: " + type + " X: " + x + " Y: " + y);
+        }
+        if (type == MOUSE_POINTER) {
+            // Movements still waiting for the frame happened before this position
+            pointerAccumulator.flush();
+            h2CO3ControlClient.setPointer(x, y);
+        } else if (type == MOUSE_POINTER_INC) {
+            pointerAccumulator.add(x, y);
+        }
+    }
+
+    @Override
+    public void sendPointerInc(float xInc, float yInc) {
+        pointerAccumulator.add(xInc, yInc);
+    }
+
+    public PointerDeltaAccumulator getPointerAccumulator() {
+        return pointerAccumulator;
+    }
+
     @Override
     public boolean containsInput(Input input) {
         for (Input i : inputs) {
@@ -164,9 +228,9 @@ public abstract class BaseController implements Controller {
 
     @Override
     public void onPaused() {
-        if (mTimer != null) {
-            mTimer.cancel();
-            mTimer = null;
+        if (isAutoSaving) {
+            autoSaveHandler.removeCallbacks(autoSaveTask);
+            isAutoSaving = false;
         }
         for (Input i : inputs) {
             i.onPaused();
@@ -184,14 +248,9 @@ public abstract class BaseController implements Controller {
     }
 
     private void createAutoSaveTimer() {
-        if (mTimer != null) return;
-        mTimer = new Timer();
-        mTimer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                BaseController.this.saveConfig();
-            }
-        }, internalTime, internalTime);
+        if (isAutoSaving) return;
+        isAutoSaving = true;
+        autoSaveHandler.postDelayed(autoSaveTask, internalTime);
     }
 
     @Override
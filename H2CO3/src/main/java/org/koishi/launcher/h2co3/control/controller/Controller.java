@@ -11,6 +11,28 @@ public interface Controller {
 
     void sendKey(BaseKeyEvent event);
 
+    /**
+     * Resolve a key name, or several joined by {@code MARK_KEYNAME_SPLIT}, to key codes ahead of time.
+     */
+    int[] resolveKeyCodes(String keyName);
+
+    /**
+     * Like {@link #sendKey}, for {@code KEYBOARD_BUTTON} and {@code MOUSE_BUTTON} codes from
+     * {@link #resolveKeyCodes}, without allocating an event.
+     */
+    void sendKeyCodes(int type, int[] codes, boolean pressed);
+
+    /**
+     * Like {@link #sendKey}, for {@code MOUSE_POINTER} and {@code MOUSE_POINTER_INC}, without allocating an event.
+     */
+    void sendPointer(int type, int x, int y);
+
+    /**
+     * Move the pointer by a relative amount. Movements are summed and sent once per display frame,
+     * fractions of a pixel are kept for the next frame.
+     */
+    void sendPointerInc(float xInc, float yInc);
+
     int getInputCounts();
 
     boolean addInput(Input input);
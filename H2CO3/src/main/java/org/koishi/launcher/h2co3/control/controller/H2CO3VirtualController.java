@@ -67,6 +67,7 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
     private final static String sp_enable_itembar = "enable_mcpe_itembar";
     private final static String sp_enable_onscreentouchpad = "enable_touchpad";
     private final static String sp_enable_debuginfo = "enable_debuginfo";
+    private final static String sp_enable_pointer_acceleration = "enable_pointer_acceleration";
     private final static String sp_first_loadder = "first_loaded";
 
     //Dialog的控件
@@ -87,12 +88,15 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
     private ImageButton buttonTouchpad;
     private MaterialSwitch switchTouchpad;
     private MaterialSwitch switchDebugInfo;
+    private MaterialSwitch switchPointerAcceleration;
     private Button buttonOK;
     private CheckBox checkboxLock;
     private Button buttonResetPos;
 
     //绑定
     private HashMap<View, Input> bindingViews;
+    //开关变化后才需要保存
+    private boolean switchesChanged;
 
     public H2CO3VirtualController(H2CO3ControlClient h2CO3ControlClient, H2CO3LauncherBridge bridge, int transType) {
         super(h2CO3ControlClient, bridge, true);
@@ -108,7 +112,9 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
     @Override
     public void saveConfig() {
         super.saveConfig();
-        this.saveConfigToFile();
+        if (switchesChanged) {
+            this.saveConfigToFile();
+        }
     }
 
     public void init() {
@@ -143,6 +149,7 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
         switchPEItembar = settingDialog.findViewById(R.id.virtual_controller_dialog_switch_pe_itembar);
         switchTouchpad = settingDialog.findViewById(R.id.virtual_controller_dialog_switch_pc_touchpad);
         switchDebugInfo = settingDialog.findViewById(R.id.virtual_controller_dialog_switch_debug_info);
+        switchPointerAcceleration = settingDialog.findViewById(R.id.virtual_controller_dialog_switch_pointer_acceleration);
 
         buttonOK = settingDialog.findViewById(R.id.virtual_controller_dialog_button_ok);
         checkboxLock = settingDialog.findViewById(R.id.virtual_controller_dialog_checkbox_lock);
@@ -154,7 +161,7 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
             v.setOnClickListener(this);
         }
 
-        for (MaterialSwitch s : new MaterialSwitch[]{switchCustomizeKeyboard, switchPEItembar, switchTouchpad, switchDebugInfo}) {
+        for (MaterialSwitch s : new MaterialSwitch[]{switchCustomizeKeyboard, switchPEItembar, switchTouchpad, switchDebugInfo, switchPointerAcceleration}) {
             s.setOnCheckedChangeListener(this);
         }
 
@@ -179,6 +186,11 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
         bindingViews.put(switchDebugInfo, debugInfo);
     }
 
+    @Override
+    protected Translation getTranslation() {
+        return mTranslation;
+    }
+
     @Override
     public void sendKey(BaseKeyEvent e) {
         //日志输出
@@ -201,6 +213,9 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
     }
 
     private void toLog(BaseKeyEvent event) {
+        if (Timber.treeCount() == 0) {
+            return;
+        }
         String info = switch (event.getType()) {
             case KEYBOARD_BUTTON ->
                     "Type: " + event.getType() + " KeyName: " + event.getKeyName() + " Pressed: " + event.isPressed();
@@ -227,7 +242,7 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
                 break;
             case MOUSE_POINTER:
                 if (e.getPointer() != null) {
-                    h2CO3ControlClient.setPointer(e.getPointer()[0], e.getPointer()[1]);
+                    sendPointer(MOUSE_POINTER, e.getPointer()[0], e.getPointer()[1]);
                 }
                 break;
             case TYPE_WORDS:
@@ -235,7 +250,7 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
                 break;
             case MOUSE_POINTER_INC:
                 if (e.getPointer() != null) {
-                    h2CO3ControlClient.setPointerInc(e.getPointer()[0], e.getPointer()[1]);
+                    sendPointerInc(e.getPointer()[0], e.getPointer()[1]);
                 }
             default:
         }
@@ -270,6 +285,11 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
 
         if (buttonView instanceof MaterialSwitch && bindingViews.containsKey(buttonView)) {
             (Objects.requireNonNull(bindingViews.get(buttonView))).setEnabled(isChecked);
+            switchesChanged = true;
+        }
+        if (buttonView == switchPointerAcceleration) {
+            getPointerAccumulator().setCurve(isChecked ? PointerDeltaAccumulator.AccelerationCurve.ACCELERATED : PointerDeltaAccumulator.AccelerationCurve.LINEAR);
+            switchesChanged = true;
         }
         if (buttonView == checkboxLock) {
             for (Input i : inputs) {
@@ -329,11 +349,13 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
     }
 
     private void saveConfigToFile() {
+        switchesChanged = false;
         SharedPreferences.Editor editor = context.getSharedPreferences(spFileName, spMode).edit();
         editor.putBoolean(sp_enable_ckb, switchCustomizeKeyboard.isChecked());
         editor.putBoolean(sp_enable_itembar, switchPEItembar.isChecked());
         editor.putBoolean(sp_enable_onscreentouchpad, switchTouchpad.isChecked());
         editor.putBoolean(sp_enable_debuginfo, switchDebugInfo.isChecked());
+        editor.putBoolean(sp_enable_pointer_acceleration, switchPointerAcceleration.isChecked());
         if (!context.getSharedPreferences(spFileName, spMode).contains(sp_first_loadder)) {
             editor.putBoolean(sp_first_loadder, false);
         }
@@ -347,10 +369,13 @@ public class H2CO3VirtualController extends BaseController implements View.OnCli
         switchPEItembar.setChecked(sp.getBoolean(sp_enable_itembar, true));
         switchTouchpad.setChecked(sp.getBoolean(sp_enable_onscreentouchpad, true));
         switchDebugInfo.setChecked(sp.getBoolean(sp_enable_debuginfo, false));
+        switchPointerAcceleration.setChecked(sp.getBoolean(sp_enable_pointer_acceleration, false));
         if (!sp.contains(sp_first_loadder)) {
             resetAllPosOnScreen();
             ((CustomizeKeyboard) custmoizeKeyboard).mManager.loadKeyboard(new CustomizeKeyboardMaker(context).createDefaultKeyboard());
         }
+        //首次加载时仍需写入
+        switchesChanged = !sp.contains(sp_first_loadder);
     }
 
     @Override
@@ -90,6 +90,11 @@ public class HardwareController extends BaseController implements HwController {
         }
     }
 
+    @Override
+    protected Translation getTranslation() {
+        return mTranslation;
+    }
+
     @Override
     public void sendKey(BaseKeyEvent event) {
         toLog(event);
@@ -126,7 +131,7 @@ public class HardwareController extends BaseController implements HwController {
                 break;
             case MOUSE_POINTER:
                 if (e.getPointer() != null) {
-                    h2CO3ControlClient.setPointer(e.getPointer()[0], e.getPointer()[1]);
+                    sendPointer(MOUSE_POINTER, e.getPointer()[0], e.getPointer()[1]);
                 }
                 break;
             case TYPE_WORDS:
@@ -134,7 +139,7 @@ public class HardwareController extends BaseController implements HwController {
                 break;
             case MOUSE_POINTER_INC:
                 if (e.getPointer() != null) {
-                    h2CO3ControlClient.setPointerInc(e.getPointer()[0], e.getPointer()[1]);
+                    sendPointerInc(e.getPointer()[0], e.getPointer()[1]);
                 }
                 break;
             default:
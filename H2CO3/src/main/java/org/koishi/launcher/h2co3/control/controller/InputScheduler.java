@@ -0,0 +1,160 @@
+/*
+ * //
+ * // Created by cainiaohh on 2024-03-31.
+ * //
+ */
+
+package org.koishi.launcher.h2co3.control.controller;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.koishi.launcher.h2co3.control.event.BaseKeyEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends timed sequences of key and mouse button events without blocking the UI thread.
+ * <p>
+ * Each step is queued on the main looper at a time on the {@link SystemClock#uptimeMillis()} clock,
+ * so steps arrive in order between the other input events instead of sleeping in between. A sequence
+ * that is cancelled releases whatever it still holds. Use on the UI thread.
+ */
+public class InputScheduler {
+
+    public final static long DEFAULT_TAP_TIME = 20;
+    public final static long DEFAULT_DOUBLE_TAP_INTERVAL = 80;
+
+    private final Controller mController;
+    private final String tag;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Sequence> running = new ArrayList<>();
+
+    public InputScheduler(Controller controller, String tag) {
+        this.mController = controller;
+        this.tag = tag;
+    }
+
+    public Sequence sequence() {
+        return new Sequence();
+    }
+
+    public Sequence tap(String keyName, int type) {
+        return longPress(keyName, type, DEFAULT_TAP_TIME);
+    }
+
+    public Sequence longPress(String keyName, int type, long holdTime) {
+        return sequence().hold(keyName, type, holdTime).start();
+    }
+
+    public Sequence doubleTap(String keyName, int type) {
+        return sequence()
+                .hold(keyName, type, DEFAULT_TAP_TIME)
+                .delay(DEFAULT_DOUBLE_TAP_INTERVAL)
+                .hold(keyName, type, DEFAULT_TAP_TIME)
+                .start();
+    }
+
+    /**
+     * Cancel every running sequence, releasing what they hold.
+     */
+    public void cancelAll() {
+        for (Sequence sequence : new ArrayList<>(running)) {
+            sequence.cancel();
+        }
+    }
+
+    private void send(String keyName, int type, boolean pressed) {
+        mController.sendKey(new BaseKeyEvent(tag, keyName, pressed, type, null));
+    }
+
+    /**
+     * Steps are added in order, each {@link #delay} moves the following ones later.
+     */
+    public class Sequence {
+        private final List<Step> steps = new ArrayList<>();
+        // Keys pressed and not yet released, to release them on cancel
+        private final Map<String, Integer> held = new LinkedHashMap<>();
+        private long offset;
+        private boolean started;
+
+        public Sequence press(String keyName, int type) {
+            steps.add(new Step(offset, keyName, type, true));
+            return this;
+        }
+
+        public Sequence release(String keyName, int type) {
+            steps.add(new Step(offset, keyName, type, false));
+            return this;
+        }
+
+        /**
+         * Press {@code keyName}, then release it {@code holdTime} milliseconds later.
+         */
+        public Sequence hold(String keyName, int type, long holdTime) {
+            return press(keyName, type).delay(holdTime).release(keyName, type);
+        }
+
+        public Sequence delay(long millis) {
+            offset += Math.max(0, millis);
+            return this;
+        }
+
+        /**
+         * Steps due now are sent before this returns, the rest are queued.
+         */
+        public Sequence start() {
+            if (started) {
+                return this;
+            }
+            started = true;
+            long base = SystemClock.uptimeMillis();
+            running.add(this);
+            for (Step step : steps) {
+                if (step.offset == 0) {
+                    run(step);
+                } else {
+                    handler.postAtTime(() -> run(step), this, base + step.offset);
+                }
+            }
+            handler.postAtTime(() -> running.remove(this), this, base + offset);
+            return this;
+        }
+
+        public void cancel() {
+            handler.removeCallbacksAndMessages(this);
+            running.remove(this);
+            for (Map.Entry<String, Integer> entry : held.entrySet()) {
+                send(entry.getKey(), entry.getValue(), false);
+            }
+            held.clear();
+        }
+
+        private void run(Step step) {
+            if (step.pressed) {
+                held.put(step.keyName, step.type);
+            } else {
+                held.remove(step.keyName);
+            }
+            send(step.keyName, step.type, step.pressed);
+        }
+    }
+
+    private static class Step {
+        final long offset;
+        final String keyName;
+        final int type;
+        final boolean pressed;
+
+        Step(long offset, String keyName, int type, boolean pressed) {
+            this.offset = offset;
+            this.keyName = keyName;
+            this.type = type;
+            this.pressed = pressed;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * //
+ * // Created by cainiaohh on 2024-03-31.
+ * //
+ */
+
+package org.koishi.launcher.h2co3.control.controller;
+
+import android.view.Choreographer;
+
+import org.koishi.launcher.h2co3.control.client.H2CO3ControlClient;
+
+/**
+ * Collects relative pointer movements and sends their sum to the client once per display frame.
+ * <p>
+ * Movements may be added from any thread, the sum is sent from a {@link Choreographer} frame callback.
+ * Fractions of a pixel are carried over to the next frame instead of being lost to rounding, and an
+ * {@link AccelerationCurve} can scale each frame's movement by its speed. Create on the UI thread.
+ */
+public class PointerDeltaAccumulator implements Choreographer.FrameCallback {
+
+    // Speeds given to curves are in pixels per frame at 60 Hz, whatever the display rate
+    private final static long REFERENCE_FRAME_NANOS = 1_000_000_000L / 60;
+    private final static long MAX_FRAME_NANOS = REFERENCE_FRAME_NANOS * 3;
+
+    private final H2CO3ControlClient client;
+    private final Choreographer choreographer;
+    private final Object lock = new Object();
+    private float pendingX;
+    private float pendingY;
+    private float remainderX;
+    private float remainderY;
+    private boolean scheduled;
+    private long lastFrameNanos;
+    private volatile AccelerationCurve curve = AccelerationCurve.LINEAR;
+
+    public PointerDeltaAccumulator(H2CO3ControlClient client) {
+        this.client = client;
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    public void setCurve(AccelerationCurve curve) {
+        this.curve = curve == null ? AccelerationCurve.LINEAR : curve;
+    }
+
+    public AccelerationCurve getCurve() {
+        return curve;
+    }
+
+    public void add(float xInc, float yInc) {
+        synchronized (lock) {
+            pendingX += xInc;
+            pendingY += yInc;
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Send what has been collected now, e.g. before an absolute pointer position. Call on the UI thread.
+     */
+    public void flush() {
+        send(REFERENCE_FRAME_NANOS);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        long frameNanos = lastFrameNanos == 0 ? REFERENCE_FRAME_NANOS : Math.min(frameTimeNanos - lastFrameNanos, MAX_FRAME_NANOS);
+        lastFrameNanos = frameTimeNanos;
+        send(Math.max(frameNanos, 1));
+    }
+
+    private void send(long frameNanos) {
+        int xInc;
+        int yInc;
+        synchronized (lock) {
+            scheduled = false;
+            float x = pendingX;
+            float y = pendingY;
+            pendingX = 0;
+            pendingY = 0;
+            if (x != 0 || y != 0) {
+                float speed = (float) Math.hypot(x, y) * REFERENCE_FRAME_NANOS / frameNanos;
+                float gain = curve.gain(speed);
+                x = x * gain + remainderX;
+                y = y * gain + remainderY;
+            } else {
+                x = remainderX;
+                y = remainderY;
+            }
+            xInc = (int) x;
+            yInc = (int) y;
+            remainderX = x - xInc;
+            remainderY = y - yInc;
+        }
+        if (xInc != 0 || yInc != 0) {
+            client.setPointerInc(xInc, yInc);
+        }
+    }
+
+    /**
+     * Scales pointer movement by its speed.
+     */
+    public interface AccelerationCurve {
+
+        AccelerationCurve LINEAR = speed -> 1f;
+
+        /**
+         * The curve of the pointer acceleration setting, unchanged at 8 pixels per frame.
+         */
+        AccelerationCurve ACCELERATED = power(1f, 1.5f, 8f);
+
+        /**
+         * @param speed pixels moved in one frame at 60 Hz
+         * @return the factor to multiply the movement by
+         */
+        float gain(float speed);
+
+        static AccelerationCurve constant(float sensitivity) {
+            return speed -> sensitivity;
+        }
+
+        /**
+         * Movement grows with {@code speed ^ exponent}, slow movement stays precise while fast movement covers more
+         * distance. At {@code referenceSpeed} the gain is {@code sensitivity}.
+         */
+        static AccelerationCurve power(float sensitivity, float exponent, float referenceSpeed) {
+            return speed -> speed <= 0 ? sensitivity : sensitivity * (float) Math.pow(speed / referenceSpeed, exponent - 1);
+        }
+    }
+}
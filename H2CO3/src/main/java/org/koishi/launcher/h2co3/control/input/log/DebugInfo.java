@@ -14,17 +14,18 @@ import org.koishi.launcher.h2co3.control.controller.Controller;
 import org.koishi.launcher.h2co3.control.input.Input;
 import org.koishi.launcher.h2co3.core.H2CO3Tools;
 import org.koishi.launcher.h2co3.core.login.utils.DisplayUtils;
-import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+import org.koishi.launcher.h2co3.core.utils.file.RotatingLogWriter;
 import org.koishi.launcher.h2co3.launcher.utils.H2CO3LauncherBridge;
 import org.koishi.launcher.h2co3.resources.component.LogView;
 import org.koishi.launcher.h2co3.ui.H2CO3LauncherClientActivity;
 
 import java.io.File;
-import java.io.IOException;
 import java.lang.ref.WeakReference;
 
 public class DebugInfo implements Input, View.OnClickListener {
     private final static String TAG = "DebugInfo";
+    private final static long MAX_LOG_FILE_CHARS = 16 * 1024 * 1024;
+    private final static int LOG_FILE_BACKUPS = 1;
     public H2CO3LauncherBridge.LogReceiver mReceiver;
     private Controller mController;
     private boolean isEnabled;
@@ -32,11 +33,14 @@ public class DebugInfo implements Input, View.OnClickListener {
     //private Button switchButton;
     private LogView mLogView;
     //private boolean isShowInfo = true;
-    private boolean firstWrite = true;
-    private boolean isWrite = true;
+    private RotatingLogWriter mLogWriter;
 
     @Override
     public boolean unload() {
+        if (mLogWriter != null) {
+            mLogWriter.close();
+            mLogWriter = null;
+        }
         ViewGroup vg = (ViewGroup) mLogView.getParent();
         vg.removeView(mLogView);
         return true;
@@ -83,20 +87,14 @@ public class DebugInfo implements Input, View.OnClickListener {
         mLogView.setY(mController.getConfig().getScreenHeight() - mLogView.getLayoutParams().height);
 
         if (H2CO3LauncherClientActivity.logReceiver == null || H2CO3LauncherClientActivity.logReceiver.get() == null) {
-            mReceiver = new H2CO3LauncherBridge.LogReceiver() {
-                final StringBuilder stringBuilder = new StringBuilder();
-
+            mLogWriter = new RotatingLogWriter(new File(H2CO3Tools.LOG_DIR, "client_output.txt"), MAX_LOG_FILE_CHARS, LOG_FILE_BACKUPS);
+            mReceiver = new H2CO3LauncherBridge.DefaultLogReceiver() {
                 @Override
                 public void pushLog(String log) {
                     mLogView.appendLog(log);
-                    stringBuilder.append(log);
+                    super.pushLog(log);
                     writeLog(log);
                 }
-
-                @Override
-                public String getLogs() {
-                    return stringBuilder.toString();
-                }
             };
             H2CO3LauncherClientActivity.logReceiver = new WeakReference<>(mReceiver);
         }
@@ -124,24 +122,9 @@ public class DebugInfo implements Input, View.OnClickListener {
     }
 
     private void writeLog(String log) {
-        if (!isWrite) {
-            return;
-        }
-        File logFile = new File(H2CO3Tools.LOG_DIR + "/client_output.txt");
-        if (!logFile.exists()) {
-            try {
-                if (!logFile.createNewFile()) {
-                    isWrite = false;
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        if (firstWrite) {
-            FileTools.writeData(logFile.getAbsolutePath(), log);
-            firstWrite = false;
-        } else {
-            FileTools.addStringLineToFile(log, logFile);
+        RotatingLogWriter writer = mLogWriter;
+        if (writer != null) {
+            writer.write(log);
         }
     }
 
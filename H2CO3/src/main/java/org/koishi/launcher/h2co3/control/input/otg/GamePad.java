@@ -8,9 +8,9 @@ package org.koishi.launcher.h2co3.control.input.otg;
 
 import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.KEYBOARD_BUTTON;
 import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_BUTTON;
-import static org.koishi.launcher.h2co3.control.definitions.id.key.KeyEvent.MOUSE_POINTER_INC;
 
 import android.content.Context;
+import android.view.Choreographer;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
@@ -26,10 +26,11 @@ public class GamePad implements HwInput {
     private final static String TAG = "GamePad";
 
     private final static int POINTER_SEND_LAG = 5;
+    //原先的线程每 POINTER_SEND_LAG 毫秒发送两次增量，保持相同的视角速度
+    private final static float G_R_B_INCS_PER_SECOND = 2 * 1000f / POINTER_SEND_LAG;
     private final static int EVENT_DEAL_LAG = 5;
     private final static int type_1 = KEYBOARD_BUTTON;
     private final static int type_2 = MOUSE_BUTTON;
-    private final static int type_3 = MOUSE_POINTER_INC;
     private final static float G_LT_THR_VALUE = 1f;
     private final static float G_RT_THR_VALUE = 1f;
     private final static float G_L_B_THR_POSITIVE = 0.15f;
@@ -60,7 +61,7 @@ public class GamePad implements HwInput {
     private boolean G_HAT_X_NEGATIVE_PRESS;
     private boolean G_HAT_Y_POSITIVE_PRESS;
     private boolean G_HAT_Y_NEGATIVE_PRESS;
-    private GamePadThread mGamePadThread;
+    private StickPointer mStickPointer;
 
     @Override
     public boolean onKey(KeyEvent event) {
@@ -307,7 +308,7 @@ public class GamePad implements HwInput {
 
             //右摇杆Z:  AXIS_Z
             //右摇杆RZ: AXIS_RZ
-            if (mGamePadThread != null) {
+            if (mStickPointer != null) {
                 int xInc = 0, yInc = 0;
                 if (event.getAxisValue(MotionEvent.AXIS_Z) >= G_R_B_THR_POSITIVE) {
                     xInc = (int) ((event.getAxisValue(MotionEvent.AXIS_Z) - G_R_B_THR_POSITIVE) * G_R_B_NUM_TIMES);
@@ -322,10 +323,10 @@ public class GamePad implements HwInput {
                 }
 
                 if (event.getAxisValue(MotionEvent.AXIS_Z) > G_R_B_THR_NEGATIVE && event.getAxisValue(MotionEvent.AXIS_Z) < G_R_B_THR_POSITIVE && event.getAxisValue(MotionEvent.AXIS_RZ) > G_R_B_THR_NEGATIVE && event.getAxisValue(MotionEvent.AXIS_RZ) < G_R_B_THR_POSITIVE)
-                    mGamePadThread.setPaused(true);
+                    mStickPointer.setPaused(true);
                 else {
-                    mGamePadThread.getRunnable().setIncs(xInc, yInc);
-                    mGamePadThread.setPaused(false);
+                    mStickPointer.setIncs(xInc, yInc);
+                    mStickPointer.setPaused(false);
                 }
             }
 
@@ -411,7 +412,7 @@ public class GamePad implements HwInput {
 
             //右摇杆Z:  AXIS_Z
             //右摇杆RZ: AXIS_RZ
-            if (mGamePadThread != null) {
+            if (mStickPointer != null) {
                 int xInc = 0, yInc = 0;
                 if (event.getAxisValue(MotionEvent.AXIS_Z) >= G_R_B_THR_POSITIVE) {
                     xInc = (int) ((event.getAxisValue(MotionEvent.AXIS_Z) - G_R_B_THR_POSITIVE) * G_R_B_NUM_TIMES);
@@ -426,10 +427,10 @@ public class GamePad implements HwInput {
                 }
 
                 if (event.getAxisValue(MotionEvent.AXIS_Z) > G_R_B_THR_NEGATIVE && event.getAxisValue(MotionEvent.AXIS_Z) < G_R_B_THR_POSITIVE && event.getAxisValue(MotionEvent.AXIS_RZ) > G_R_B_THR_NEGATIVE && event.getAxisValue(MotionEvent.AXIS_RZ) < G_R_B_THR_POSITIVE)
-                    mGamePadThread.setPaused(true);
+                    mStickPointer.setPaused(true);
                 else {
-                    mGamePadThread.getRunnable().setIncs(xInc, yInc);
-                    mGamePadThread.setPaused(false);
+                    mStickPointer.setIncs(xInc, yInc);
+                    mStickPointer.setPaused(false);
                 }
             }
 
@@ -446,18 +447,18 @@ public class GamePad implements HwInput {
     @Override
     public boolean load(Context context, Controller controller, H2CO3LauncherBridge bridge) {
         this.mController = controller;
-        //启动右摇杆的输入线程
-        this.mGamePadThread = new GamePadThread();
-        this.mGamePadThread.start();
+        //启动右摇杆的视角移动
+        this.mStickPointer = new StickPointer();
+        this.mStickPointer.start();
 
         return true;
     }
 
     @Override
     public boolean unload() {
-        //销毁输入进程
-        if (mGamePadThread != null && !mGamePadThread.isInterrupted())
-            mGamePadThread.interrupt();
+        //停止右摇杆的视角移动
+        if (mStickPointer != null)
+            mStickPointer.stop();
         return true;
     }
 
@@ -487,18 +488,16 @@ public class GamePad implements HwInput {
 
     @Override
     public void onPaused() {
-        //销毁输入进程
-        if (mGamePadThread != null && !mGamePadThread.isInterrupted())
-            mGamePadThread.interrupt();
+        //停止右摇杆的视角移动
+        if (mStickPointer != null)
+            mStickPointer.stop();
     }
 
     @Override
     public void onResumed() {
-        //重建输入进程
-        if (mGamePadThread == null || mGamePadThread.isInterrupted()) {
-            mGamePadThread = new GamePadThread();
-            mGamePadThread.start();
-        }
+        //恢复右摇杆的视角移动
+        if (mStickPointer != null)
+            mStickPointer.start();
     }
 
     @Override
@@ -506,65 +505,58 @@ public class GamePad implements HwInput {
         return this.mController;
     }
 
-    private class GamePadThread extends Thread {
+    //右摇杆偏转时每帧按速度移动视角，代替原先的忙等线程
+    private class StickPointer implements Choreographer.FrameCallback {
 
-        private GamePadRunnable mRunnable;
-        private boolean isPaused = true;
+        private final static long MAX_FRAME_NANOS = 50_000_000L;
 
-        @Override
-        public void run() {
-            super.run();
-            mRunnable = new GamePadRunnable(this);
-            mRunnable.run();
+        private boolean isRunning;
+        private boolean isPaused = true;
+        private boolean isScheduled;
+        private int xInc;
+        private int yInc;
+        private long lastFrameNanos;
+
+        public void start() {
+            isRunning = true;
+            schedule();
         }
 
-        public boolean isPaused() {
-            return this.isPaused;
+        public void stop() {
+            isRunning = false;
         }
 
         public void setPaused(boolean b) {
-            //Log.e(TAG, "Thread: setPaused." + isPaused);
             this.isPaused = b;
+            schedule();
         }
 
-        public GamePadRunnable getRunnable() {
-            return this.mRunnable;
+        public void setIncs(int xInc, int yInc) {
+            this.xInc = xInc;
+            this.yInc = yInc;
         }
 
-        private class GamePadRunnable implements Runnable {
-            private final GamePadThread mThread;
-            private int xInc;
-            private int yInc;
-            private long lastPointerTime;
-
-            public GamePadRunnable(GamePadThread thread) {
-                this.mThread = thread;
+        private void schedule() {
+            if (isRunning && !isPaused && !isScheduled) {
+                isScheduled = true;
+                lastFrameNanos = 0;
+                Choreographer.getInstance().postFrameCallback(this);
             }
+        }
 
-            @Override
-            public void run() {
-                while (true) {
-                    if (mThread.isPaused()) {
-                        continue;
-                    }
-                    if (Thread.currentThread().isInterrupted()) {
-                        return;
-                    }
-                    if (System.currentTimeMillis() - this.lastPointerTime >= POINTER_SEND_LAG) {
-                        //Log.e(TAG, "Thread: do." + " xInc: " + xInc + " yInc: " + yInc);
-                        this.lastPointerTime = System.currentTimeMillis();
-                        mController.sendKey(new BaseKeyEvent(TAG, null, false, type_3, new int[]{xInc, yInc}));
-                        GamePad.this.getController().getClient().setPointerInc(this.xInc, this.yInc);
-                    }
-                }
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isScheduled = false;
+            if (!isRunning || isPaused) {
+                return;
             }
-
-            public void setIncs(int xInc, int yInc) {
-                //Log.e(TAG, "Thread: setIncs." + " xInc: " + xInc + " yInc: " + yInc);
-                this.xInc = xInc;
-                this.yInc = yInc;
-                this.lastPointerTime = System.currentTimeMillis();
+            if (lastFrameNanos != 0) {
+                float seconds = Math.min(frameTimeNanos - lastFrameNanos, MAX_FRAME_NANOS) / 1_000_000_000f;
+                mController.sendPointerInc(xInc * G_R_B_INCS_PER_SECOND * seconds, yInc * G_R_B_INCS_PER_SECOND * seconds);
             }
+            lastFrameNanos = frameTimeNanos;
+            isScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
         }
     }
 }
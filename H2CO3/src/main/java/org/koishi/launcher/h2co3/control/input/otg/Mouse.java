@@ -80,7 +80,7 @@ public class Mouse implements HwInput {
 
     //私有事件封装
     private void sendPointerInc(int x, int y) {
-        mController.sendKey(new BaseKeyEvent(TAG, null, false, type1, new int[]{x, y}));
+        mController.sendPointer(type1, x, y);
     }
 
     private void sendKeyEvent(String keyName, boolean pressed) {
@@ -60,6 +60,26 @@ public class CustomizeKeyboard implements OnscreenInput, Controller, CallCustomi
         mController.sendKey(event);
     }
 
+    @Override
+    public int[] resolveKeyCodes(String keyName) {
+        return mController.resolveKeyCodes(keyName);
+    }
+
+    @Override
+    public void sendKeyCodes(int type, int[] codes, boolean pressed) {
+        mController.sendKeyCodes(type, codes, pressed);
+    }
+
+    @Override
+    public void sendPointer(int type, int x, int y) {
+        mController.sendPointer(type, x, y);
+    }
+
+    @Override
+    public void sendPointerInc(float xInc, float yInc) {
+        mController.sendPointerInc(xInc, yInc);
+    }
+
     @Override
     public int getInputCounts() {
         return mController.getInputCounts();
@@ -36,6 +36,8 @@ import org.koishi.launcher.h2co3.launcher.utils.H2CO3LauncherBridge;
 import org.koishi.launcher.h2co3.resources.component.dialog.DialogUtils;
 import org.koishi.launcher.h2co3.resources.component.dialog.support.DialogSupports;
 
+import java.util.Arrays;
+
 public class ItemBar implements OnscreenInput, View.OnTouchListener {
 
     private final static String TAG = "ItemBar";
@@ -278,6 +280,8 @@ public class ItemBar implements OnscreenInput, View.OnTouchListener {
         private int originalInputHeight;
         private int screenWidth;
         private int screenHeight;
+        //上次保存的配置，未变化时不再写入
+        private int[] savedConfig;
 
         public ItembarConfigDialog(@NonNull Context context, OnscreenInput input) {
             mContext = context;
@@ -466,14 +470,20 @@ public class ItemBar implements OnscreenInput, View.OnTouchListener {
             seekbarAlpha.setProgress(sp.getInt(SP_ALPHA_NAME, DEFAULT_ALPHA_PROGRESS));
             seekbarSize.setProgress(sp.getInt(SP_SIZE_NAME, DEFAULT_SIZE_PROGRESS));
             mInput.setMargins(sp.getInt(SP_POS_X_NAME, 0), sp.getInt(SP_POS_Y_NAME, 0), 0, 0);
+            savedConfig = new int[]{sp.getInt(SP_ALPHA_NAME, DEFAULT_ALPHA_PROGRESS), sp.getInt(SP_SIZE_NAME, DEFAULT_SIZE_PROGRESS), sp.getInt(SP_POS_X_NAME, 0), sp.getInt(SP_POS_Y_NAME, 0)};
         }
 
         public void saveConfigToFile() {
+            int[] config = {seekbarAlpha.getProgress(), seekbarSize.getProgress(), (int) mInput.getPos()[0], (int) mInput.getPos()[1]};
+            if (Arrays.equals(config, savedConfig)) {
+                return;
+            }
+            savedConfig = config;
             SharedPreferences.Editor editor = mContext.getSharedPreferences(SP_FILE_NAME, SP_MODE).edit();
-            editor.putInt(SP_ALPHA_NAME, seekbarAlpha.getProgress());
-            editor.putInt(SP_SIZE_NAME, seekbarSize.getProgress());
-            editor.putInt(SP_POS_X_NAME, (int) mInput.getPos()[0]);
-            editor.putInt(SP_POS_Y_NAME, (int) mInput.getPos()[1]);
+            editor.putInt(SP_ALPHA_NAME, config[0]);
+            editor.putInt(SP_SIZE_NAME, config[1]);
+            editor.putInt(SP_POS_X_NAME, config[2]);
+            editor.putInt(SP_POS_Y_NAME, config[3]);
             editor.apply();
         }
 
@@ -32,6 +32,7 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import org.koishi.launcher.h2co3.R;
 import org.koishi.launcher.h2co3.control.controller.Controller;
+import org.koishi.launcher.h2co3.control.controller.InputScheduler;
 import org.koishi.launcher.h2co3.control.definitions.map.KeyMap;
 import org.koishi.launcher.h2co3.control.definitions.map.MouseMap;
 import org.koishi.launcher.h2co3.control.event.BaseKeyEvent;
@@ -40,6 +41,8 @@ import org.koishi.launcher.h2co3.launcher.utils.H2CO3LauncherBridge;
 import org.koishi.launcher.h2co3.resources.component.dialog.DialogUtils;
 import org.koishi.launcher.h2co3.resources.component.dialog.support.DialogSupports;
 
+import java.util.Arrays;
+
 public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
 
     public final static int TOUCHPAD_MODE_SLIDE = 1;
@@ -52,6 +55,7 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
     private final static int MAX_MOVE_DISTANCE = 5;
     private final static long MIN_SHLDING_TIME = 100;
     private Controller mController;
+    private InputScheduler inputScheduler;
     private LinearLayout onscreenTouchpad;
     private Button touchpad;
     private int touchpadMode = TOUCHPAD_MODE_POINT;
@@ -73,6 +77,7 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
     public boolean load(Context context, Controller controller, H2CO3LauncherBridge bridge) {
 
         this.mController = controller;
+        this.inputScheduler = new InputScheduler(controller, TAG);
 
         onscreenTouchpad = (LinearLayout) LayoutInflater.from(context).inflate(R.layout.virtual_touchpad, null);
         mController.addContentView(onscreenTouchpad, new ViewGroup.LayoutParams(mController.getConfig().getScreenWidth(), mController.getConfig().getScreenHeight()));
@@ -200,13 +205,7 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
                         case MotionEvent.ACTION_UP:
                             if (performClick) {
                                 if (event.getEventTime() - cursorDownTime < MIN_HOLDING_TIME) {
-                                    sendMouseEvent(MOUSEMAP_BUTTON_LEFT, true);
-                                    try {
-                                        Thread.sleep(20);
-                                    } catch (InterruptedException e) {
-                                        e.printStackTrace();
-                                    }
-                                    sendMouseEvent(MOUSEMAP_BUTTON_LEFT, false);
+                                    inputScheduler.tap(MOUSEMAP_BUTTON_LEFT, type_1);
                                 } else {
                                     sendMouseEvent(MOUSEMAP_BUTTON_RIGHT, true);
                                     sendMouseEvent(MOUSEMAP_BUTTON_RIGHT, false);
@@ -224,6 +223,7 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
 
     @Override
     public boolean unload() {
+        inputScheduler.cancelAll();
         onscreenTouchpad.setVisibility(View.INVISIBLE);
         ViewGroup vg = (ViewGroup) onscreenTouchpad.getParent();
         vg.removeView(onscreenTouchpad);
@@ -281,7 +281,7 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
     }
 
     private void sendPointer(int x, int y, int type) {
-        mController.sendKey(new BaseKeyEvent(TAG, null, false, type, new int[]{x, y}));
+        mController.sendPointer(type, x, y);
     }
 
     private void sendMouseEvent(String name, boolean pressed) {
@@ -360,6 +360,8 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
         private Button buttonRestore;
         private int originalSpeedProgress;
         private int originalDelayProgress;
+        //上次保存的配置，未变化时不再写入
+        private int[] savedConfig;
 
         public OnscreenTouchpadConfigDialog(@NonNull Context context, OnscreenInput input) {
             this.mContext = context;
@@ -531,17 +533,29 @@ public class OnscreenTouchpad implements OnscreenInput, KeyMap, MouseMap {
                     break;
             }
             seekbarDelay.setProgress(sp.getInt(sp_delay_name, DEFAULT_DELAY_PROGRESS));
+            savedConfig = new int[]{sp.getInt(sp_speed_name, DEFAULT_SPEED_PROGRESS), sp.getInt(sp_touchpad_mode, OnscreenTouchpad.TOUCHPAD_MODE_POINT), sp.getInt(sp_delay_name, DEFAULT_DELAY_PROGRESS)};
         }
 
         private void saveConfigToFile() {
-            SharedPreferences.Editor editor = mContext.getSharedPreferences(spFileName, spMode).edit();
-            editor.putInt(sp_speed_name, seekbarSpeed.getProgress());
+            int mode;
             if (this.radioSlide.isChecked()) {
-                editor.putInt(sp_touchpad_mode, OnscreenTouchpad.TOUCHPAD_MODE_SLIDE);
+                mode = OnscreenTouchpad.TOUCHPAD_MODE_SLIDE;
             } else if (this.radioPoint.isChecked()) {
-                editor.putInt(sp_touchpad_mode, OnscreenTouchpad.TOUCHPAD_MODE_POINT);
+                mode = OnscreenTouchpad.TOUCHPAD_MODE_POINT;
+            } else {
+                mode = -1;
+            }
+            int[] config = {seekbarSpeed.getProgress(), mode, seekbarDelay.getProgress()};
+            if (Arrays.equals(config, savedConfig)) {
+                return;
+            }
+            savedConfig = config;
+            SharedPreferences.Editor editor = mContext.getSharedPreferences(spFileName, spMode).edit();
+            editor.putInt(sp_speed_name, config[0]);
+            if (mode != -1) {
+                editor.putInt(sp_touchpad_mode, mode);
             }
-            editor.putInt(sp_delay_name, seekbarDelay.getProgress());
+            editor.putInt(sp_delay_name, config[2]);
             editor.apply();
         }
     }
@@ -9,7 +9,6 @@ package org.koishi.launcher.h2co3.dialog;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkCapabilities;
-import android.os.AsyncTask;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
@@ -30,40 +29,37 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.koishi.launcher.h2co3.R;
+import org.koishi.launcher.h2co3.core.H2CO3Tools;
+import org.koishi.launcher.h2co3.core.utils.Schedulers;
+import org.koishi.launcher.h2co3.core.utils.download.AssetsDownloader;
+import org.koishi.launcher.h2co3.core.utils.download.DownloadEngine;
+import org.koishi.launcher.h2co3.core.utils.download.DownloadEntry;
+import org.koishi.launcher.h2co3.core.utils.download.MirrorRegistry;
 import org.koishi.launcher.h2co3.launcher.utils.H2CO3GameHelper;
 import org.koishi.launcher.h2co3.utils.download.DownloadItem;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 public class DownloadDialog extends MaterialAlertDialogBuilder {
-    private static final int BUFFER_SIZE = 1024;
     private static final String DOWNLOAD_PATH = H2CO3GameHelper.getGameDirectory() + "/libraries";
-    private static final String LIBRARY_URL_PREFIX = "https://libraries.minecraft.net/";
-    private static final String LIBRARY_URL_REPLACE = "https://bmclapi2.bangbang93.com/maven/";
 
     private final Context context;
     private final RecyclerView recyclerView;
     private final List<DownloadItem> downloadItems;
     private String jsonString;
+    private JSONObject assetIndex;
+    private DownloadItem assetsItem;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private AlertDialog dialog;
-    private DownloadTask downloadTask;
+    private AlertDialog errorDialog;
+    private DownloadEngine downloadEngine;
 
     public DownloadDialog(@NonNull Context context) {
         super(context);
@@ -78,7 +74,7 @@ public class DownloadDialog extends MaterialAlertDialogBuilder {
     }
 
     public void setJsonString(String jsonString) {
-        this.jsonString = jsonString.replace(LIBRARY_URL_PREFIX, LIBRARY_URL_REPLACE);
+        this.jsonString = jsonString;
     }
 
     @Override
@@ -88,20 +84,101 @@ public class DownloadDialog extends MaterialAlertDialogBuilder {
         DownloadAdapter adapter = new DownloadAdapter(context, downloadItems);
         recyclerView.setAdapter(adapter);
 
-        int threadCount = getThreadCount();
-        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
-        downloadTask = new DownloadTask(executorService, adapter);
-        downloadTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        downloadEngine = new DownloadEngine(getThreadCount())
+                .setMirrorRegistry(MirrorRegistry.of(H2CO3Tools.H2CO3_SETTING_DIR + "/" + MirrorRegistry.STATS_FILE_NAME));
+        startDownload(adapter);
 
         dialog = super.create();
-        dialog.setOnDismissListener(dialog -> {
-            if (downloadTask != null) {
-                downloadTask.cancel(true);
-                executorService.shutdownNow();
+        dialog.setOnDismissListener(dialog -> downloadEngine.cancel());
+
+        return dialog;
+    }
+
+    private void startDownload(DownloadAdapter adapter) {
+        Map<DownloadEntry, DownloadItem> entries = new LinkedHashMap<>();
+        for (DownloadItem item : downloadItems) {
+            if (item == assetsItem) {
+                continue;
             }
+            File target = new File(DOWNLOAD_PATH + File.separator + item.getPath());
+            entries.put(new DownloadEntry(item.getUrl(), target, item.getSha1(), item.getSize()), item);
+        }
+
+        Schedulers.io().execute(() -> {
+            List<DownloadEntry> failed;
+            try {
+                failed = downloadEngine.download(new ArrayList<>(entries.keySet()), (downloadedBytes, totalBytes, finishedFiles, totalFiles) -> {
+                    for (Map.Entry<DownloadEntry, DownloadItem> entry : entries.entrySet()) {
+                        entry.getValue().setProgress(entry.getKey().getProgress());
+                    }
+                    handler.post(adapter::refresh);
+                });
+                if (assetIndex != null && !downloadEngine.isCancelled()) {
+                    failed.addAll(downloadAssets(adapter));
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (downloadEngine.isCancelled()) {
+                return;
+            }
+
+            handler.post(() -> {
+                adapter.refresh();
+                if (failed.isEmpty()) {
+                    if (dialog != null) {
+                        dialog.dismiss();
+                    }
+                } else {
+                    for (DownloadEntry entry : failed) {
+                        Log.e("DownloadDialog", "Error downloading file: " + entry.getUrl());
+                    }
+                    showErrorDialog("下载失败: " + failed.size() + "/" + entries.size());
+                }
+            });
         });
+    }
 
-        return dialog;
+    private List<DownloadEntry> downloadAssets(DownloadAdapter adapter) throws InterruptedException {
+        AssetsDownloader assets = new AssetsDownloader(downloadEngine, new File(H2CO3Tools.SHARED_ASSETS_DIR));
+        String id = assetIndex.optString("id");
+        String url = assetIndex.optString("url");
+        long totalSize = assetIndex.optLong("totalSize");
+        try {
+            List<DownloadEntry> failed = assets.download(id, url, assetIndex.optString("sha1", null), assetIndex.optLong("size"),
+                    (downloadedBytes, totalBytes, finishedFiles, totalFiles) -> {
+                        if (totalSize > 0) {
+                            assetsItem.setProgress((int) Math.min(99, downloadedBytes * 100 / totalSize));
+                        }
+                        handler.post(adapter::refresh);
+                    });
+            if (!failed.isEmpty()) {
+                return failed;
+            }
+
+            // Shared storage has no hard links, let the game read the shared store directly.
+            if (!assets.link(id, new File(H2CO3GameHelper.getGameAssetsRoot()))) {
+                assets.link(id, assets.getStore());
+                H2CO3GameHelper.setGameAssetsRoot(assets.getStore().getAbsolutePath());
+                H2CO3GameHelper.setGameAssets(assets.getStore().getAbsolutePath() + "/virtual/legacy");
+            }
+            assetsItem.setProgress(100);
+            return failed;
+        } catch (IOException e) {
+            Log.e("DownloadDialog", "Error installing assets " + id, e);
+            return Collections.singletonList(new DownloadEntry(url, assets.getIndexFile(id), null, 0));
+        }
+    }
+
+    private void showErrorDialog(String message) {
+        if (errorDialog == null || !errorDialog.isShowing()) {
+            errorDialog = new AlertDialog.Builder(context)
+                    .setTitle("错误")
+                    .setMessage(message)
+                    .setPositiveButton("确定", null)
+                    .create();
+        }
+        errorDialog.show();
     }
 
     private void parseJsonString() {
@@ -109,6 +186,13 @@ public class DownloadDialog extends MaterialAlertDialogBuilder {
             JSONObject rootJsonObject = new JSONObject(jsonString);
             JSONArray libraries = rootJsonObject.getJSONArray("libraries");
 
+            assetIndex = rootJsonObject.optJSONObject("assetIndex");
+            if (assetIndex != null) {
+                assetsItem = new DownloadItem("assets " + assetIndex.optString("id"), null,
+                        assetIndex.optString("url"), assetIndex.optString("sha1", null), assetIndex.optInt("totalSize"));
+                downloadItems.add(assetsItem);
+            }
+
             for (int i = 0; i < libraries.length(); i++) {
                 JSONObject library = libraries.getJSONObject(i);
                 if (shouldFilterLibrary(library)) {
@@ -121,9 +205,10 @@ public class DownloadDialog extends MaterialAlertDialogBuilder {
                 String name = library.getString("name");
                 String path = artifact.getString("path");
                 String url = artifact.getString("url");
+                String sha1 = artifact.optString("sha1", null);
                 int size = artifact.getInt("size");
 
-                DownloadItem item = new DownloadItem(name, path, url, size);
+                DownloadItem item = new DownloadItem(name, path, url, sha1, size);
                 downloadItems.add(item);
             }
         } catch (JSONException e) {
@@ -181,11 +266,15 @@ public class DownloadDialog extends MaterialAlertDialogBuilder {
             return downloadItems.size();
         }
 
+        public void refresh() {
+            removeCompletedItems();
+            notifyItemRangeChanged(0, downloadItems.size());
+        }
+
         public void removeCompletedItems() {
             List<DownloadItem> itemsToRemove = new ArrayList<>();
             for (DownloadItem item : downloadItems) {
-                File file = new File(DOWNLOAD_PATH + File.separator + item.getPath());
-                if (item.getProgress() == 100 && file.exists() && file.length() == item.getSize()) {
+                if (item.isCompleted()) {
                     itemsToRemove.add(item);
                 }
             }
@@ -214,128 +303,4 @@ public class DownloadDialog extends MaterialAlertDialogBuilder {
             }
         }
     }
-
-    private class DownloadTask extends AsyncTask<Void, Integer, Void> {
-        private final ExecutorService executorService;
-        private final DownloadAdapter adapter;
-
-        public DownloadTask(ExecutorService executorService, DownloadAdapter adapter) {
-            this.executorService = executorService;
-            this.adapter = adapter;
-        }
-
-        @Override
-        protected Void doInBackground(Void... voids) {
-            List<Future<Void>> futures = new ArrayList<>();
-            for (int i = 0; i < downloadItems.size(); i++) {
-                DownloadItem item = downloadItems.get(i);
-
-                if (isFileValid(item)) {
-                    item.setProgress(100);
-                    publishProgress(i);
-                    continue;
-                }
-
-                int finalI = i;
-                Future<Void> future = executorService.submit(() -> {
-                    try {
-                        URL url = new URL(item.getUrl());
-                        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                        connection.connect();
-
-                        createDirectoryForItem(item);
-
-                        try (InputStream input = new BufferedInputStream(connection.getInputStream());
-                             OutputStream output = new BufferedOutputStream(new FileOutputStream(DOWNLOAD_PATH + "/" + item.getPath()))) {
-
-                            byte[] data = new byte[BUFFER_SIZE];
-                            int count;
-                            int downloadedSizeForItem = 0;
-                            while ((count = input.read(data)) != -1) {
-                                if (isCancelled()) {
-                                    return null;
-                                }
-
-                                downloadedSizeForItem += count;
-                                output.write(data, 0, count);
-                                if (item.getSize() > 0) { // 避免除以零的错误
-                                    int progress = (downloadedSizeForItem * 100) / item.getSize();
-                                    item.setProgress(progress);
-                                    publishProgress(finalI);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        Log.e("DownloadTask", "Error downloading file: " + e.getMessage());
-                        showErrorDialogOnUIThread(e.getMessage());
-                        cancel(true);
-                        downloadItems.remove(item);
-                        publishProgress(finalI);
-                        throw new RuntimeException("Error downloading file: " + item.getUrl(), e);
-                    }
-                    return null;
-                });
-                futures.add(future);
-            }
-
-            for (Future<Void> future : futures) {
-                try {
-                    future.get();
-                } catch (Exception e) {
-                    Log.e("DownloadTask", "Error executing download task: " + e.getMessage());
-                    cancel(true);
-                    break;
-                }
-            }
-
-            return null;
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... values) {
-            adapter.notifyItemChanged(values[0]);
-            adapter.removeCompletedItems();
-        }
-
-        @Override
-        protected void onPostExecute(Void aVoid) {
-            adapter.removeCompletedItems();
-            if (downloadItems.isEmpty() || dialog != null) {
-                dialog.dismiss();
-            }
-            adapter.notifyDataSetChanged();
-        }
-
-        @Override
-        protected void onCancelled() {
-            super.onCancelled();
-            showErrorDialogOnUIThread("下载失败");
-        }
-
-        private boolean isFileValid(DownloadItem item) {
-            File file = new File(DOWNLOAD_PATH + "/" + item.getPath());
-            return file.exists() && file.length() == item.getSize();
-        }
-
-        private void createDirectoryForItem(DownloadItem item) throws IOException {
-            int lastIndex = item.getPath().lastIndexOf("/");
-            Path folderPath = Paths.get(DOWNLOAD_PATH, item.getPath().substring(0, lastIndex + 1));
-            Files.createDirectories(folderPath);
-        }
-
-        private AlertDialog dialog;
-
-        private void showErrorDialogOnUIThread(String message) {
-            new Handler(Looper.getMainLooper()).post(() -> {
-                if (dialog == null || !dialog.isShowing()) {
-                    dialog = new AlertDialog.Builder(context)
-                            .setTitle("错误")
-                            .setMessage(message)
-                            .setPositiveButton("确定", null)
-                            .create();
-                }
-                dialog.show();
-            });
-        }
-    }
 }
\ No newline at end of file
@@ -103,19 +103,7 @@ public class H2CO3LauncherClientActivity extends H2CO3LauncherActivity implement
     public static void receiveLog(String str) throws IOException {
         if (logReceiver == null || logReceiver.get() == null) {
             Log.e(TAG, "LogReceiver is null. So use default receiver.");
-            logReceiver = new WeakReference<>(new H2CO3LauncherBridge.LogReceiver() {
-                final StringBuilder builder = new StringBuilder();
-
-                @Override
-                public void pushLog(String log) {
-                    builder.append(log);
-                }
-
-                @Override
-                public String getLogs() {
-                    return builder.toString();
-                }
-            });
+            logReceiver = new WeakReference<>(new H2CO3LauncherBridge.DefaultLogReceiver());
         } else {
             logReceiver.get().pushLog(str);
         }
@@ -225,11 +213,13 @@ public class H2CO3LauncherClientActivity extends H2CO3LauncherActivity implement
 
     private void configureSurfaceTexture(SurfaceTexture surface, int width, int height) {
         surface.setDefaultBufferSize(width * scaleFactor, height * scaleFactor);
-        MCOptionUtils.saveOptions(H2CO3GameHelper.getGameDirectory());
+        String gameDir = H2CO3GameHelper.getGameDirectory();
+        MCOptionUtils.loadOptions(gameDir);
         MCOptionUtils.setOption("overrideWidth", String.valueOf(width * scaleFactor));
         MCOptionUtils.setOption("overrideHeight", String.valueOf(height * scaleFactor));
-        MCOptionUtils.setOption("fullscreen", "true");
-        MCOptionUtils.saveOptions(H2CO3GameHelper.getGameDirectory());
+        MCOptionUtils.setFullscreen(true);
+        // Writes only if one of them changed
+        MCOptionUtils.saveOptions(gameDir);
     }
 
     @Override
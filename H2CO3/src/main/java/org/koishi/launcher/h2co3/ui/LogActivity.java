@@ -0,0 +1,156 @@
+package org.koishi.launcher.h2co3.ui;
+
+import android.content.ClipData;
+import android.content.ClipboardManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.material.button.MaterialButton;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
+
+import org.koishi.launcher.h2co3.R;
+import org.koishi.launcher.h2co3.core.utils.logcat.LogStore;
+import org.koishi.launcher.h2co3.resources.component.H2CO3ToolBar;
+import org.koishi.launcher.h2co3.resources.component.LogcatTextViewLogger;
+import org.koishi.launcher.h2co3.resources.component.LogcatView;
+import org.koishi.launcher.h2co3.resources.component.activity.H2CO3Activity;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Shows the logcat of the launcher and the game, filtered by minimum level and a regular expression,
+ * with the recent error lines a tap away.
+ */
+public class LogActivity extends H2CO3Activity {
+
+    // Typing restarts the search, wait for a pause first
+    private static final long SEARCH_DELAY_MILLIS = 300;
+    private static final int[] LEVELS = {LogStore.LEVEL_UNKNOWN, Log.VERBOSE, Log.DEBUG, Log.INFO, Log.WARN, Log.ERROR, Log.ASSERT};
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable applyFilterTask = this::applyFilter;
+    private LogcatView logView;
+    private LogcatTextViewLogger logger;
+    private TextInputLayout searchLayout;
+    private TextInputEditText search;
+    private MaterialButton levelButton;
+    private int levelIndex;
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_log);
+        H2CO3ToolBar toolbar = findViewById(org.koishi.launcher.h2co3.resources.R.id.toolbar);
+        setSupportActionBar(toolbar);
+        toolbar.setTitle(getString(org.koishi.launcher.h2co3.resources.R.string.log_title));
+
+        logView = findViewById(R.id.log_view);
+        searchLayout = findViewById(R.id.log_search_layout);
+        search = findViewById(R.id.log_search);
+        levelButton = findViewById(R.id.log_level);
+        MaterialButton errorsButton = findViewById(R.id.log_errors);
+
+        search.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                handler.removeCallbacks(applyFilterTask);
+                handler.postDelayed(applyFilterTask, SEARCH_DELAY_MILLIS);
+            }
+        });
+        levelButton.setOnClickListener(v -> showLevelDialog());
+        errorsButton.setOnClickListener(v -> showErrors());
+        updateLevelButton();
+
+        logger = new LogcatTextViewLogger(logView);
+        LogcatTextViewLogger.setupLogger(logger);
+    }
+
+    private String[] getLevelNames() {
+        return new String[]{
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_all),
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_verbose),
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_debug),
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_info),
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_warn),
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_error),
+                getString(org.koishi.launcher.h2co3.resources.R.string.log_level_fatal)
+        };
+    }
+
+    private void updateLevelButton() {
+        levelButton.setText(getLevelNames()[levelIndex]);
+    }
+
+    private void showLevelDialog() {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(org.koishi.launcher.h2co3.resources.R.string.log_level)
+                .setSingleChoiceItems(getLevelNames(), levelIndex, (dialog, which) -> {
+                    levelIndex = which;
+                    updateLevelButton();
+                    applyFilter();
+                    dialog.dismiss();
+                })
+                .setNegativeButton(org.koishi.launcher.h2co3.resources.R.string.button_cancel, null)
+                .show();
+    }
+
+    private void applyFilter() {
+        handler.removeCallbacks(applyFilterTask);
+        LogStore.Query query = new LogStore.Query().setMinLevel(LEVELS[levelIndex]);
+        String text = search.getText() == null ? "" : search.getText().toString();
+        if (!text.isEmpty()) {
+            try {
+                query.setPattern(Pattern.compile(text));
+            } catch (PatternSyntaxException e) {
+                // Keep showing the last valid filter
+                searchLayout.setError(getString(org.koishi.launcher.h2co3.resources.R.string.log_invalid_pattern));
+                return;
+            }
+        }
+        searchLayout.setError(null);
+        logView.setFilter(query);
+    }
+
+    private void showErrors() {
+        String errors = logView.getStore().getErrors();
+        MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(this)
+                .setTitle(org.koishi.launcher.h2co3.resources.R.string.log_errors)
+                .setPositiveButton(org.koishi.launcher.h2co3.resources.R.string.title_ok, null);
+        if (errors.isEmpty()) {
+            builder.setMessage(org.koishi.launcher.h2co3.resources.R.string.log_no_errors);
+        } else {
+            builder.setMessage(errors)
+                    .setNeutralButton(org.koishi.launcher.h2co3.resources.R.string.title_copy, (dialog, which) -> {
+                        ClipboardManager clipboard = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+                        clipboard.setPrimaryClip(ClipData.newPlainText("Log", errors));
+                    });
+        }
+        builder.show();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(applyFilterTask);
+        logger.stop();
+    }
+}
@@ -21,7 +21,9 @@ import org.koishi.launcher.h2co3.core.H2CO3Auth;
 import org.koishi.launcher.h2co3.launcher.utils.H2CO3GameHelper;
 import org.koishi.launcher.h2co3.core.utils.LocaleUtils;
 import org.koishi.launcher.h2co3.core.utils.RuntimeUtils;
+import org.koishi.launcher.h2co3.core.utils.Schedulers;
 import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+import org.koishi.launcher.h2co3.core.utils.function.ExceptionalRunnable;
 import org.koishi.launcher.h2co3.resources.component.activity.H2CO3Activity;
 import org.koishi.launcher.h2co3.resources.component.dialog.H2CO3MessageDialog;
 
@@ -29,6 +31,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressLint("CustomSplashScreen")
 public class SplashActivity extends H2CO3Activity {
@@ -46,6 +50,8 @@ public class SplashActivity extends H2CO3Activity {
     private AlertDialog permissionDialogAlert;
     private boolean hasJumped = false;
     private boolean hasEnteredLauncher = false;
+    private final Map<String, long[]> installProgress = new ConcurrentHashMap<>();
+    private volatile int shownPercent = -1;
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -173,88 +179,85 @@ public class SplashActivity extends H2CO3Activity {
 
         installing = true;
         if (!h2co3Launcher) {
-            new Thread(() -> {
-                try {
-                    RuntimeUtils.install(SplashActivity.this, H2CO3Tools.H2CO3LAUNCHER_LIBRARY_DIR, "app_runtime/h2co3Launcher");
-                    h2co3Launcher = true;
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                handler.post(this::check);
-            }).start();
+            runInstall(() -> {
+                RuntimeUtils.install(SplashActivity.this, H2CO3Tools.H2CO3LAUNCHER_LIBRARY_DIR, "app_runtime/h2co3Launcher");
+                h2co3Launcher = true;
+            });
         }
         if (!h2co3_app) {
-            new Thread(() -> {
-                try {
-                    RuntimeUtils.install(SplashActivity.this, H2CO3Tools.H2CO3_LIBRARY_DIR, "h2co3");
-                    h2co3_app = true;
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                handler.post(this::check);
-            }).start();
+            runInstall(() -> {
+                RuntimeUtils.install(SplashActivity.this, H2CO3Tools.H2CO3_LIBRARY_DIR, "h2co3");
+                h2co3_app = true;
+            });
         }
         if (!java8) {
-            new Thread(() -> {
-                try {
-                    RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_8_PATH, "app_runtime/java/jre8");
-                    java8 = true;
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                handler.post(this::check);
-            }).start();
+            runInstall(() -> {
+                RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_8_PATH, "app_runtime/java/jre8", progressOf("jre8"));
+                java8 = true;
+            });
         }
         if (!java11) {
-            new Thread(() -> {
-                try {
-                    RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_11_PATH, "app_runtime/java/jre11");
-                    if (!LocaleUtils.getSystemLocale().getDisplayName().equals(Locale.CHINA.getDisplayName())) {
-                        FileTools.writeText(new File(H2CO3Tools.JAVA_11_PATH + "/resolv.conf"), "nameserver 1.1.1.1\n" + "nameserver 1.0.0.1");
-                    } else {
-                        FileTools.writeText(new File(H2CO3Tools.JAVA_11_PATH + "/resolv.conf"), "nameserver 8.8.8.8\n" + "nameserver 8.8.4.4");
-                    }
-                    java11 = true;
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                handler.post(this::check);
-            }).start();
+            runInstall(() -> {
+                RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_11_PATH, "app_runtime/java/jre11", progressOf("jre11"));
+                writeResolvConf(H2CO3Tools.JAVA_11_PATH);
+                java11 = true;
+            });
         }
         if (!java17) {
-            new Thread(() -> {
-                try {
-                    RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_17_PATH, "app_runtime/java/jre17");
-                    if (!LocaleUtils.getSystemLocale().getDisplayName().equals(Locale.CHINA.getDisplayName())) {
-                        FileTools.writeText(new File(H2CO3Tools.JAVA_17_PATH + "/resolv.conf"), "nameserver 1.1.1.1\n" + "nameserver 1.0.0.1");
-                    } else {
-                        FileTools.writeText(new File(H2CO3Tools.JAVA_17_PATH + "/resolv.conf"), "nameserver 8.8.8.8\n" + "nameserver 8.8.4.4");
-                    }
-                    java17 = true;
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                handler.post(this::check);
-            }).start();
+            runInstall(() -> {
+                RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_17_PATH, "app_runtime/java/jre17", progressOf("jre17"));
+                writeResolvConf(H2CO3Tools.JAVA_17_PATH);
+                java17 = true;
+            });
         }
         if (!java21) {
-            new Thread(() -> {
-                try {
-                    RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_21_PATH, "app_runtime/java/jre21");
-                    if (!LocaleUtils.getSystemLocale().getDisplayName().equals(Locale.CHINA.getDisplayName())) {
-                        FileTools.writeText(new File(H2CO3Tools.JAVA_21_PATH + "/resolv.conf"), "nameserver 1.1.1.1\n" + "nameserver 1.0.0.1");
-                    } else {
-                        FileTools.writeText(new File(H2CO3Tools.JAVA_21_PATH + "/resolv.conf"), "nameserver 8.8.8.8\n" + "nameserver 8.8.4.4");
-                    }
-                    java21 = true;
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                handler.post(this::check);
-            }).start();
+            runInstall(() -> {
+                RuntimeUtils.installJava(SplashActivity.this, H2CO3Tools.JAVA_21_PATH, "app_runtime/java/jre21", progressOf("jre21"));
+                writeResolvConf(H2CO3Tools.JAVA_21_PATH);
+                java21 = true;
+            });
+        }
+    }
+
+    private void runInstall(ExceptionalRunnable<IOException> task) {
+        Schedulers.io().execute(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            handler.post(this::check);
+        });
+    }
+
+    private void writeResolvConf(String javaPath) throws IOException {
+        if (!LocaleUtils.getSystemLocale().getDisplayName().equals(Locale.CHINA.getDisplayName())) {
+            FileTools.writeText(new File(javaPath + "/resolv.conf"), "nameserver 1.1.1.1\n" + "nameserver 1.0.0.1");
+        } else {
+            FileTools.writeText(new File(javaPath + "/resolv.conf"), "nameserver 8.8.8.8\n" + "nameserver 8.8.4.4");
         }
     }
 
+    /**
+     * Progress of one runtime, folded into the percentage shown for all runtimes being installed.
+     */
+    private RuntimeUtils.ProgressListener progressOf(String runtime) {
+        return (doneBytes, totalBytes) -> {
+            installProgress.put(runtime, new long[]{doneBytes, totalBytes});
+            long done = 0;
+            long total = 0;
+            for (long[] progress : installProgress.values()) {
+                done += progress[0];
+                total += progress[1];
+            }
+            int percent = total > 0 ? (int) (done * 100 / total) : 0;
+            if (percent != shownPercent) {
+                shownPercent = percent;
+                handler.post(() -> splashCheck.setText(getString(org.koishi.launcher.h2co3.resources.R.string.title_install_runtime) + " " + percent + "%"));
+            }
+        };
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
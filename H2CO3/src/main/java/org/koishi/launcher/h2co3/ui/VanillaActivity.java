@@ -24,7 +24,10 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.koishi.launcher.h2co3.R;
 import org.koishi.launcher.h2co3.adapter.VersionAdapter;
+import org.koishi.launcher.h2co3.core.H2CO3Tools;
 import org.koishi.launcher.h2co3.core.utils.Version;
+import org.koishi.launcher.h2co3.core.utils.download.Mirror;
+import org.koishi.launcher.h2co3.core.utils.download.MirrorRegistry;
 import org.koishi.launcher.h2co3.resources.component.activity.H2CO3Activity;
 
 import java.io.BufferedReader;
@@ -38,7 +41,6 @@ import java.util.List;
 
 public class VanillaActivity extends H2CO3Activity {
 
-    private static final String API_URL_BMCLAPI = "https://bmclapi2.bangbang93.com/mc/game/version_manifest_v2.json";
     private static final String API_URL_MOJANG = "https://launchermeta.mojang.com/mc/game/version_manifest_v2.json";
 
     private RecyclerView recyclerView;
@@ -102,18 +104,18 @@ public class VanillaActivity extends H2CO3Activity {
 
     private void fetchVersionsFromApi(int position) {
         recyclerView.setAdapter(null);
-        String apiUrl = getApiUrl(position);
-        if (apiUrl != null) {
-            new FetchVersionsTask().execute(apiUrl);
+        Mirror mirror = getPreferredMirror(position);
+        if (mirror != null) {
+            new FetchVersionsTask(mirror).execute(API_URL_MOJANG);
         } else {
             Toast.makeText(this, "Invalid source", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private String getApiUrl(int position) {
+    private Mirror getPreferredMirror(int position) {
         return switch (position) {
-            case 0 -> API_URL_BMCLAPI;
-            case 1 -> API_URL_MOJANG;
+            case 0 -> Mirror.BMCLAPI;
+            case 1 -> Mirror.OFFICIAL;
             default -> null;
         };
     }
@@ -137,44 +139,66 @@ public class VanillaActivity extends H2CO3Activity {
 
         private static final int CONNECTION_TIMEOUT = 10000;
 
+        private final Mirror preferredMirror;
+
+        FetchVersionsTask(Mirror preferredMirror) {
+            this.preferredMirror = preferredMirror;
+        }
+
         @Override
         protected List<Version> doInBackground(String... urls) {
-            String apiUrl = urls[0];
+            MirrorRegistry registry = MirrorRegistry.of(H2CO3Tools.H2CO3_SETTING_DIR + "/" + MirrorRegistry.STATS_FILE_NAME);
+            List<MirrorRegistry.Candidate> candidates = registry.candidates(urls[0]);
+            // The selected source goes first, the rest are only tried when it fails.
+            candidates.sort((a, b) -> Boolean.compare(a.getMirror() != preferredMirror, b.getMirror() != preferredMirror));
+
+            for (MirrorRegistry.Candidate candidate : candidates) {
+                long start = System.currentTimeMillis();
+                try {
+                    List<Version> versionList = fetchVersions(candidate.getUrl());
+                    registry.recordSuccess(candidate.getMirror(), System.currentTimeMillis() - start, 0, 0);
+                    registry.save();
+                    return versionList;
+                } catch (IOException | JSONException e) {
+                    e.printStackTrace();
+                    registry.recordFailure(candidate.getMirror());
+                }
+            }
+            registry.save();
+            return new ArrayList<>();
+        }
+
+        private List<Version> fetchVersions(String apiUrl) throws IOException, JSONException {
             List<Version> versionList = new ArrayList<>();
 
-            try {
-                URL url = new URL(apiUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-                connection.setConnectTimeout(CONNECTION_TIMEOUT);
-
-                int responseCode = connection.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    try (InputStream inputStream = connection.getInputStream();
-                         BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-                        StringBuilder response = new StringBuilder();
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            response.append(line).append("\n");
-                        }
-
-                        JSONObject jsonObject = new JSONObject(response.toString());
-                        JSONArray versionsArray = jsonObject.getJSONArray("versions");
-                        for (int i = 0; i < versionsArray.length(); i++) {
-                            JSONObject versionObject = versionsArray.getJSONObject(i);
-                            String versionName = versionObject.getString("id");
-                            String versionType = versionObject.getString("type");
-                            String versionUrl = versionObject.getString("url");
-                            String versionSha1 = versionObject.getString("sha1");
-                            Version version = new Version(versionName, versionType, versionUrl, versionSha1);
-                            versionList.add(version);
-                        }
-                    }
-                } else {
-                    Toast.makeText(VanillaActivity.this, "HTTP error: " + responseCode, Toast.LENGTH_SHORT).show();
+            URL url = new URL(apiUrl);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(CONNECTION_TIMEOUT);
+
+            int responseCode = connection.getResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP error: " + responseCode);
+            }
+            try (InputStream inputStream = connection.getInputStream();
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+                StringBuilder response = new StringBuilder();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    response.append(line).append("\n");
+                }
+
+                JSONObject jsonObject = new JSONObject(response.toString());
+                JSONArray versionsArray = jsonObject.getJSONArray("versions");
+                for (int i = 0; i < versionsArray.length(); i++) {
+                    JSONObject versionObject = versionsArray.getJSONObject(i);
+                    String versionName = versionObject.getString("id");
+                    String versionType = versionObject.getString("type");
+                    String versionUrl = versionObject.getString("url");
+                    String versionSha1 = versionObject.getString("sha1");
+                    Version version = new Version(versionName, versionType, versionUrl, versionSha1);
+                    versionList.add(version);
                 }
-            } catch (IOException | JSONException e) {
-                e.printStackTrace();
             }
 
             return versionList;
@@ -182,6 +206,9 @@ public class VanillaActivity extends H2CO3Activity {
 
         @Override
         protected void onPostExecute(List<Version> versionListFromApi) {
+            if (versionListFromApi.isEmpty()) {
+                Toast.makeText(VanillaActivity.this, "Failed to fetch version list", Toast.LENGTH_SHORT).show();
+            }
             versionList.clear();
             versionList.addAll(versionListFromApi);
             filterVersions(typeRadioGroup.getCheckedRadioButtonId());
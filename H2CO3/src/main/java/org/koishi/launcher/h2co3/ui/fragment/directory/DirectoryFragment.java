@@ -270,8 +270,7 @@ public class DirectoryFragment extends H2CO3Fragment {
 
     public void setDir(String dir) {
         H2CO3GameHelper.setGameDirectory(dir);
-        H2CO3GameHelper.setGameAssets(dir + "/assets/virtual/legacy");
-        H2CO3GameHelper.setGameAssetsRoot(dir + "/assets");
+        H2CO3GameHelper.setGameAssetsFor(dir);
         H2CO3GameHelper.setGameCurrentVersion(dir + "/versions");
     }
 
@@ -395,8 +394,7 @@ public class DirectoryFragment extends H2CO3Fragment {
 
         public void setDir(String dir) {
             H2CO3GameHelper.setGameDirectory(dir);
-            H2CO3GameHelper.setGameAssets(dir + "/assets/virtual/legacy");
-            H2CO3GameHelper.setGameAssetsRoot(dir + "/assets");
+            H2CO3GameHelper.setGameAssetsFor(dir);
             H2CO3GameHelper.setGameCurrentVersion(dir + "/versions");
         }
     }
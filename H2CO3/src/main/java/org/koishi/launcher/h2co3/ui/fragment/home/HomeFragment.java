@@ -198,6 +198,7 @@ public class HomeFragment extends H2CO3Fragment implements View.OnClickListener
     @Override
     public void onClick(View v) {
         if (v == homeGamePlayButton) {
+            H2CO3Tools.flushConfig();
             startActivity(new Intent(requireActivity(), H2CO3LauncherClientActivity.class));
             attachControllerInterface();
         } else if (v == homeUserListButton) {
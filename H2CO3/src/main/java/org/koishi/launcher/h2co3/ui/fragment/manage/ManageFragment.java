@@ -1,20 +1,36 @@
 package org.koishi.launcher.h2co3.ui.fragment.manage;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import org.koishi.launcher.h2co3.R;
 import org.koishi.launcher.h2co3.dialog.H2CO3LauncherRuntimeDialog;
+import org.koishi.launcher.h2co3.launcher.utils.H2CO3GameHelper;
+import org.koishi.launcher.h2co3.launcher.utils.JvmLaunchProfile;
+import org.koishi.launcher.h2co3.launcher.utils.LaunchMode;
 import org.koishi.launcher.h2co3.resources.component.H2CO3CardView;
 import org.koishi.launcher.h2co3.resources.component.H2CO3Fragment;
+import org.koishi.launcher.h2co3.resources.component.H2CO3TextView;
+import org.koishi.launcher.h2co3.ui.LogActivity;
+
+import java.io.File;
 
 public class ManageFragment extends H2CO3Fragment implements View.OnClickListener {
 
     H2CO3CardView open_1;
+    H2CO3CardView launchMode;
+    H2CO3TextView launchModeSummary;
+    H2CO3CardView jvmProfile;
+    H2CO3TextView jvmProfileSummary;
+    H2CO3CardView logs;
 
     View view;
 
@@ -22,9 +38,25 @@ public class ManageFragment extends H2CO3Fragment implements View.OnClickListene
         view = inflater.inflate(R.layout.fragment_manage, container, false);
         open_1 = findViewById(view, R.id.open_1);
         open_1.setOnClickListener(this);
+        launchMode = findViewById(view, R.id.launch_mode);
+        launchModeSummary = findViewById(view, R.id.launch_mode_summary);
+        launchMode.setOnClickListener(this);
+        updateLaunchModeSummary();
+        jvmProfile = findViewById(view, R.id.jvm_profile);
+        jvmProfileSummary = findViewById(view, R.id.jvm_profile_summary);
+        jvmProfile.setOnClickListener(this);
+        logs = findViewById(view, R.id.logs);
+        logs.setOnClickListener(this);
         return view;
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        // The current version may have been changed on another page
+        updateJvmProfileSummary();
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -40,6 +72,80 @@ public class ManageFragment extends H2CO3Fragment implements View.OnClickListene
         if (v == open_1) {
             H2CO3LauncherRuntimeDialog runtime = new H2CO3LauncherRuntimeDialog(requireActivity());
             runtime.show();
+        } else if (v == launchMode) {
+            showLaunchModeDialog();
+        } else if (v == jvmProfile) {
+            showJvmProfileDialog();
+        } else if (v == logs) {
+            startActivity(new Intent(requireActivity(), LogActivity.class));
+        }
+    }
+
+    private String[] getLaunchModeNames() {
+        return new String[]{
+                getString(org.koishi.launcher.h2co3.resources.R.string.launch_mode_performance),
+                getString(org.koishi.launcher.h2co3.resources.R.string.launch_mode_diagnostic)
+        };
+    }
+
+    private void updateLaunchModeSummary() {
+        launchModeSummary.setText(getLaunchModeNames()[LaunchMode.getSelected().ordinal()]);
+    }
+
+    private void showLaunchModeDialog() {
+        new MaterialAlertDialogBuilder(requireActivity())
+                .setTitle(org.koishi.launcher.h2co3.resources.R.string.manage_launch_mode)
+                .setSingleChoiceItems(getLaunchModeNames(), LaunchMode.getSelected().ordinal(), (dialog, which) -> {
+                    LaunchMode.setSelected(LaunchMode.values()[which]);
+                    updateLaunchModeSummary();
+                    dialog.dismiss();
+                })
+                .setNegativeButton(org.koishi.launcher.h2co3.resources.R.string.button_cancel, null)
+                .show();
+    }
+
+    /**
+     * @return the name of the selected game version, {@code null} if none is selected
+     */
+    @Nullable
+    private String getCurrentVersionName() {
+        String version = H2CO3GameHelper.getGameCurrentVersion();
+        return version == null || version.equals("null") ? null : new File(version).getName();
+    }
+
+    private String[] getJvmProfileNames() {
+        return new String[]{
+                getString(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_auto),
+                getString(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_low_memory),
+                getString(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_balanced),
+                getString(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_performance)
+        };
+    }
+
+    private void updateJvmProfileSummary() {
+        String version = getCurrentVersionName();
+        jvmProfile.setEnabled(version != null);
+        if (version == null) {
+            jvmProfileSummary.setText(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_no_version);
+        } else {
+            jvmProfileSummary.setText(getString(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_summary,
+                    version, getJvmProfileNames()[JvmLaunchProfile.of(version).ordinal()]));
+        }
+    }
+
+    private void showJvmProfileDialog() {
+        String version = getCurrentVersionName();
+        if (version == null) {
+            return;
         }
+        new MaterialAlertDialogBuilder(requireActivity())
+                .setTitle(getString(org.koishi.launcher.h2co3.resources.R.string.jvm_profile_title, version))
+                .setSingleChoiceItems(getJvmProfileNames(), JvmLaunchProfile.of(version).ordinal(), (dialog, which) -> {
+                    JvmLaunchProfile.set(version, JvmLaunchProfile.values()[which]);
+                    updateJvmProfileSummary();
+                    dialog.dismiss();
+                })
+                .setNegativeButton(org.koishi.launcher.h2co3.resources.R.string.button_cancel, null)
+                .show();
     }
-}
\ No newline at end of file
+}
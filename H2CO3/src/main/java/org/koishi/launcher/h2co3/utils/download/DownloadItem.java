@@ -18,13 +18,15 @@ public class DownloadItem {
     private final String name;
     private final String path;
     private final String url;
+    private final String sha1;
     private final int size;
     private final AtomicInteger progress;
 
-    public DownloadItem(String name, String path, String url, int size) {
+    public DownloadItem(String name, String path, String url, String sha1, int size) {
         this.name = name;
         this.path = path;
         this.url = url;
+        this.sha1 = sha1;
         this.size = size;
         this.progress = new AtomicInteger(0);
     }
@@ -41,6 +43,10 @@ public class DownloadItem {
         return url;
     }
 
+    public String getSha1() {
+        return sha1;
+    }
+
     public int getSize() {
         return size;
     }
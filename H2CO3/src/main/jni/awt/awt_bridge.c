@@ -2,6 +2,7 @@
 #include <assert.h>
 #include <string.h>
 #include <stdio.h>
+#include <stdint.h>
 #include "h2co3Launcher_internal.h"
 
 static JavaVM *dalvikJavaVMPtr;
@@ -79,20 +80,23 @@ Java_sun_awt_peer_cacio_H2CO3LauncherClipboard_clipboardCopy(JNIEnv *env, jclass
     (*env)->ReleaseStringUTFChars(env, str, stringChars);
 }
 
-JNIEXPORT jintArray JNICALL JNIEXPORT
+JNIEXPORT jint JNICALL
 Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_renderAWTScreenFrame(JNIEnv *env,
-                                                                                       jclass clazz) {
+                                                                                       jclass clazz,
+                                                                                       jobject frame,
+                                                                                       jint width,
+                                                                                       jint height,
+                                                                                       jintArray dirtyRect) {
     if (runtimeJNIEnvPtr_GRAPHICS == NULL) {
         if (runtimeJavaVMPtr == NULL) {
-            return NULL;
+            return -1;
         } else {
             (*runtimeJavaVMPtr)->AttachCurrentThread(runtimeJavaVMPtr, &runtimeJNIEnvPtr_GRAPHICS,
                                                      NULL);
         }
     }
 
-    int *rgbArray;
-    jintArray jreRgbArray, androidRgbArray;
+    jintArray jreRgbArray;
 
     if (method_GetRGB == NULL) {
         class_CTCScreen = (*runtimeJNIEnvPtr_GRAPHICS)->FindClass(runtimeJNIEnvPtr_GRAPHICS,
@@ -103,6 +107,8 @@ Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_renderAWTScree
                                                                       "com/github/caciocavallosilano/cacio/ctc/CTCScreen");
         }
         assert(class_CTCScreen != NULL);
+        class_CTCScreen = (*runtimeJNIEnvPtr_GRAPHICS)->NewGlobalRef(runtimeJNIEnvPtr_GRAPHICS,
+                                                                     class_CTCScreen);
         method_GetRGB = (*runtimeJNIEnvPtr_GRAPHICS)->GetStaticMethodID(runtimeJNIEnvPtr_GRAPHICS,
                                                                         class_CTCScreen,
                                                                         "getCurrentScreenRGB",
@@ -115,24 +121,56 @@ Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_renderAWTScree
             method_GetRGB
     );
     if (jreRgbArray == NULL) {
-        return NULL;
+        return -1;
     }
 
-    // Copy JRE RGB array memory to Android.
-    int arrayLength = (*runtimeJNIEnvPtr_GRAPHICS)->GetArrayLength(runtimeJNIEnvPtr_GRAPHICS,
-                                                                   jreRgbArray);
-    rgbArray = (*runtimeJNIEnvPtr_GRAPHICS)->GetIntArrayElements(runtimeJNIEnvPtr_GRAPHICS,
-                                                                 jreRgbArray, 0);
-    androidRgbArray = (*env)->NewIntArray(env, arrayLength);
-    (*env)->SetIntArrayRegion(env, androidRgbArray, 0, arrayLength, rgbArray);
-
-    (*runtimeJNIEnvPtr_GRAPHICS)->ReleaseIntArrayElements(runtimeJNIEnvPtr_GRAPHICS, jreRgbArray,
-                                                          rgbArray,
-                                                          (jint) NULL);
-    // (*env)->DeleteLocalRef(env, androidRgbArray);
-    // free(rgbArray);
-
-    return androidRgbArray;
+    // This thread never returns to the JRE, so its local references have to be freed by hand.
+    uint32_t *pixels = (*env)->GetDirectBufferAddress(env, frame);
+    jlong pixelCount = (jlong) width * height;
+    if (pixels == NULL || (*env)->GetDirectBufferCapacity(env, frame) < pixelCount * 4 ||
+        (*runtimeJNIEnvPtr_GRAPHICS)->GetArrayLength(runtimeJNIEnvPtr_GRAPHICS, jreRgbArray) != pixelCount) {
+        (*runtimeJNIEnvPtr_GRAPHICS)->DeleteLocalRef(runtimeJNIEnvPtr_GRAPHICS, jreRgbArray);
+        return -1;
+    }
+
+    // Convert ARGB ints to the byte order of an ARGB_8888 bitmap while comparing with the last frame,
+    // only changed pixels are written and their bounds reported.
+    int left = width, top = -1, right = -1, bottom = -1;
+    jint *rgbArray = (*runtimeJNIEnvPtr_GRAPHICS)->GetPrimitiveArrayCritical(runtimeJNIEnvPtr_GRAPHICS,
+                                                                            jreRgbArray, NULL);
+    if (rgbArray == NULL) {
+        (*runtimeJNIEnvPtr_GRAPHICS)->DeleteLocalRef(runtimeJNIEnvPtr_GRAPHICS, jreRgbArray);
+        return -1;
+    }
+    for (int y = 0; y < height; y++) {
+        const uint32_t *src = (const uint32_t *) rgbArray + (size_t) y * width;
+        uint32_t *dst = pixels + (size_t) y * width;
+        int rowChanged = 0;
+        for (int x = 0; x < width; x++) {
+            uint32_t argb = src[x];
+            uint32_t abgr = 0xFF000000u | (argb & 0x0000FF00u) | ((argb >> 16) & 0xFFu) | ((argb & 0xFFu) << 16);
+            if (dst[x] != abgr) {
+                dst[x] = abgr;
+                if (x < left) left = x;
+                if (x > right) right = x;
+                rowChanged = 1;
+            }
+        }
+        if (rowChanged) {
+            if (top < 0) top = y;
+            bottom = y;
+        }
+    }
+    (*runtimeJNIEnvPtr_GRAPHICS)->ReleasePrimitiveArrayCritical(runtimeJNIEnvPtr_GRAPHICS, jreRgbArray,
+                                                                rgbArray, JNI_ABORT);
+    (*runtimeJNIEnvPtr_GRAPHICS)->DeleteLocalRef(runtimeJNIEnvPtr_GRAPHICS, jreRgbArray);
+
+    if (top < 0) {
+        return 0;
+    }
+    jint rect[4] = {left, top, right + 1, bottom + 1};
+    (*env)->SetIntArrayRegion(env, dirtyRect, 0, 4, rect);
+    return 1;
 }
 
 JNIEXPORT void JNICALL
@@ -115,51 +115,56 @@ Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_getPointer(JNI
     return ja;
 }
 
-JNIEXPORT void JNICALL
-Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvent(JNIEnv *env,
-                                                                            jclass clazz,
-                                                                            jlong time,
-                                                                            jint type, jint p1,
-                                                                            jint p2) {
-    if (!h2co3Launcher->has_event_pipe) {
-        return;
-    }
-
-    H2CO3LauncherEvent event;
-    event.time = time;
-    event.type = type;
-    event.state = 0;
+static void fillEvent(H2CO3LauncherEvent *event, jlong time, jint type, jint p1, jint p2) {
+    memset(event, 0, sizeof(H2CO3LauncherEvent));
+    event->time = time;
+    event->type = type;
+    event->state = 0;
 
     switch (type) {
         case MotionNotify:
-            event.x = p1;
-            event.y = p2;
+            event->x = p1;
+            event->y = p2;
             current_event.time = time;
             current_event.x = p1;
             current_event.y = p2;
             break;
         case ButtonPress:
         case ButtonRelease:
-            event.button = p1;
+            event->button = p1;
             break;
         case KeyPress:
         case KeyRelease:
-            event.keycode = p1;
-            event.keychar = p2;
+            event->keycode = p1;
+            event->keychar = p2;
             break;
         case ConfigureNotify:
-            event.width = p1;
-            event.height = p2;
+            event->width = p1;
+            event->height = p2;
             break;
         case H2CO3LauncherMessage:
-            event.message = p1;
+            event->message = p1;
             break;
         case KeyChar:
-            event.keychar = p2;
+            event->keychar = p2;
             break;
         default:
             break;
     }
+}
+
+JNIEXPORT void JNICALL
+Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvent(JNIEnv *env,
+                                                                            jclass clazz,
+                                                                            jlong time,
+                                                                            jint type, jint p1,
+                                                                            jint p2) {
+    if (!h2co3Launcher->has_event_pipe) {
+        return;
+    }
+
+    H2CO3LauncherEvent event;
+    fillEvent(&event, time, type, p1, p2);
 
     if (pthread_mutex_lock(&h2co3Launcher->event_queue_mutex) != 0) {
         H2CO3_INTERNAL_LOG(
@@ -182,6 +187,63 @@ Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvent(JNIE
     }
 }
 
+/*
+ * Queue count events under one lock and wake the poller with one write.
+ * params holds type, p1 and p2 of each event, back to back.
+ */
+JNIEXPORT void JNICALL
+Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvents(JNIEnv *env,
+                                                                             jclass clazz,
+                                                                             jlongArray times,
+                                                                             jintArray params,
+                                                                             jint count) {
+    if (!h2co3Launcher->has_event_pipe || count <= 0) {
+        return;
+    }
+    if ((*env)->GetArrayLength(env, times) < count ||
+        (*env)->GetArrayLength(env, params) < count * 3) {
+        H2CO3_INTERNAL_LOG(
+                "Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvents:Batch arrays shorter than count");
+        return;
+    }
+
+    jlong *t = (*env)->GetLongArrayElements(env, times, NULL);
+    jint *p = (*env)->GetIntArrayElements(env, params, NULL);
+    char *signals = malloc(count);
+    if (t == NULL || p == NULL || signals == NULL) {
+        goto release;
+    }
+    memset(signals, 'E', count);
+
+    if (pthread_mutex_lock(&h2co3Launcher->event_queue_mutex) != 0) {
+        H2CO3_INTERNAL_LOG(
+                "Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvents:Failed to acquire mutex");
+        goto release;
+    }
+    for (int i = 0; i < count; i++) {
+        H2CO3LauncherEvent event;
+        fillEvent(&event, t[i], p[i * 3], p[i * 3 + 1], p[i * 3 + 2]);
+        EventQueue_add(&h2co3Launcher->event_queue, &event);
+    }
+    if (write(h2co3Launcher->event_pipe_fd[1], signals, count) != count) {
+        H2CO3_INTERNAL_LOG(
+                "Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvents:Failed to write to event pipe");
+    }
+    if (pthread_mutex_unlock(&h2co3Launcher->event_queue_mutex) != 0) {
+        H2CO3_INTERNAL_LOG(
+                "Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_pushEvents:Failed to release mutex");
+    }
+
+    release:
+    free(signals);
+    if (p != NULL) {
+        (*env)->ReleaseIntArrayElements(env, params, p, JNI_ABORT);
+    }
+    if (t != NULL) {
+        (*env)->ReleaseLongArrayElements(env, times, t, JNI_ABORT);
+    }
+}
+
 JNIEXPORT void JNICALL
 Java_org_koishi_launcher_h2co3_launcher_utils_H2CO3LauncherBridge_setEventPipe(JNIEnv *env,
                                                                                jclass clazz) {
@@ -4,28 +4,28 @@ import static org.koishi.launcher.h2co3.core.H2CO3Tools.showError;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Rect;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.util.Base64;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.TypedValue;
+import android.view.ViewGroup;
 import android.widget.ImageView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
-import com.bumptech.glide.request.RequestOptions;
+import org.koishi.launcher.h2co3.core.utils.Schedulers;
+import org.koishi.launcher.h2co3.core.utils.SkinHeadCache;
+
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class H2CO3Loader {
 
-    private static final int HEAD_SIZE = 5000;
-    private static final int HEAD_LEFT = 7;
-    private static final int HEAD_TOP = 8;
-    private static final int HEAD_RIGHT = 17;
-    private static final int HEAD_BOTTOM = 16;
+    // 视图未测量时使用的头像尺寸
+    private static final int DEFAULT_HEAD_DP = 40;
 
-    private static final RequestOptions requestOptions = new RequestOptions()
-            .diskCacheStrategy(DiskCacheStrategy.ALL);
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // 每个 ImageView 最后请求的头像，只在主线程访问，防止复用的视图显示旧的结果
+    private static final Map<ImageView, String> pendingHeads = new WeakHashMap<>();
 
     public static Drawable getHeadDrawable(Context context, String texture) {
         if (context == null || texture == null) {
@@ -34,7 +34,7 @@ public class H2CO3Loader {
         }
 
         try {
-            Bitmap headBitmap = decodeAndCropHeadBitmap(texture);
+            Bitmap headBitmap = SkinHeadCache.getInstance(context).load(texture, dpToPx(context, DEFAULT_HEAD_DP));
             if (headBitmap != null) {
                 return new BitmapDrawable(context.getResources(), headBitmap);
             } else {
@@ -53,46 +53,65 @@ public class H2CO3Loader {
             return;
         }
 
-        try {
-            Bitmap headBitmap = decodeAndCropHeadBitmap(texture);
-            if (headBitmap != null) {
-                Glide.with(context)
-                        .load(headBitmap)
-                        .apply(requestOptions)
-                        .into(imageView);
-            } else {
-                showError(context,"Error");
-            }
-        } catch (Exception | OutOfMemoryError e) {
-            showError(context,String.valueOf(e));
+        SkinHeadCache cache = SkinHeadCache.getInstance(context);
+        int size = getHeadSize(imageView);
+        String key = cache.keyOf(texture, size);
+        Bitmap cached = cache.getCached(key);
+        if (cached != null) {
+            pendingHeads.remove(imageView);
+            imageView.setImageBitmap(cached);
+            return;
         }
+
+        pendingHeads.put(imageView, key);
+        Schedulers.io().execute(() -> {
+            Bitmap headBitmap;
+            String error;
+            try {
+                headBitmap = cache.load(texture, size);
+                error = headBitmap == null ? "Error" : null;
+            } catch (Exception | OutOfMemoryError e) {
+                headBitmap = null;
+                error = String.valueOf(e);
+            }
+            Bitmap result = headBitmap;
+            String message = error;
+            mainHandler.post(() -> {
+                if (!key.equals(pendingHeads.get(imageView))) {
+                    return;
+                }
+                pendingHeads.remove(imageView);
+                if (result != null) {
+                    imageView.setImageBitmap(result);
+                } else {
+                    showError(context, message);
+                }
+            });
+        });
     }
 
     public static Bitmap parseHeadTexture(String texture) {
         try {
-            return decodeAndCropHeadBitmap(texture);
+            Bitmap skinBitmap = SkinHeadCache.decodeSkin(texture);
+            return skinBitmap != null ? SkinHeadCache.renderHead(skinBitmap, 8) : null;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    private static Bitmap decodeAndCropHeadBitmap(String texture) {
-        byte[] decodedBytes = Base64.decode(texture, Base64.DEFAULT);
-        Bitmap skinBitmap = BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length);
-        if (skinBitmap != null) {
-            return cropHeadFromSkin(skinBitmap);
-        } else {
-            return null;
+    private static int getHeadSize(ImageView imageView) {
+        int size = Math.max(imageView.getWidth(), imageView.getHeight());
+        if (size <= 0) {
+            ViewGroup.LayoutParams params = imageView.getLayoutParams();
+            if (params != null) {
+                size = Math.max(params.width, params.height);
+            }
         }
+        return size > 0 ? size : dpToPx(imageView.getContext(), DEFAULT_HEAD_DP);
     }
 
-    private static Bitmap cropHeadFromSkin(Bitmap skinBitmap) {
-        Bitmap headBitmap = Bitmap.createBitmap(HEAD_SIZE, HEAD_SIZE, Bitmap.Config.RGB_565);
-        Canvas canvas = new Canvas(headBitmap);
-        Rect srcRect = new Rect(HEAD_LEFT, HEAD_TOP, HEAD_RIGHT, HEAD_BOTTOM);
-        Rect dstRect = new Rect(0, 0, HEAD_SIZE, HEAD_SIZE);
-        canvas.drawBitmap(skinBitmap, srcRect, dstRect, null);
-        return headBitmap;
+    private static int dpToPx(Context context, int dp) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, context.getResources().getDisplayMetrics()));
     }
-}
\ No newline at end of file
+}
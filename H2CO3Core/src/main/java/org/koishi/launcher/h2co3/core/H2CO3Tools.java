@@ -8,9 +8,8 @@ import android.view.View;
 import com.google.android.material.snackbar.Snackbar;
 
 import org.apache.commons.io.IOUtils;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.koishi.launcher.h2co3.core.utils.Architecture;
+import org.koishi.launcher.h2co3.core.utils.ConfigStore;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -18,9 +17,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 
 import rikka.material.app.MaterialActivity;
@@ -58,6 +54,7 @@ public class H2CO3Tools {
 
     public static String MINECRAFT_DIR;
     public static String SHARED_COMMON_DIR = Environment.getExternalStorageDirectory().getAbsolutePath() + "/games/org.koishi.launcher/h2co3/.minecraft";
+    public static String SHARED_ASSETS_DIR = SHARED_COMMON_DIR + "/assets";
 
     public static String AUTHLIB_INJECTOR_PATH;
     public static String MULTIPLAYER_FIX_PATH;
@@ -201,59 +198,18 @@ public class H2CO3Tools {
     }
 
     private static <T> T getValue(String configFile, String key, T defaultValue, Class<T> type) {
-        try {
-            Path configPath = Paths.get(configFile);
-            if (!Files.exists(configPath)) {
-                return defaultValue;
-            }
-
-            List<String> configLines = Files.readAllLines(configPath);
-            String configContent = String.join("", configLines);
-            JSONObject configJson = new JSONObject(configContent);
-
-            if (configJson.has(key)) {
-                return type.cast(configJson.get(key));
-            } else {
-                return defaultValue;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read config file: " + configFile, e);
-        } catch (JSONException e) {
-            throw new RuntimeException("Failed to parse config file: " + configFile, e);
-        }
+        return ConfigStore.of(configFile).get(key, defaultValue, type);
     }
 
     public static void setValue(String configFile, String key, java.io.Serializable value) {
-        try {
-            Path configPath = Paths.get(configFile);
-            if (!Files.exists(configPath)) {
-                createConfigFile(configPath, key, value);
-                return;
-            }
-
-            List<String> configLines = Files.readAllLines(configPath);
-            String configContent = String.join("", configLines);
-            JSONObject configJson = new JSONObject(configContent);
-
-            configJson.put(key, value);
-            Files.write(configPath, configJson.toString().getBytes());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read or create config file: " + configFile, e);
-        } catch (JSONException e) {
-            throw new RuntimeException("Failed to parse config file: " + configFile, e);
-        }
+        ConfigStore.of(configFile).set(key, value);
     }
 
-    private static void createConfigFile(Path configPath, String key, Object value) throws IOException {
-        Files.createDirectories(configPath.getParent());
-        Files.createFile(configPath);
-        JSONObject defaultConfigJson = new JSONObject();
-        try {
-            defaultConfigJson.put(key, value);
-            Files.write(configPath, defaultConfigJson.toString().getBytes());
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
+    /**
+     * Block until every pending config change has reached disk, e.g. before starting the game process.
+     */
+    public static void flushConfig() {
+        ConfigStore.flushAll();
     }
 
     public static String read(InputStream is) throws IOException {
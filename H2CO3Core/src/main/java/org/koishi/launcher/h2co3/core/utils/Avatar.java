@@ -3,7 +3,6 @@ package org.koishi.launcher.h2co3.core.utils;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Matrix;
 import android.os.Handler;
 import android.os.Message;
 import android.util.Base64;
@@ -28,17 +27,16 @@ public class Avatar {
             return;
         }
         face.post(() -> {
-            Bitmap skin = stringToBitmap(texture);
-            if (skin == null) {
-                return;
-            }
-            Bitmap faceBitmap = Bitmap.createBitmap(skin, 8, 8, 8, 8);
-            Matrix matrix = new Matrix();
-            float scale = face.getWidth() / 8f;
-            matrix.postScale(scale, scale);
-            Bitmap newBitmap = Bitmap.createBitmap(faceBitmap, 0, 0, 8, 8, matrix, false);
-            handler.post(() -> {
-                face.setImageBitmap(newBitmap);
+            int size = Math.max(face.getWidth(), 8);
+            SkinHeadCache cache = SkinHeadCache.getInstance(face.getContext());
+            Schedulers.io().execute(() -> {
+                Bitmap head = cache.load(texture, size);
+                if (head == null) {
+                    return;
+                }
+                handler.post(() -> {
+                    face.setImageBitmap(head);
+                });
             });
         });
     }
@@ -0,0 +1,217 @@
+package org.koishi.launcher.h2co3.core.utils;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import android.os.FileObserver;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONStringer;
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * In-memory view of a JSON config file.
+ * <p>
+ * The file is parsed once and reads are served from memory. Changes made by other
+ * processes (e.g. the {@code :game} process) are picked up through a {@link FileObserver}
+ * on the parent directory, and writes are coalesced and saved atomically on a background thread.
+ * <p>
+ * A write starts from the file as it is on disk and applies only the keys changed here, so keys
+ * another process wrote in the meantime are kept even if its change was not observed yet; a key
+ * both processes change ends up with the value of the last writer. A process that may end soon
+ * after a change, like the game process, has to {@link #flushAll} before it does.
+ */
+public final class ConfigStore {
+
+    private static final long WRITE_DELAY_MILLIS = 300;
+
+    private static final Map<String, ConfigStore> stores = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ConfigStore Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path path;
+    private final Object writeLock = new Object();
+    private final Map<String, Object> pending = new LinkedHashMap<>();
+
+    private JSONObject values;
+    private FileObserver observer;
+    private volatile boolean stale = true;
+    private long knownModified = -1;
+    private long knownLength = -1;
+    private ScheduledFuture<?> scheduledWrite;
+
+    private ConfigStore(Path path) {
+        this.path = path;
+    }
+
+    public static ConfigStore of(String configFile) {
+        Path path = Paths.get(configFile).toAbsolutePath().normalize();
+        return stores.computeIfAbsent(path.toString(), key -> new ConfigStore(path));
+    }
+
+    /**
+     * Write every pending change of every store to disk, blocking until done.
+     * Call this before handing control to another process that reads the same files.
+     */
+    public static void flushAll() {
+        for (ConfigStore store : stores.values()) {
+            store.flush();
+        }
+    }
+
+    public synchronized <T> T get(String key, T defaultValue, Class<T> type) {
+        ensureLoaded();
+        return values.has(key) ? type.cast(values.opt(key)) : defaultValue;
+    }
+
+    public synchronized boolean contains(String key) {
+        ensureLoaded();
+        return values.has(key);
+    }
+
+    public synchronized void set(String key, Object value) {
+        ensureLoaded();
+        Object normalized = normalize(value);
+        try {
+            values.put(key, normalized);
+        } catch (JSONException e) {
+            throw new RuntimeException("Failed to put " + key + " into config file: " + path, e);
+        }
+        pending.put(key, normalized);
+        if (scheduledWrite == null) {
+            scheduledWrite = writer.schedule(this::flush, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void flush() {
+        File file = path.toFile();
+        synchronized (writeLock) {
+            String content;
+            synchronized (this) {
+                if (scheduledWrite != null) {
+                    scheduledWrite.cancel(false);
+                    scheduledWrite = null;
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                try {
+                    // Keep what another process wrote since this one last read the file
+                    if (file.lastModified() != knownModified || file.length() != knownLength) {
+                        values = readMerged();
+                    }
+                } catch (IOException | JSONException e) {
+                    LOG.log(Level.WARNING, "Failed to read config file before saving, overwriting it: " + path, e);
+                }
+                pending.clear();
+                content = values.toString();
+            }
+
+            try {
+                Files.createDirectories(path.getParent());
+                FileTools.saveSafely(path, content);
+                synchronized (this) {
+                    knownModified = file.lastModified();
+                    knownLength = file.length();
+                }
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Failed to save config file: " + path, e);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (observer == null) {
+            watch();
+        }
+        if (!stale && observer != null) {
+            return;
+        }
+        stale = false;
+
+        File file = path.toFile();
+        long modified = file.lastModified();
+        long length = file.length();
+        if (values != null && modified == knownModified && length == knownLength) {
+            return;
+        }
+
+        JSONObject loaded;
+        try {
+            loaded = readMerged();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read config file: " + path, e);
+        } catch (JSONException e) {
+            throw new RuntimeException("Failed to parse config file: " + path, e);
+        }
+        values = loaded;
+        knownModified = modified;
+        knownLength = length;
+    }
+
+    /**
+     * @return the file as it is on disk with the edits not yet written to it on top
+     */
+    private JSONObject readMerged() throws IOException, JSONException {
+        File file = path.toFile();
+        JSONObject loaded = file.exists()
+                ? new JSONObject(String.join("", Files.readAllLines(path, StandardCharsets.UTF_8)))
+                : new JSONObject();
+        // Edits not yet written to disk win over whatever the file says.
+        for (Map.Entry<String, Object> entry : pending.entrySet()) {
+            loaded.put(entry.getKey(), entry.getValue());
+        }
+        return loaded;
+    }
+
+    private void watch() {
+        File parent = path.getParent().toFile();
+        if (!parent.isDirectory()) {
+            return;
+        }
+        String fileName = path.getFileName().toString();
+        observer = new FileObserver(parent.getAbsolutePath(), FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO | FileObserver.DELETE) {
+            @Override
+            public void onEvent(int event, @Nullable String name) {
+                if (fileName.equals(name)) {
+                    stale = true;
+                }
+            }
+        };
+        observer.startWatching();
+    }
+
+    /**
+     * Turn {@code value} into exactly what reading it back from the file would produce,
+     * so callers see the same types whether the value came from memory or from disk.
+     */
+    private static Object normalize(Object value) {
+        try {
+            String json = new JSONStringer().array().value(value).endArray().toString();
+            return new JSONArray(json).get(0);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Unsupported config value: " + value, e);
+        }
+    }
+}
@@ -5,12 +5,16 @@ import org.apache.commons.io.IOUtils;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class H2CO3DownloadUtils {
 
@@ -99,7 +103,96 @@ public class H2CO3DownloadUtils {
         }
     }
 
+    /**
+     * Download {@code url} into {@code partFile}, continuing from the bytes already in it
+     * with an HTTP Range request. If the server ignores the range the file is rewritten from the start.
+     * A body shorter than its Content-Length fails with an {@link IOException} and leaves the part file to resume.
+     * The transfer stops with an {@link InterruptedIOException} when the calling thread is interrupted.
+     */
+    public static void downloadFileResumable(URL url, File partFile, byte[] buffer,
+                                             H2CO3ResumableFeedback monitor) throws IOException {
+        File parent = partFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Failed to create directory " + parent);
+        }
+
+        long offset = partFile.isFile() ? partFile.length() : 0;
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setConnectTimeout(10000);
+            conn.setReadTimeout(15000);
+            if (offset > 0) {
+                conn.setRequestProperty("Range", "bytes=" + offset + "-");
+            }
+            conn.connect();
+
+            int code = conn.getResponseCode();
+            if (code == 416 && offset > 0) {
+                // The part file already holds everything the server has.
+                monitor.onStart(offset);
+                return;
+            }
+            if (code == HttpURLConnection.HTTP_OK) {
+                offset = 0;
+            } else if (code != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Server returned HTTP " + code + ": " + conn.getResponseMessage());
+            }
+            monitor.onStart(offset);
+
+            long expected = conn.getContentLengthLong();
+            long received = 0;
+            try (InputStream is = conn.getInputStream();
+                 OutputStream os = new FileOutputStream(partFile, offset > 0)) {
+                int len;
+                while ((len = is.read(buffer)) != -1) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Download of " + url + " cancelled");
+                    }
+                    os.write(buffer, 0, len);
+                    received += len;
+                    monitor.onRead(len);
+                }
+            }
+            // A dropped connection can look like a normal end of stream, keep the part file for the next range request.
+            if (expected >= 0 && received < expected) {
+                throw new IOException("Connection closed after " + received + " of " + expected + " bytes of " + url);
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    public static String sha1(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = new FileInputStream(file)) {
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, len);
+            }
+        }
+        StringBuilder hex = new StringBuilder(40);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     public interface H2CO3DownloaderFeedback {
         void updateProgress(int current, int total);
     }
+
+    public interface H2CO3ResumableFeedback {
+        /**
+         * Called once the server answered, with the number of bytes kept from the existing part file.
+         */
+        void onStart(long resumedFrom);
+
+        void onRead(int count);
+    }
 }
\ No newline at end of file
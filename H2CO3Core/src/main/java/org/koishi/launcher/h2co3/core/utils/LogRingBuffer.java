@@ -0,0 +1,63 @@
+package org.koishi.launcher.h2co3.core.utils;
+
+/**
+ * Keeps the most recent log entries within a fixed number of entries and characters.
+ * <p>
+ * Once either limit is reached the oldest entries are evicted, so memory stays flat however long
+ * the game keeps printing. All methods are thread-safe.
+ */
+public class LogRingBuffer {
+    private final String[] entries;
+    private final int maxChars;
+    private int head;
+    private int size;
+    private int chars;
+
+    public LogRingBuffer(int maxEntries, int maxChars) {
+        this.entries = new String[maxEntries];
+        this.maxChars = maxChars;
+    }
+
+    public synchronized void add(String entry) {
+        if (entry.length() > maxChars) {
+            entry = entry.substring(entry.length() - maxChars);
+        }
+        while (size > 0 && (size == entries.length || chars + entry.length() > maxChars)) {
+            removeOldest();
+        }
+        entries[(head + size) % entries.length] = entry;
+        size++;
+        chars += entry.length();
+    }
+
+    public synchronized void clear() {
+        while (size > 0) {
+            removeOldest();
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the retained entries from oldest to newest, joined by {@code separator}
+     */
+    public synchronized String join(String separator) {
+        StringBuilder builder = new StringBuilder(chars + Math.max(0, size - 1) * separator.length());
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(entries[(head + i) % entries.length]);
+        }
+        return builder.toString();
+    }
+
+    private void removeOldest() {
+        chars -= entries[head].length();
+        entries[head] = null;
+        head = (head + 1) % entries.length;
+        size--;
+    }
+}
@@ -0,0 +1,383 @@
+package org.koishi.launcher.h2co3.core.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where the libraries of an installed JRE are and which of them to load before starting it.
+ * <p>
+ * Resolving reads the {@code release} file, finds the architecture and JVM variant directories and orders
+ * the libraries the launcher preloads after the libraries they depend on, by their ELF {@code DT_NEEDED}
+ * entries. The result is written to {@value #FILE_NAME} in the runtime directory when the runtime is
+ * installed, and stays valid while the {@code version} file, the {@code release} file and the library
+ * directory are unchanged, so a launch neither walks the runtime nor parses anything but this file.
+ */
+public class RuntimeLayout {
+
+    public static final String FILE_NAME = ".layout.json";
+
+    private static final int FORMAT_VERSION = 2;
+    private static final Gson GSON = new Gson();
+    private static final Map<String, RuntimeLayout> loaded = new ConcurrentHashMap<>();
+
+    // Libraries the JVM needs before it can load the rest itself, in the order they used to be loaded
+    private static final String[] ROOTS = {
+            "libjli.so", "libjvm.so", "libfreetype.so", "libverify.so", "libjava.so", "libnet.so", "libnio.so",
+            "libawt.so", "libawt_headless.so", "libfontmanager.so", "libtinyiconv.so", "libinstrument.so",
+            "libawt_xawt.so"
+    };
+    // A Shenandoah option, its name is only compiled into a JVM built with the collector
+    private static final byte[] SHENANDOAH_MARKER = "ShenandoahGCHeuristics".getBytes(StandardCharsets.US_ASCII);
+
+    private int format;
+    private String stamp;
+    private Map<String, String> release;
+    private String libDir;
+    private String jvmDir;
+    private List<String> preload;
+    private boolean shenandoah;
+
+    private transient String javaPath;
+
+    /**
+     * @return the layout of the runtime at {@code javaPath}, resolved again if the runtime changed
+     */
+    public static RuntimeLayout of(String javaPath) throws IOException {
+        String stamp = stampOf(javaPath);
+        RuntimeLayout layout = loaded.get(javaPath);
+        if (layout == null || !layout.stamp.equals(stamp)) {
+            layout = read(javaPath);
+            if (layout == null || !layout.stamp.equals(stamp)) {
+                layout = resolve(javaPath);
+            }
+            loaded.put(javaPath, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Resolve the layout of the runtime at {@code javaPath} and save it, meant to run right after an install.
+     */
+    public static RuntimeLayout resolve(String javaPath) throws IOException {
+        RuntimeLayout layout = new RuntimeLayout();
+        layout.format = FORMAT_VERSION;
+        layout.javaPath = javaPath;
+        layout.release = readRelease(javaPath);
+        layout.libDir = findLibDir(javaPath, layout.release.get("OS_ARCH"));
+        layout.jvmDir = new File(javaPath + layout.libDir + "/server/libjvm.so").exists() ? "/server" : "/client";
+        layout.preload = orderPreload(javaPath, layout.libDir, layout.jvmDir);
+        File jvm = new File(javaPath + layout.libDir + layout.jvmDir + "/libjvm.so");
+        try {
+            layout.shenandoah = contains(jvm, SHENANDOAH_MARKER);
+        } catch (IOException e) {
+            Logging.LOG.warning("Failed to read " + jvm + ": " + e);
+        }
+        // Stamped after resolving, it covers the library directory as found
+        layout.stamp = stampOf(javaPath);
+        try {
+            FileTools.saveSafely(new File(javaPath, FILE_NAME).toPath(), GSON.toJson(layout));
+        } catch (IOException e) {
+            Logging.LOG.warning("Failed to save the runtime layout of " + javaPath + ": " + e);
+        }
+        loaded.put(javaPath, layout);
+        return layout;
+    }
+
+    private static RuntimeLayout read(String javaPath) {
+        File file = new File(javaPath, FILE_NAME);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            RuntimeLayout layout = GSON.fromJson(FileTools.readText(file), RuntimeLayout.class);
+            if (layout == null || layout.format != FORMAT_VERSION || layout.stamp == null || layout.preload == null) {
+                return null;
+            }
+            layout.javaPath = javaPath;
+            return layout;
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static String stampOf(String javaPath) throws IOException {
+        File release = new File(javaPath, "release");
+        if (!release.isFile()) {
+            throw new IOException("No Java runtime at " + javaPath);
+        }
+        File version = new File(javaPath, "version");
+        String versionText = version.isFile() ? FileTools.readText(version).trim() : "";
+        File lib = new File(javaPath, "lib");
+        StringBuilder stamp = new StringBuilder(versionText)
+                .append('|').append(release.lastModified())
+                .append('|').append(lib.lastModified());
+        // Libraries usually sit one directory deeper, under the architecture
+        File[] archDirs = lib.listFiles(File::isDirectory);
+        if (archDirs != null) {
+            for (File dir : archDirs) {
+                if (new File(dir, "libjava.so").exists()) {
+                    stamp.append('|').append(dir.getName()).append(':').append(dir.lastModified());
+                }
+            }
+        }
+        return stamp.toString();
+    }
+
+    private static Map<String, String> readRelease(String javaPath) throws IOException {
+        Map<String, String> release = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(new File(javaPath, "release")))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains("=")) {
+                    String[] keyValue = line.split("=");
+                    release.put(keyValue[0], keyValue[1].replace("\"", ""));
+                }
+            }
+        }
+        return release;
+    }
+
+    private static String findLibDir(String javaPath, String jreArchitecture) throws IOException {
+        if (jreArchitecture == null) {
+            throw new IOException("Unsupported architecture!");
+        }
+        if (Architecture.archAsInt(jreArchitecture) == Architecture.ARCH_X86) {
+            jreArchitecture = "i386/i486/i586";
+        }
+        String libDir = "/lib";
+        for (String arch : jreArchitecture.split("/")) {
+            File file = new File(javaPath, "lib/" + arch);
+            if (file.isDirectory()) {
+                libDir = "/lib/" + arch;
+            }
+        }
+        return libDir;
+    }
+
+    /**
+     * @return the roots and the runtime libraries they need, each after its dependencies, relative to {@code javaPath}
+     */
+    private static List<String> orderPreload(String javaPath, String libDir, String jvmDir) {
+        // File name -> path, the chosen JVM variant wins over the other one
+        Map<String, String> libraries = new HashMap<>();
+        libraries.put("libjvm.so", libDir + jvmDir + "/libjvm.so");
+        collectLibraries(new File(javaPath), "", libraries);
+
+        List<String> order = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        for (String root : ROOTS) {
+            visit(javaPath, root, libraries, visited, order);
+        }
+        return order;
+    }
+
+    private static void collectLibraries(File dir, String relative, Map<String, String> libraries) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String path = relative + "/" + file.getName();
+            if (file.isDirectory()) {
+                collectLibraries(file, path, libraries);
+            } else if (file.getName().endsWith(".so") && !libraries.containsKey(file.getName())) {
+                libraries.put(file.getName(), path);
+            }
+        }
+    }
+
+    private static void visit(String javaPath, String name, Map<String, String> libraries, Set<String> visited, List<String> order) {
+        String path = libraries.get(name);
+        if (path == null || !visited.add(name)) {
+            return;
+        }
+        try {
+            for (String needed : readNeeded(new File(javaPath + path))) {
+                visit(javaPath, needed, libraries, visited, order);
+            }
+        } catch (IOException e) {
+            Logging.LOG.warning("Failed to read the dependencies of " + path + ": " + e);
+        }
+        order.add(path);
+    }
+
+    /**
+     * @return the {@code DT_NEEDED} entries of the ELF shared object {@code file}
+     */
+    static List<String> readNeeded(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer ident = read(channel, 0, 16);
+            if (ident.getInt(0) != 0x7F454C46) {
+                throw new IOException("Not an ELF file");
+            }
+            boolean is64 = ident.get(4) == 2;
+            ByteOrder order = ident.get(5) == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            ByteBuffer header = read(channel, 0, is64 ? 64 : 52).order(order);
+            long phOffset = is64 ? header.getLong(32) : header.getInt(28) & 0xFFFFFFFFL;
+            int phSize = header.getShort(is64 ? 54 : 42) & 0xFFFF;
+            int phCount = header.getShort(is64 ? 56 : 44) & 0xFFFF;
+            ByteBuffer programHeaders = read(channel, phOffset, phSize * phCount).order(order);
+
+            long dynamicOffset = -1;
+            long dynamicSize = 0;
+            List<long[]> loads = new ArrayList<>();
+            for (int i = 0; i < phCount; i++) {
+                int base = i * phSize;
+                int type = programHeaders.getInt(base);
+                long offset = is64 ? programHeaders.getLong(base + 8) : programHeaders.getInt(base + 4) & 0xFFFFFFFFL;
+                long vaddr = is64 ? programHeaders.getLong(base + 16) : programHeaders.getInt(base + 8) & 0xFFFFFFFFL;
+                long fileSize = is64 ? programHeaders.getLong(base + 32) : programHeaders.getInt(base + 16) & 0xFFFFFFFFL;
+                if (type == 1) { // PT_LOAD
+                    loads.add(new long[]{vaddr, offset, fileSize});
+                } else if (type == 2) { // PT_DYNAMIC
+                    dynamicOffset = offset;
+                    dynamicSize = fileSize;
+                }
+            }
+            if (dynamicOffset < 0) {
+                return Collections.emptyList();
+            }
+
+            ByteBuffer dynamic = read(channel, dynamicOffset, (int) dynamicSize).order(order);
+            int entrySize = is64 ? 16 : 8;
+            List<Long> needed = new ArrayList<>();
+            long strTab = -1;
+            long strSize = 0;
+            for (int pos = 0; pos + entrySize <= dynamic.limit(); pos += entrySize) {
+                long tag = is64 ? dynamic.getLong(pos) : dynamic.getInt(pos);
+                long value = is64 ? dynamic.getLong(pos + 8) : dynamic.getInt(pos + 4) & 0xFFFFFFFFL;
+                if (tag == 0) { // DT_NULL
+                    break;
+                } else if (tag == 1) { // DT_NEEDED
+                    needed.add(value);
+                } else if (tag == 5) { // DT_STRTAB
+                    strTab = value;
+                } else if (tag == 10) { // DT_STRSZ
+                    strSize = value;
+                }
+            }
+            long strTabOffset = -1;
+            for (long[] load : loads) {
+                if (strTab >= load[0] && strTab < load[0] + load[2]) {
+                    strTabOffset = load[1] + strTab - load[0];
+                }
+            }
+            if (needed.isEmpty() || strTabOffset < 0) {
+                return Collections.emptyList();
+            }
+
+            ByteBuffer strings = read(channel, strTabOffset, (int) strSize);
+            List<String> names = new ArrayList<>(needed.size());
+            for (long index : needed) {
+                int start = (int) index;
+                int end = start;
+                while (end < strings.limit() && strings.get(end) != 0) {
+                    end++;
+                }
+                names.add(new String(strings.array(), start, end - start, StandardCharsets.US_ASCII));
+            }
+            return names;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed ELF file " + file, e);
+        }
+    }
+
+    private static boolean contains(File file, byte[] pattern) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            byte[] array = buffer.array();
+            while (channel.read(buffer) > 0) {
+                int limit = buffer.position();
+                search:
+                for (int i = 0; i + pattern.length <= limit; i++) {
+                    for (int j = 0; j < pattern.length; j++) {
+                        if (array[i + j] != pattern[j]) {
+                            continue search;
+                        }
+                    }
+                    return true;
+                }
+                // Keep the tail, a match may continue in the next read
+                int keep = Math.min(limit, pattern.length - 1);
+                System.arraycopy(array, limit - keep, array, 0, keep);
+                buffer.position(keep);
+            }
+            return false;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return the contents of the {@code release} file
+     */
+    public Map<String, String> getReleaseProperties() {
+        return Collections.unmodifiableMap(release);
+    }
+
+    /**
+     * @return the directory of the runtime libraries relative to the runtime, e.g. {@code /lib/aarch64}
+     */
+    public String getLibDir() {
+        return libDir;
+    }
+
+    /**
+     * @return the JVM variant directory relative to {@link #getLibDir()}, {@code /server} or {@code /client}
+     */
+    public String getJvmDir() {
+        return jvmDir;
+    }
+
+    /**
+     * @return the absolute paths of the libraries to load before starting the JVM, each after its dependencies
+     */
+    public List<String> getPreloadLibraries() {
+        List<String> paths = new ArrayList<>(preload.size());
+        for (String path : preload) {
+            paths.add(javaPath + path);
+        }
+        return paths;
+    }
+
+    /**
+     * @return whether the JVM of this runtime was built with the Shenandoah collector
+     */
+    public boolean hasShenandoah() {
+        return shenandoah;
+    }
+
+    @Override
+    public String toString() {
+        return "RuntimeLayout{" + javaPath + ", libDir=" + libDir + ", jvmDir=" + jvmDir + ", preload=" + preload.size() + "}";
+    }
+}
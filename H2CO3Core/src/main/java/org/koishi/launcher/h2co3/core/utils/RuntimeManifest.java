@@ -0,0 +1,169 @@
+package org.koishi.launcher.h2co3.core.utils;
+
+import android.content.Context;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+import org.koishi.launcher.h2co3.core.utils.io.IOUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SHA-1 and size of every file of a bundled runtime.
+ * <p>
+ * The build generates {@value #FILE_NAME} for each runtime in the assets, listing loose files under
+ * {@code files} and the contents of each {@code .tar.xz} under {@code archives}. After an install the
+ * files actually written are recorded in {@value #INSTALLED_FILE_NAME} inside the runtime directory,
+ * so an upgrade only has to write the files whose hash changed.
+ */
+public class RuntimeManifest {
+
+    public static final String FILE_NAME = "manifest.json";
+    public static final String INSTALLED_FILE_NAME = ".manifest.json";
+
+    private static final Gson GSON = new Gson();
+
+    private Map<String, FileInfo> files;
+    private Map<String, Map<String, FileInfo>> archives;
+
+    public RuntimeManifest(Map<String, FileInfo> files) {
+        this.files = files;
+    }
+
+    /**
+     * @return the manifest bundled for {@code srcDir}, or null if the build did not generate one
+     */
+    public static RuntimeManifest fromAssets(Context context, String srcDir) {
+        try (InputStream in = context.getAssets().open(srcDir + "/" + FILE_NAME)) {
+            return parse(IOUtils.readFullyAsString(in));
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException | JsonParseException e) {
+            Logging.LOG.warning("Ignoring unreadable runtime manifest of " + srcDir + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the manifest of the last install into {@code targetDir}, or null if there is none
+     */
+    public static RuntimeManifest installed(String targetDir) {
+        File file = new File(targetDir, INSTALLED_FILE_NAME);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return parse(FileTools.readText(file));
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private static RuntimeManifest parse(String json) {
+        RuntimeManifest manifest = GSON.fromJson(json, RuntimeManifest.class);
+        if (manifest == null) {
+            throw new JsonParseException("Empty manifest");
+        }
+        return manifest;
+    }
+
+    public void saveInstalled(String targetDir) throws IOException {
+        FileTools.saveSafely(new File(targetDir, INSTALLED_FILE_NAME).toPath(), GSON.toJson(new RuntimeManifest(getFiles())));
+    }
+
+    public Map<String, FileInfo> getFiles() {
+        return files != null ? files : Collections.emptyMap();
+    }
+
+    /**
+     * @return the files of {@code archive}, or null if the manifest does not cover it
+     */
+    public Map<String, FileInfo> getArchive(String archive) {
+        return archives != null ? archives.get(archive) : null;
+    }
+
+    /**
+     * @return the paths of {@code wanted} that are missing from {@code targetDir} or differ from it.
+     * Without an {@code installed} manifest the files on disk are hashed instead.
+     */
+    public static Set<String> diff(String targetDir, Map<String, FileInfo> wanted, RuntimeManifest installed) {
+        Set<String> changed = new LinkedHashSet<>();
+        Map<String, FileInfo> present = installed != null ? installed.getFiles() : null;
+        for (Map.Entry<String, FileInfo> entry : wanted.entrySet()) {
+            String path = entry.getKey();
+            FileInfo info = entry.getValue();
+            File file = getInstalledFile(targetDir, path);
+            if (!file.isFile()) {
+                changed.add(path);
+            } else if (present != null) {
+                FileInfo old = present.get(path);
+                if (old == null || !info.sha1.equalsIgnoreCase(old.sha1) || !matchesSize(path, file, info)) {
+                    changed.add(path);
+                }
+            } else if (isPacked(path) || !matchesSize(path, file, info) || !matchesHash(file, info)) {
+                // An unpacked jar cannot be checked against the hash of its pack file.
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Delete the files of {@code installed} that {@code wanted} no longer contains.
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public static void removeStale(String targetDir, Map<String, FileInfo> wanted, RuntimeManifest installed) {
+        if (installed == null) {
+            return;
+        }
+        for (String path : installed.getFiles().keySet()) {
+            if (!wanted.containsKey(path)) {
+                getInstalledFile(targetDir, path).delete();
+            }
+        }
+    }
+
+    public static Map<String, FileInfo> merge(Map<String, FileInfo> first, Map<String, FileInfo> second) {
+        Map<String, FileInfo> merged = new LinkedHashMap<>(first);
+        merged.putAll(second);
+        return merged;
+    }
+
+    /**
+     * Pack200 files are replaced by the jar they unpack to once installed.
+     */
+    private static File getInstalledFile(String targetDir, String path) {
+        return new File(targetDir, isPacked(path) ? path.substring(0, path.length() - ".pack".length()) : path);
+    }
+
+    private static boolean isPacked(String path) {
+        return path.endsWith(".pack");
+    }
+
+    private static boolean matchesSize(String path, File file, FileInfo info) {
+        return isPacked(path) || file.length() == info.size;
+    }
+
+    private static boolean matchesHash(File file, FileInfo info) {
+        try {
+            return info.sha1.equalsIgnoreCase(H2CO3DownloadUtils.sha1(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static class FileInfo {
+        String sha1;
+        long size;
+    }
+}
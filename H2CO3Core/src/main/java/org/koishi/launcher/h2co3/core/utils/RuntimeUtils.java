@@ -2,20 +2,31 @@ package org.koishi.launcher.h2co3.core.utils;
 
 import static org.koishi.launcher.h2co3.core.H2CO3Tools.getArchitectureString;
 import static org.koishi.launcher.h2co3.core.utils.file.AssetsUtils.copyAssets;
-import static org.koishi.launcher.h2co3.core.utils.file.FileTools.uncompressTarXZ;
 
 import android.content.Context;
 
 import org.apache.commons.io.FileUtils;
 import org.koishi.launcher.h2co3.core.H2CO3Tools;
 import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+import org.koishi.launcher.h2co3.core.utils.file.TarXZExtractor;
 import org.koishi.launcher.h2co3.core.utils.io.IOUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
 
 public class RuntimeUtils {
+    private static final int WRITER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
 
     public static boolean isLatest(String targetDir, String srcDir) throws IOException {
         File targetFile = new File(targetDir + "/version");
@@ -23,24 +34,124 @@ public class RuntimeUtils {
         return targetFile.exists() && Long.parseLong(FileTools.readText(targetFile)) == version;
     }
 
+    /**
+     * Copy a bundled runtime to {@code targetDir}. With a generated {@link RuntimeManifest} only files that
+     * changed since the last install are written; otherwise the directory is replaced as a whole.
+     */
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public static void install(Context context, String targetDir, String srcDir) throws IOException {
-        FileUtils.deleteDirectory(new File(targetDir));
-        new File(targetDir).mkdirs();
-        copyAssets(context, srcDir, targetDir);
+        RuntimeManifest manifest = RuntimeManifest.fromAssets(context, srcDir);
+        if (manifest == null) {
+            FileUtils.deleteDirectory(new File(targetDir));
+            new File(targetDir).mkdirs();
+            copyAssets(context, srcDir, targetDir);
+            return;
+        }
+
+        Map<String, RuntimeManifest.FileInfo> files = manifest.getFiles();
+        RuntimeManifest installed = RuntimeManifest.installed(targetDir);
+        RuntimeManifest.removeStale(targetDir, files, installed);
+        for (String path : RuntimeManifest.diff(targetDir, files, installed)) {
+            if (!path.equals("version")) {
+                copyAsset(context, srcDir + "/" + path, new File(targetDir, path));
+            }
+        }
+        new RuntimeManifest(files).saveInstalled(targetDir);
+        // Written last, so an interrupted update is picked up again by isLatest().
+        copyAsset(context, srcDir + "/version", new File(targetDir, "version"));
+    }
+
+    private static void copyAsset(Context context, String assetPath, File target) throws IOException {
+        try (InputStream in = context.getAssets().open(assetPath)) {
+            FileUtils.copyInputStreamToFile(in, target);
+        }
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     public static void installJava(Context context, String targetDir, String srcDir) throws IOException {
-        FileUtils.deleteDirectory(new File(targetDir));
-        new File(targetDir).mkdirs();
-        String universalPath = srcDir + "/universal.tar.xz";
-        String archPath = srcDir + "/bin-" + Architecture.archAsString(Architecture.getDeviceArchitecture()) + ".tar.xz";
+        installJava(context, targetDir, srcDir, null);
+    }
+
+    /**
+     * Extract the universal and the architecture specific archive of a bundled JRE, files in both are taken
+     * from the architecture specific one. With a generated {@link RuntimeManifest} only the entries that changed
+     * since the last install are written and both archives are extracted side by side; otherwise the runtime
+     * is extracted from scratch, one archive after the other.
+     *
+     * @param listener receives the compressed bytes consumed across both archives, may be null
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public static void installJava(Context context, String targetDir, String srcDir, ProgressListener listener) throws IOException {
+        String universalName = "universal.tar.xz";
+        String archName = "bin-" + Architecture.archAsString(Architecture.getDeviceArchitecture()) + ".tar.xz";
+        String universalPath = srcDir + "/" + universalName;
+        String archPath = srcDir + "/" + archName;
         String version = IOUtils.readFullyAsString(Objects.requireNonNull(RuntimeUtils.class.getResourceAsStream("/assets/" + srcDir + "/version")));
-        uncompressTarXZ(context.getAssets().open(universalPath), new File(targetDir));
-        uncompressTarXZ(context.getAssets().open(archPath), new File(targetDir));
-        FileTools.writeText(new File(targetDir + "/version"), version);
+
+        RuntimeManifest manifest = RuntimeManifest.fromAssets(context, srcDir);
+        Map<String, RuntimeManifest.FileInfo> universalFiles = manifest != null ? manifest.getArchive(universalName) : null;
+        Map<String, RuntimeManifest.FileInfo> archFiles = manifest != null ? manifest.getArchive(archName) : null;
+        Map<String, RuntimeManifest.FileInfo> files = null;
+        Predicate<String> filter = null;
+        if (universalFiles != null && archFiles != null) {
+            files = RuntimeManifest.merge(universalFiles, archFiles);
+            RuntimeManifest installed = RuntimeManifest.installed(targetDir);
+            RuntimeManifest.removeStale(targetDir, files, installed);
+            filter = RuntimeManifest.diff(targetDir, files, installed)::contains;
+        } else {
+            FileUtils.deleteDirectory(new File(targetDir));
+        }
+        new File(targetDir).mkdirs();
+
+        ExecutorService writers = Executors.newFixedThreadPool(WRITER_THREADS);
+        ExecutorService universalReader = Executors.newSingleThreadExecutor();
+        try (InputStream universal = context.getAssets().open(universalPath);
+             InputStream arch = context.getAssets().open(archPath)) {
+            // Asset streams know their remaining length up front.
+            long total = (long) universal.available() + arch.available();
+            AtomicLong done = new AtomicLong();
+            LongConsumer progress = listener == null ? null : count -> listener.onProgress(done.addAndGet(count), total);
+            TarXZExtractor extractor = new TarXZExtractor(writers);
+
+            if (filter != null) {
+                // Files in both archives are taken from the architecture one only, so both can be extracted at once
+                Predicate<String> archFilter = filter;
+                Predicate<String> universalFilter = path -> archFilter.test(path) && !archFiles.containsKey(path);
+                Future<?> universalTask = universalReader.submit(() -> {
+                    extractor.extract(universal, new File(targetDir), progress, universalFilter);
+                    return null;
+                });
+                extractor.extract(arch, new File(targetDir), progress, archFilter);
+                try {
+                    universalTask.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Installation of " + srcDir + " interrupted");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            } else {
+                // Without a manifest the shared files are unknown, the architecture archive goes last and overwrites them
+                extractor.extract(universal, new File(targetDir), progress, null);
+                extractor.extract(arch, new File(targetDir), progress, path -> true);
+            }
+        } finally {
+            universalReader.shutdownNow();
+            writers.shutdown();
+        }
+        if (files != null) {
+            new RuntimeManifest(files).saveInstalled(targetDir);
+        }
         patchJava(context, targetDir);
+        FileTools.writeText(new File(targetDir + "/version"), version);
+        // Resolved now so the first launch does not have to
+        try {
+            RuntimeLayout.resolve(targetDir);
+        } catch (IOException e) {
+            Logging.LOG.warning("Failed to resolve the layout of " + targetDir + ": " + e);
+        }
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -65,4 +176,10 @@ public class RuntimeUtils {
 
     }
 
+    public interface ProgressListener {
+        /**
+         * Called from the installing threads, possibly once per read.
+         */
+        void onProgress(long doneBytes, long totalBytes);
+    }
 }
@@ -0,0 +1,203 @@
+package org.koishi.launcher.h2co3.core.utils;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Base64;
+import android.util.LruCache;
+
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Level;
+
+/**
+ * Renders player heads, the face with its hat layer, from Base64 skin textures at the size they are shown.
+ * <p>
+ * Rendered heads are kept in a memory LRU bounded in bytes and in a disk cache keyed by the texture
+ * hash and size, so a skin is decoded once and never scaled up beyond the view. {@link #load} may block
+ * and belongs on a background thread, {@link #getCached} is cheap enough for binding.
+ */
+public class SkinHeadCache {
+    private static final String CACHE_DIR_NAME = "skin_heads";
+    private static final int MAX_MEMORY_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_DISK_FILES = 256;
+    private static final int MAX_DIGESTS = 64;
+
+    private static final Rect FACE = new Rect(8, 8, 16, 16);
+    private static final Rect HAT = new Rect(40, 8, 48, 16);
+
+    private static volatile SkinHeadCache instance;
+
+    private final File cacheDir;
+    private final LruCache<String, Bitmap> heads;
+    // Base64 texture -> hex digest, so binding the same texture again does not hash it again
+    private final LruCache<String, String> digests = new LruCache<>(MAX_DIGESTS);
+
+    private SkinHeadCache(Context context) {
+        cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR_NAME);
+        int maxBytes = (int) Math.min(MAX_MEMORY_BYTES, Runtime.getRuntime().maxMemory() / 64);
+        heads = new LruCache<>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    public static SkinHeadCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SkinHeadCache.class) {
+                if (instance == null) {
+                    instance = new SkinHeadCache(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return the key of the head of {@code texture} rendered at {@code size} pixels
+     */
+    public String keyOf(String texture, int size) {
+        String digest = digests.get(texture);
+        if (digest == null) {
+            digest = sha1(texture);
+            digests.put(texture, digest);
+        }
+        return digest + "_" + size;
+    }
+
+    /**
+     * @return the head for {@code key} if it is in memory, otherwise null
+     */
+    public Bitmap getCached(String key) {
+        return heads.get(key);
+    }
+
+    /**
+     * @return the head of {@code texture} at {@code size} pixels, from memory, disk, or rendered now,
+     * or null if the texture cannot be decoded
+     */
+    public Bitmap load(String texture, int size) {
+        String key = keyOf(texture, size);
+        Bitmap head = heads.get(key);
+        if (head != null) {
+            return head;
+        }
+        File file = new File(cacheDir, key + ".png");
+        head = BitmapFactory.decodeFile(file.getPath());
+        if (head == null) {
+            Bitmap skin = decodeSkin(texture);
+            if (skin == null) {
+                return null;
+            }
+            head = renderHead(skin, size);
+            skin.recycle();
+            store(file, head);
+        }
+        heads.put(key, head);
+        return head;
+    }
+
+    public static Bitmap decodeSkin(String texture) {
+        try {
+            byte[] bytes = Base64.decode(texture, Base64.DEFAULT);
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        } catch (IllegalArgumentException e) {
+            LOG.log(Level.WARNING, "Invalid skin texture", e);
+            return null;
+        }
+    }
+
+    /**
+     * Draw the face and hat of {@code skin} onto a {@code size}x{@code size} bitmap, pixels kept sharp.
+     */
+    public static Bitmap renderHead(Bitmap skin, int size) {
+        Bitmap head = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(head);
+        Paint paint = new Paint();
+        paint.setFilterBitmap(false);
+        Rect dst = new Rect(0, 0, size, size);
+        canvas.drawBitmap(skin, FACE, dst, paint);
+        if (hasHat(skin)) {
+            canvas.drawBitmap(skin, HAT, dst, paint);
+        }
+        return head;
+    }
+
+    // Like the game, ignore the hat of a legacy 64x32 skin if it is fully opaque
+    private static boolean hasHat(Bitmap skin) {
+        if (skin.getWidth() < HAT.right || skin.getHeight() < HAT.bottom) {
+            return false;
+        }
+        if (skin.getHeight() * 2 != skin.getWidth()) {
+            return true;
+        }
+        int[] pixels = new int[HAT.width() * HAT.height()];
+        skin.getPixels(pixels, 0, HAT.width(), HAT.left, HAT.top, HAT.width(), HAT.height());
+        for (int pixel : pixels) {
+            if ((pixel >>> 24) != 0xFF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void store(File file, Bitmap head) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            FileTools.makeDirectory(cacheDir);
+            try (OutputStream out = new FileOutputStream(temp)) {
+                head.compress(Bitmap.CompressFormat.PNG, 100, out);
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Failed to rename " + temp + " to " + file);
+            }
+            trimDisk();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to cache skin head " + file, e);
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+        }
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void trimDisk() {
+        File[] files = cacheDir.listFiles();
+        if (files == null || files.length <= MAX_DISK_FILES) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - MAX_DISK_FILES; i++) {
+            files[i].delete();
+        }
+    }
+
+    private static String sha1(String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hex = new StringBuilder(40);
+        for (byte b : digest.digest(text.getBytes(StandardCharsets.US_ASCII))) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,165 @@
+package org.koishi.launcher.h2co3.core.utils.download;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches an asset index and its hash-named objects into one shared, content-addressed store.
+ * <p>
+ * Objects are stored once under {@code <store>/objects/<first two hash chars>/<hash>} no matter how
+ * many game directories use them. A game directory gets the objects either as hard links in its own
+ * assets root, or, where the file system has no hard links (e.g. shared storage), by pointing its
+ * assets root at the store itself.
+ */
+public class AssetsDownloader {
+
+    public static final String RESOURCES_URL = "https://resources.download.minecraft.net/";
+
+    private static final Gson GSON = new Gson();
+
+    private final DownloadEngine engine;
+    private final File store;
+
+    public AssetsDownloader(DownloadEngine engine, File store) {
+        this.engine = engine;
+        this.store = store;
+    }
+
+    public File getStore() {
+        return store;
+    }
+
+    public File getIndexFile(String indexId) {
+        return new File(store, "indexes/" + indexId + ".json");
+    }
+
+    /**
+     * Download the index and every object it lists that the store does not hold yet.
+     *
+     * @return the entries that could not be downloaded
+     */
+    public List<DownloadEntry> download(String indexId, String indexUrl, String indexSha1, long indexSize,
+                                       DownloadEngine.Listener listener) throws IOException, InterruptedException {
+        DownloadEntry index = new DownloadEntry(indexUrl, getIndexFile(indexId), indexSha1, indexSize);
+        List<DownloadEntry> failed = engine.download(Collections.singletonList(index), listener);
+        if (!failed.isEmpty()) {
+            return failed;
+        }
+
+        // Many names share one hash, fetch each hash once.
+        Map<String, DownloadEntry> objects = new LinkedHashMap<>();
+        for (AssetObject object : readIndex(indexId).objects.values()) {
+            if (!isValidHash(object.hash) || objects.containsKey(object.hash)) {
+                continue;
+            }
+            String path = objectPath(object.hash);
+            objects.put(object.hash, new DownloadEntry(RESOURCES_URL + path, new File(store, "objects/" + path), object.hash, object.size));
+        }
+        return engine.download(new ArrayList<>(objects.values()), listener);
+    }
+
+    /**
+     * Make the objects of {@code indexId} visible under {@code assetsRoot} as hard links to the store.
+     *
+     * @return false if the file system of {@code assetsRoot} does not support hard links to the store,
+     * in which case the caller should use the store as the assets root instead
+     */
+    public boolean link(String indexId, File assetsRoot) throws IOException {
+        AssetIndex index = readIndex(indexId);
+        if (!assetsRoot.getCanonicalFile().equals(store.getCanonicalFile())) {
+            if (!linkOrSkip(getIndexFile(indexId).toPath(), new File(assetsRoot, "indexes/" + indexId + ".json").toPath())) {
+                return false;
+            }
+            for (AssetObject object : index.objects.values()) {
+                if (!isValidHash(object.hash)) {
+                    continue;
+                }
+                String path = objectPath(object.hash);
+                if (!linkOrSkip(new File(store, "objects/" + path).toPath(), new File(assetsRoot, "objects/" + path).toPath())) {
+                    return false;
+                }
+            }
+        }
+
+        // Versions before 1.7.3 read assets by name rather than by hash.
+        if (index.virtual || index.mapToResources) {
+            File virtualDir = new File(assetsRoot, "virtual/legacy");
+            for (Map.Entry<String, AssetObject> entry : index.objects.entrySet()) {
+                if (!isValidHash(entry.getValue().hash)) {
+                    continue;
+                }
+                Path source = new File(store, "objects/" + objectPath(entry.getValue().hash)).toPath();
+                Path target = new File(virtualDir, entry.getKey()).toPath();
+                if (!linkOrSkip(source, target)) {
+                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        return true;
+    }
+
+    private AssetIndex readIndex(String indexId) throws IOException {
+        try {
+            AssetIndex index = GSON.fromJson(new String(Files.readAllBytes(getIndexFile(indexId).toPath()), StandardCharsets.UTF_8), AssetIndex.class);
+            if (index == null || index.objects == null) {
+                throw new IOException("Asset index " + indexId + " has no objects");
+            }
+            return index;
+        } catch (JsonParseException e) {
+            throw new IOException("Malformed asset index " + indexId, e);
+        }
+    }
+
+    /**
+     * @return false if hard links are not supported between {@code source} and {@code target}
+     */
+    private static boolean linkOrSkip(Path source, Path target) throws IOException {
+        if (Files.isRegularFile(target) && Files.size(target) == Files.size(source)) {
+            return true;
+        }
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean isValidHash(String hash) {
+        return hash != null && hash.length() > 2;
+    }
+
+    private static String objectPath(String hash) {
+        return hash.substring(0, 2) + "/" + hash;
+    }
+
+    private static class AssetIndex {
+        Map<String, AssetObject> objects;
+        boolean virtual;
+        @SerializedName("map_to_resources")
+        boolean mapToResources;
+    }
+
+    private static class AssetObject {
+        String hash;
+        long size;
+    }
+}
@@ -0,0 +1,242 @@
+package org.koishi.launcher.h2co3.core.utils.download;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import org.koishi.launcher.h2co3.core.utils.H2CO3DownloadUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Downloads a batch of {@link DownloadEntry}s with a bounded worker pool.
+ * <p>
+ * Interrupted transfers resume from their {@code .part} file, finished files are checked
+ * against their SHA-1, and each file is retried with exponential backoff on its own so one
+ * bad file does not cancel the batch. With a {@link MirrorRegistry} every attempt goes to the fastest
+ * healthy mirror that has not failed the file yet, so a broken or stalled mirror is left mid-batch.
+ * Progress is reported at a fixed rate rather than per read.
+ * Nothing here touches Android APIs, so the engine also runs headless.
+ */
+public class DownloadEngine {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long BASE_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 8000;
+
+    private final int threads;
+    private final int maxRetries;
+    private final long progressIntervalMillis;
+    private MirrorRegistry mirrors;
+    private volatile ExecutorService workers;
+    private volatile boolean cancelled;
+
+    public DownloadEngine(int threads) {
+        this(threads, 3, 100);
+    }
+
+    public DownloadEngine(int threads, int maxRetries, long progressIntervalMillis) {
+        this.threads = Math.max(1, threads);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    /**
+     * Route entries through the mirrors of {@code registry} instead of their official URLs.
+     */
+    public DownloadEngine setMirrorRegistry(MirrorRegistry registry) {
+        this.mirrors = registry;
+        return this;
+    }
+
+    /**
+     * Download every entry and block until all of them either completed or ran out of retries.
+     *
+     * @return the entries that failed
+     */
+    public List<DownloadEntry> download(List<DownloadEntry> entries, Listener listener) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, entries.size())));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        workers = pool;
+        try {
+            if (cancelled) {
+                throw new InterruptedException("Download cancelled");
+            }
+            reporter.scheduleAtFixedRate(() -> report(entries, listener), 0, progressIntervalMillis, TimeUnit.MILLISECONDS);
+            if (mirrors != null && !entries.isEmpty()) {
+                mirrors.probeUnknown(entries.get(0).getUrl());
+            }
+            for (DownloadEntry entry : entries) {
+                pool.execute(() -> fetch(entry, listener));
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                if (cancelled) {
+                    throw new InterruptedException("Download cancelled");
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            reporter.shutdownNow();
+            workers = null;
+            if (mirrors != null) {
+                mirrors.save();
+            }
+        }
+        report(entries, listener);
+
+        List<DownloadEntry> failed = new ArrayList<>();
+        for (DownloadEntry entry : entries) {
+            if (entry.getState() != DownloadEntry.State.COMPLETED) {
+                failed.add(entry);
+            }
+        }
+        return failed;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        ExecutorService pool = workers;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void fetch(DownloadEntry entry, Listener listener) {
+        entry.setState(DownloadEntry.State.RUNNING);
+        File target = entry.getTarget();
+        if (isValid(entry, target)) {
+            entry.addDownloaded(target.length() - entry.getDownloaded());
+            complete(entry, listener);
+            return;
+        }
+
+        File part = entry.getPartFile();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Set<Mirror> failedMirrors = new HashSet<>();
+        int maxAttempts = maxRetries + (mirrors != null ? mirrors.size() : 1);
+        Exception failure = null;
+        long partLength = part.length();
+        for (int attempt = 0; attempt < maxAttempts && !cancelled; attempt++) {
+            MirrorRegistry.Candidate source = mirrors != null ? mirrors.select(entry.getUrl(), failedMirrors) : null;
+            long[] timing = new long[2];
+            boolean progressed = part.length() > partLength;
+            partLength = part.length();
+            try {
+                // Switching to a mirror that has not failed yet needs no backoff, neither does resuming
+                // a transfer that got further before it dropped.
+                if (attempt > 0 && !progressed && (source == null || failedMirrors.contains(source.getMirror()))) {
+                    Thread.sleep(Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 8)));
+                }
+                String url = source != null ? source.getUrl() : entry.getUrl();
+                timing[0] = System.nanoTime();
+                H2CO3DownloadUtils.downloadFileResumable(new URL(url), part, buffer, new H2CO3DownloadUtils.H2CO3ResumableFeedback() {
+                    @Override
+                    public void onStart(long resumedFrom) {
+                        timing[1] = System.nanoTime();
+                        entry.addDownloaded(resumedFrom - entry.getDownloaded());
+                    }
+
+                    @Override
+                    public void onRead(int count) {
+                        entry.addDownloaded(count);
+                    }
+                });
+                if (!isValid(entry, part)) {
+                    // A corrupt part file cannot be resumed, start over on the next attempt.
+                    Files.deleteIfExists(part.toPath());
+                    entry.addDownloaded(-entry.getDownloaded());
+                    throw new IOException("Checksum mismatch for " + url);
+                }
+                Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                if (source != null) {
+                    long end = System.nanoTime();
+                    mirrors.recordSuccess(source.getMirror(),
+                            TimeUnit.NANOSECONDS.toMillis(timing[1] - timing[0]),
+                            target.length(), TimeUnit.NANOSECONDS.toMillis(end - timing[1]));
+                }
+                complete(entry, listener);
+                return;
+            } catch (InterruptedException e) {
+                failure = e;
+                break;
+            } catch (IOException e) {
+                failure = e;
+                if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+                    break;
+                }
+                // Timeouts land here too, so a stalled mirror is treated like a failed one.
+                if (source != null) {
+                    mirrors.recordFailure(source.getMirror());
+                    failedMirrors.add(source.getMirror());
+                }
+                LOG.log(Level.WARNING, "Failed to download " + entry.getUrl() + " (attempt " + (attempt + 1) + ")", e);
+            }
+        }
+
+        entry.setState(DownloadEntry.State.FAILED);
+        listener.onFileFailed(entry, failure != null ? failure : new InterruptedIOException("Download cancelled"));
+    }
+
+    private static void complete(DownloadEntry entry, Listener listener) {
+        entry.setState(DownloadEntry.State.COMPLETED);
+        listener.onFileCompleted(entry);
+    }
+
+    private static boolean isValid(DownloadEntry entry, File file) {
+        if (!file.isFile() || (entry.getSize() > 0 && file.length() != entry.getSize())) {
+            return false;
+        }
+        if (entry.getSha1() == null || entry.getSha1().isEmpty()) {
+            return true;
+        }
+        try {
+            return entry.getSha1().equalsIgnoreCase(H2CO3DownloadUtils.sha1(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void report(List<DownloadEntry> entries, Listener listener) {
+        long downloaded = 0;
+        long total = 0;
+        int finished = 0;
+        for (DownloadEntry entry : entries) {
+            downloaded += entry.getDownloaded();
+            total += Math.max(0, entry.getSize());
+            if (entry.getState() == DownloadEntry.State.COMPLETED) {
+                finished++;
+            }
+        }
+        listener.onProgress(downloaded, total, finished, entries.size());
+    }
+
+    public interface Listener {
+        /**
+         * Called from a background thread at most once per progress interval.
+         */
+        void onProgress(long downloadedBytes, long totalBytes, int finishedFiles, int totalFiles);
+
+        default void onFileCompleted(DownloadEntry entry) {
+        }
+
+        default void onFileFailed(DownloadEntry entry, Exception e) {
+        }
+    }
+}
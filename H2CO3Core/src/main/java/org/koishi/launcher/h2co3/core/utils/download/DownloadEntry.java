@@ -0,0 +1,77 @@
+package org.koishi.launcher.h2co3.core.utils.download;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single file for {@link DownloadEngine} to fetch.
+ */
+public class DownloadEntry {
+    private final String url;
+    private final File target;
+    private final String sha1;
+    private final long size;
+    private final AtomicLong downloaded = new AtomicLong();
+    private volatile State state = State.PENDING;
+
+    /**
+     * @param sha1 expected hex SHA-1 of the file, or null to only check {@code size}
+     * @param size expected size in bytes, or a value &lt;= 0 if unknown
+     */
+    public DownloadEntry(String url, File target, String sha1, long size) {
+        this.url = url;
+        this.target = target;
+        this.sha1 = sha1;
+        this.size = size;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public File getTarget() {
+        return target;
+    }
+
+    public File getPartFile() {
+        return new File(target.getPath() + ".part");
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getDownloaded() {
+        return downloaded.get();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getProgress() {
+        if (state == State.COMPLETED) {
+            return 100;
+        }
+        return size > 0 ? (int) Math.min(99, downloaded.get() * 100 / size) : 0;
+    }
+
+    long addDownloaded(long delta) {
+        return downloaded.addAndGet(delta);
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,60 @@
+package org.koishi.launcher.h2co3.core.utils.download;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A download source that serves some or all of the official Mojang endpoints under different URLs.
+ */
+public class Mirror {
+
+    public static final Mirror OFFICIAL = new Mirror("official", Collections.emptyMap());
+
+    public static final Mirror BMCLAPI = new Mirror("bmclapi", rewrites(
+            "https://libraries.minecraft.net/", "https://bmclapi2.bangbang93.com/maven/",
+            "https://resources.download.minecraft.net/", "https://bmclapi2.bangbang93.com/assets/",
+            "https://launchermeta.mojang.com/", "https://bmclapi2.bangbang93.com/",
+            "https://piston-meta.mojang.com/", "https://bmclapi2.bangbang93.com/",
+            "https://launcher.mojang.com/", "https://bmclapi2.bangbang93.com/",
+            "https://piston-data.mojang.com/", "https://bmclapi2.bangbang93.com/"
+    ));
+
+    private final String name;
+    private final Map<String, String> prefixes;
+
+    /**
+     * @param prefixes official URL prefix to mirror URL prefix; an empty map serves URLs unchanged
+     */
+    public Mirror(String name, Map<String, String> prefixes) {
+        this.name = name;
+        this.prefixes = prefixes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the URL of {@code officialUrl} on this mirror, or null if the mirror does not serve it
+     */
+    public String rewrite(String officialUrl) {
+        if (prefixes.isEmpty()) {
+            return officialUrl;
+        }
+        for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
+            if (officialUrl.startsWith(prefix.getKey())) {
+                return prefix.getValue() + officialUrl.substring(prefix.getKey().length());
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> rewrites(String... pairs) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put(pairs[i], pairs[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
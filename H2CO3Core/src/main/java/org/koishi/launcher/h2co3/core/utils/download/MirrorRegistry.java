@@ -0,0 +1,247 @@
+package org.koishi.launcher.h2co3.core.utils.download;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import org.koishi.launcher.h2co3.core.utils.Lang;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Keeps latency, throughput and failure statistics for each {@link Mirror} and ranks them per URL.
+ * <p>
+ * Statistics are saved next to the other launcher settings, so a cold start can pick
+ * a good mirror before anything has been downloaded in the current session.
+ */
+public class MirrorRegistry {
+
+    public static final String STATS_FILE_NAME = "download_mirrors.json";
+
+    private static final double SMOOTHING = 0.3;
+    private static final long THROUGHPUT_SAMPLE_MIN_BYTES = 64 * 1024;
+    private static final long REFERENCE_SIZE = 1024 * 1024;
+    private static final double DEFAULT_LATENCY_MILLIS = 500;
+    private static final double DEFAULT_BYTES_PER_SECOND = 512 * 1024;
+    private static final int UNHEALTHY_FAILURES = 3;
+    private static final long COOLDOWN_MILLIS = 60_000;
+    private static final int PROBE_TIMEOUT_MILLIS = 3000;
+
+    private static final Gson GSON = new Gson();
+    private static final Map<String, MirrorRegistry> registries = new ConcurrentHashMap<>();
+
+    private final File statsFile;
+    private final List<Mirror> mirrors;
+    private final Map<String, Stats> stats = new HashMap<>();
+    // Mirrors with a probe in flight
+    private final Set<String> probing = new HashSet<>();
+    private final ExecutorService probes = Lang.threadPool("MirrorProbe", true, 2, 10, TimeUnit.SECONDS);
+
+    public MirrorRegistry(File statsFile, List<Mirror> mirrors) {
+        this.statsFile = statsFile;
+        this.mirrors = mirrors;
+        load();
+    }
+
+    /**
+     * @return the shared registry of the official source and BMCLAPI backed by {@code statsFile}
+     */
+    public static MirrorRegistry of(String statsFile) {
+        return registries.computeIfAbsent(statsFile,
+                path -> new MirrorRegistry(new File(path), Arrays.asList(Mirror.OFFICIAL, Mirror.BMCLAPI)));
+    }
+
+    public int size() {
+        return mirrors.size();
+    }
+
+    /**
+     * @return every mirror serving {@code officialUrl}, healthy ones first, fastest first
+     */
+    public synchronized List<Candidate> candidates(String officialUrl) {
+        long now = System.currentTimeMillis();
+        List<Candidate> candidates = new ArrayList<>();
+        for (Mirror mirror : mirrors) {
+            String url = mirror.rewrite(officialUrl);
+            if (url != null) {
+                candidates.add(new Candidate(mirror, url));
+            }
+        }
+        candidates.sort(Comparator
+                .comparing((Candidate candidate) -> !isHealthy(candidate.getMirror(), now))
+                .thenComparingDouble(candidate -> score(candidate.getMirror())));
+        return candidates;
+    }
+
+    /**
+     * @return the best mirror for {@code officialUrl} not in {@code exclude}, or the best one overall
+     * once every mirror has been excluded
+     */
+    public Candidate select(String officialUrl, Collection<Mirror> exclude) {
+        List<Candidate> candidates = candidates(officialUrl);
+        for (Candidate candidate : candidates) {
+            if (!exclude.contains(candidate.getMirror())) {
+                return candidate;
+            }
+        }
+        return candidates.isEmpty() ? new Candidate(Mirror.OFFICIAL, officialUrl) : candidates.get(0);
+    }
+
+    public synchronized void recordSuccess(Mirror mirror, long latencyMillis, long bytes, long transferMillis) {
+        Stats s = stats.computeIfAbsent(mirror.getName(), name -> new Stats());
+        s.failures = 0;
+        s.latencyMillis = smooth(s.latencyMillis, latencyMillis);
+        if (bytes >= THROUGHPUT_SAMPLE_MIN_BYTES && transferMillis > 0) {
+            s.bytesPerSecond = smooth(s.bytesPerSecond, bytes * 1000.0 / transferMillis);
+        }
+    }
+
+    public synchronized void recordFailure(Mirror mirror) {
+        Stats s = stats.computeIfAbsent(mirror.getName(), name -> new Stats());
+        s.failures++;
+        s.lastFailure = System.currentTimeMillis();
+    }
+
+    /**
+     * Send a HEAD request for {@code officialUrl} to every mirror that has no latency sample yet, in the
+     * background. Returns at once: until a result comes in, unknown mirrors rank by the default score,
+     * which keeps the official source first.
+     */
+    public void probeUnknown(String officialUrl) {
+        for (Candidate candidate : candidates(officialUrl)) {
+            String name = candidate.getMirror().getName();
+            synchronized (this) {
+                Stats s = stats.get(name);
+                if (s != null && s.latencyMillis >= 0 || !probing.add(name)) {
+                    continue;
+                }
+            }
+            probes.execute(() -> {
+                try {
+                    probe(candidate);
+                    save();
+                } finally {
+                    synchronized (this) {
+                        probing.remove(name);
+                    }
+                }
+            });
+        }
+    }
+
+    private void probe(Candidate candidate) {
+        long start = System.nanoTime();
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(candidate.getUrl()).openConnection();
+            conn.setConnectTimeout(PROBE_TIMEOUT_MILLIS);
+            conn.setReadTimeout(PROBE_TIMEOUT_MILLIS);
+            conn.setRequestMethod("HEAD");
+            int code = conn.getResponseCode();
+            if (code >= 400) {
+                throw new IOException("Server returned HTTP " + code);
+            }
+            recordSuccess(candidate.getMirror(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 0, 0);
+        } catch (IOException e) {
+            recordFailure(candidate.getMirror());
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    public synchronized void save() {
+        try {
+            Path file = statsFile.toPath().toAbsolutePath();
+            Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.createDirectories(file.getParent());
+            Files.write(tmpFile, GSON.toJson(stats).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to save mirror statistics to " + statsFile, e);
+        }
+    }
+
+    private void load() {
+        if (!statsFile.isFile()) {
+            return;
+        }
+        try {
+            Map<String, Stats> saved = GSON.fromJson(new String(Files.readAllBytes(statsFile.toPath()), StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Stats>>() {
+                    }.getType());
+            if (saved != null) {
+                stats.putAll(saved);
+            }
+        } catch (IOException | JsonParseException e) {
+            LOG.log(Level.WARNING, "Failed to load mirror statistics from " + statsFile, e);
+        }
+    }
+
+    private boolean isHealthy(Mirror mirror, long now) {
+        Stats s = stats.get(mirror.getName());
+        return s == null || s.failures < UNHEALTHY_FAILURES || now - s.lastFailure > COOLDOWN_MILLIS;
+    }
+
+    /**
+     * Expected milliseconds to fetch a 1 MiB file from {@code mirror}.
+     */
+    private double score(Mirror mirror) {
+        Stats s = stats.get(mirror.getName());
+        double latency = s != null && s.latencyMillis >= 0 ? s.latencyMillis : DEFAULT_LATENCY_MILLIS;
+        double bytesPerSecond = s != null && s.bytesPerSecond > 0 ? s.bytesPerSecond : DEFAULT_BYTES_PER_SECOND;
+        return latency + REFERENCE_SIZE * 1000.0 / bytesPerSecond;
+    }
+
+    private static double smooth(double previous, double sample) {
+        return previous < 0 ? sample : previous + SMOOTHING * (sample - previous);
+    }
+
+    public static final class Candidate {
+        private final Mirror mirror;
+        private final String url;
+
+        Candidate(Mirror mirror, String url) {
+            this.mirror = mirror;
+            this.url = url;
+        }
+
+        public Mirror getMirror() {
+            return mirror;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+
+    private static final class Stats {
+        double latencyMillis = -1;
+        double bytesPerSecond = -1;
+        int failures;
+        long lastFailure;
+    }
+}
@@ -0,0 +1,84 @@
+package org.koishi.launcher.h2co3.core.utils.file;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import org.koishi.launcher.h2co3.core.utils.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Writes a file in the background, keeping only the latest content.
+ * <p>
+ * A submission schedules a write after the delay, and later submissions until then replace its content,
+ * so a burst of changes within the delay costs one write. Content is rendered and written on
+ * {@link Schedulers#io()}. Every write goes through {@link FileTools#saveSafely(Path, String)} and never
+ * leaves a partial file.
+ */
+public class DebouncedFileWriter {
+    public static final long DEFAULT_DELAY_MILLIS = 300;
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "DebouncedFileWriter Timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final long delayMillis;
+    private final AtomicReference<Supplier<String>> pending = new AtomicReference<>();
+    private final Object writeLock = new Object();
+
+    public DebouncedFileWriter(Path file) {
+        this(file, DEFAULT_DELAY_MILLIS);
+    }
+
+    public DebouncedFileWriter(Path file, long delayMillis) {
+        this.file = file;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * @param content renders the file content on the writer thread, it must not touch views
+     */
+    public void submit(Supplier<String> content) {
+        if (pending.getAndSet(content) == null) {
+            timer.schedule(() -> Schedulers.io().execute(this::writePending), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write {@code content} on the calling thread, superseding anything submitted before.
+     */
+    public void writeNow(String content) throws IOException {
+        synchronized (writeLock) {
+            pending.set(null);
+            write(content);
+        }
+    }
+
+    private void writePending() {
+        synchronized (writeLock) {
+            Supplier<String> content = pending.getAndSet(null);
+            if (content == null) {
+                return;
+            }
+            try {
+                write(content.get());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Failed to save " + file, e);
+            }
+        }
+    }
+
+    private void write(String content) throws IOException {
+        FileTools.makeDirectory(file.getParent().toFile());
+        FileTools.saveSafely(file, content);
+    }
+}
@@ -7,7 +7,6 @@ import android.net.Uri;
 import android.os.Environment;
 import android.provider.DocumentsContract;
 import android.provider.OpenableColumns;
-import android.system.Os;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -16,7 +15,6 @@ import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
 import org.apache.commons.compress.utils.IOUtils;
 import org.koishi.launcher.h2co3.core.utils.Lang;
-import org.koishi.launcher.h2co3.core.utils.Logging;
 import org.koishi.launcher.h2co3.core.utils.StringUtils;
 import org.koishi.launcher.h2co3.core.utils.function.ExceptionalConsumer;
 
@@ -49,7 +47,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
-import java.util.logging.Level;
 
 public final class FileTools {
 
@@ -1108,44 +1105,8 @@ public final class FileTools {
         return setExecutable(new File(file));
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     public static void uncompressTarXZ(final InputStream tarFileInputStream, final File dest) throws IOException {
-        dest.mkdirs();
-        TarArchiveInputStream tarIn = new TarArchiveInputStream(new XZCompressorInputStream(tarFileInputStream));
-        TarArchiveEntry tarEntry = tarIn.getNextTarEntry();
-        while (tarEntry != null) {
-            if (tarEntry.getSize() <= 20480) {
-                try {
-                    Thread.sleep(25);
-                } catch (InterruptedException ignored) {
-
-                }
-            }
-            File destPath = new File(dest, tarEntry.getName());
-            if (tarEntry.isSymbolicLink()) {
-                Objects.requireNonNull(destPath.getParentFile()).mkdirs();
-                try {
-                    Os.symlink(tarEntry.getLinkName().replace("..", dest.getAbsolutePath()), new File(dest, tarEntry.getName()).getAbsolutePath());
-                } catch (Throwable e) {
-                    Logging.LOG.log(Level.WARNING, e.getMessage());
-                }
-            } else if (tarEntry.isDirectory()) {
-                destPath.mkdirs();
-                destPath.setExecutable(true);
-            } else if (!destPath.exists() || destPath.length() != tarEntry.getSize()) {
-                Objects.requireNonNull(destPath.getParentFile()).mkdirs();
-                destPath.createNewFile();
-                FileOutputStream os = new FileOutputStream(destPath);
-                byte[] buffer = new byte[1024];
-                int byteCount;
-                while ((byteCount = tarIn.read(buffer)) != -1) {
-                    os.write(buffer, 0, byteCount);
-                }
-                os.close();
-            }
-            tarEntry = tarIn.getNextTarEntry();
-        }
-        tarIn.close();
+        new TarXZExtractor(null).extract(tarFileInputStream, dest, null);
     }
 
     public static void forceReleaseFile(File file) {
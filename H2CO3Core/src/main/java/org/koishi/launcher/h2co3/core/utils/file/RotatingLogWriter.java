@@ -0,0 +1,142 @@
+package org.koishi.launcher.h2co3.core.utils.file;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+
+/**
+ * Appends log text to a file through one buffered writer on a dedicated thread.
+ * <p>
+ * Callers only enqueue, the file stays open for the whole session and is flushed whenever the queue
+ * runs dry. The file is truncated when first written. Once it grows past {@code maxChars}, it is
+ * renamed to {@code <name>.1}, older backups shift up to {@code backups}, and a new file is started.
+ */
+public class RotatingLogWriter implements Closeable {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Compared by identity
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String CLOSE = new String("");
+
+    private final File file;
+    private final long maxChars;
+    private final int backups;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean closed;
+    private Writer writer;
+    private long written;
+
+    public RotatingLogWriter(File file, long maxChars, int backups) {
+        this.file = file;
+        this.maxChars = maxChars;
+        this.backups = backups;
+        Thread thread = new Thread(this::run, "Log Writer " + file.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue {@code text} for writing, waiting only if the writer has fallen far behind.
+     */
+    public void write(String text) {
+        if (closed) {
+            return;
+        }
+        try {
+            queue.put(text);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write everything queued so far, then release the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(CLOSE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                String text = queue.take();
+                while (text != null) {
+                    if (text == CLOSE) {
+                        closeWriter();
+                        return;
+                    }
+                    append(text);
+                    text = queue.poll();
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to write " + file + ", dropping further output", e);
+            closed = true;
+            queue.clear();
+            try {
+                closeWriter();
+            } catch (IOException ignored) {
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(String text) throws IOException {
+        if (writer == null) {
+            open();
+        } else if (written > 0 && written + text.length() > maxChars) {
+            closeWriter();
+            rotate();
+            open();
+        }
+        writer.write(text);
+        written += text.length();
+    }
+
+    private void open() throws IOException {
+        FileTools.makeDirectory(file.getAbsoluteFile().getParentFile());
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        written = 0;
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            Writer w = writer;
+            writer = null;
+            w.close();
+        }
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void rotate() {
+        if (backups <= 0) {
+            return;
+        }
+        new File(file.getPath() + "." + backups).delete();
+        for (int i = backups - 1; i >= 1; i--) {
+            new File(file.getPath() + "." + i).renameTo(new File(file.getPath() + "." + (i + 1)));
+        }
+        file.renameTo(new File(file.getPath() + ".1"));
+    }
+}
@@ -0,0 +1,199 @@
+package org.koishi.launcher.h2co3.core.utils.file;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import android.system.Os;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.utils.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+/**
+ * Streams a {@code .tar.xz} archive to disk.
+ * <p>
+ * Decompression runs on the calling thread, which is the bottleneck for XZ. With a writer pool,
+ * small entries are read into memory and written by the pool while the next entry is decompressed;
+ * the memory held by queued writes is bounded. Large entries are always streamed inline.
+ */
+public class TarXZExtractor {
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int SMALL_ENTRY_SIZE = 1024 * 1024;
+    private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+    private final ExecutorService writers;
+    private final Semaphore pendingBytes = new Semaphore(MAX_PENDING_BYTES);
+
+    /**
+     * @param writers pool for writing small entries, or null to write everything on the calling thread
+     */
+    public TarXZExtractor(ExecutorService writers) {
+        this.writers = writers;
+    }
+
+    /**
+     * @param progress receives the number of compressed bytes consumed from {@code in}, may be null
+     */
+    public void extract(InputStream in, File dest, LongConsumer progress) throws IOException {
+        extract(in, dest, progress, null);
+    }
+
+    /**
+     * @param filter selects the regular files to write by their path inside the archive, which are then
+     *               overwritten unconditionally; null writes every file missing or differing in size
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public void extract(InputStream in, File dest, LongConsumer progress, Predicate<String> filter) throws IOException {
+        dest.mkdirs();
+        InputStream source = new BufferedInputStream(progress != null ? new CountingInputStream(in, progress) : in, BUFFER_SIZE);
+        List<Future<?>> writes = new ArrayList<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(new XZCompressorInputStream(source))) {
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = tarIn.getNextTarEntry()) != null) {
+                String name = getPath(tarEntry);
+                File destPath = new File(dest, name);
+                if (tarEntry.isSymbolicLink()) {
+                    Objects.requireNonNull(destPath.getParentFile()).mkdirs();
+                    try {
+                        destPath.delete();
+                        Os.symlink(tarEntry.getLinkName().replace("..", dest.getAbsolutePath()), destPath.getAbsolutePath());
+                    } catch (Throwable e) {
+                        LOG.log(Level.WARNING, e.getMessage());
+                    }
+                } else if (tarEntry.isDirectory()) {
+                    destPath.mkdirs();
+                    destPath.setExecutable(true);
+                } else if (filter != null ? filter.test(name) : !destPath.exists() || destPath.length() != tarEntry.getSize()) {
+                    Objects.requireNonNull(destPath.getParentFile()).mkdirs();
+                    long size = tarEntry.getSize();
+                    if (writers != null && size >= 0 && size <= SMALL_ENTRY_SIZE) {
+                        byte[] data = new byte[(int) size];
+                        if (IOUtils.readFully(tarIn, data) != data.length) {
+                            throw new EOFException("Truncated entry " + tarEntry.getName());
+                        }
+                        acquire((int) size);
+                        writes.add(writers.submit(() -> {
+                            try {
+                                write(destPath, data);
+                            } finally {
+                                pendingBytes.release(data.length);
+                            }
+                            return null;
+                        }));
+                    } else {
+                        try (OutputStream os = new FileOutputStream(destPath)) {
+                            int byteCount;
+                            while ((byteCount = tarIn.read(buffer)) != -1) {
+                                os.write(buffer, 0, byteCount);
+                            }
+                        }
+                    }
+                }
+            }
+            await(writes);
+        } finally {
+            for (Future<?> write : writes) {
+                write.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return the path of {@code entry} relative to the archive root, without a leading {@code ./}
+     */
+    public static String getPath(TarArchiveEntry entry) {
+        String name = entry.getName();
+        while (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        return name;
+    }
+
+    private void acquire(int bytes) throws InterruptedIOException {
+        try {
+            pendingBytes.acquire(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Extraction interrupted");
+        }
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(data);
+        }
+    }
+
+    private static void await(List<Future<?>> writes) throws IOException {
+        for (Future<?> write : writes) {
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Extraction interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final LongConsumer progress;
+
+        CountingInputStream(InputStream in, LongConsumer progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                progress.accept(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                progress.accept(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                progress.accept(skipped);
+            }
+            return skipped;
+        }
+    }
+}
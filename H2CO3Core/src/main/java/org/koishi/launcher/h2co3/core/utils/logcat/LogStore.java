@@ -0,0 +1,341 @@
+package org.koishi.launcher.h2co3.core.utils.logcat;
+
+import android.util.Log;
+
+import org.koishi.launcher.h2co3.core.utils.LogRingBuffer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded store of logcat lines with level, tag and time kept in parallel columns.
+ * <p>
+ * Every line gets a sequence number; the store keeps the newest lines within a line and a character
+ * budget, so a line can be looked up by its sequence number until it is evicted. Searches scan the
+ * columns in chunks, holding the lock for one chunk at a time, and are meant to run off the UI thread.
+ * Error and fatal lines are also kept in a separate smaller ring, so a crash stays readable after
+ * the main ring has moved on.
+ */
+public class LogStore {
+    public static final int LEVEL_UNKNOWN = 0;
+    public static final long NO_TIME = -1;
+
+    private static final int SEARCH_CHUNK = 4096;
+    private static final int MAX_INTERNED_TAGS = 4096;
+    private static final int MAX_ERROR_LINES = 2000;
+    private static final int MAX_ERROR_CHARS = 512 * 1024;
+
+    private final int capacity;
+    private final long maxChars;
+    private final String[] lines;
+    private final byte[] levels;
+    private final String[] tags;
+    private final long[] times;
+    private final Map<String, String> internedTags = new HashMap<>();
+    private final LogRingBuffer errors = new LogRingBuffer(MAX_ERROR_LINES, MAX_ERROR_CHARS);
+    private long firstSeq;
+    private long nextSeq;
+    private long chars;
+
+    public LogStore(int capacity, long maxChars) {
+        this.capacity = capacity;
+        this.maxChars = maxChars;
+        this.lines = new String[capacity];
+        this.levels = new byte[capacity];
+        this.tags = new String[capacity];
+        this.times = new long[capacity];
+    }
+
+    /**
+     * @return the sequence number of {@code line}
+     */
+    public synchronized long add(String line) {
+        while (nextSeq > firstSeq && (nextSeq - firstSeq == capacity || chars + line.length() > maxChars)) {
+            evictOldest();
+        }
+        int index = (int) (nextSeq % capacity);
+        Entry entry = parse(line);
+        lines[index] = line;
+        levels[index] = (byte) entry.level;
+        tags[index] = intern(entry.tag);
+        times[index] = entry.time;
+        chars += line.length();
+        if (entry.level >= Log.ERROR) {
+            errors.add(line);
+        }
+        return nextSeq++;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(lines, null);
+        Arrays.fill(tags, null);
+        internedTags.clear();
+        errors.clear();
+        firstSeq = nextSeq;
+        chars = 0;
+    }
+
+    /**
+     * @return the sequence number of the oldest line still held
+     */
+    public synchronized long getFirstSeq() {
+        return firstSeq;
+    }
+
+    /**
+     * @return the sequence number the next line will get
+     */
+    public synchronized long getNextSeq() {
+        return nextSeq;
+    }
+
+    /**
+     * @return the line of {@code seq}, or null if it has been evicted
+     */
+    public synchronized String get(long seq) {
+        if (seq < firstSeq || seq >= nextSeq) {
+            return null;
+        }
+        return lines[(int) (seq % capacity)];
+    }
+
+    /**
+     * @return the level of {@code seq} as one of the {@link Log} priorities, or {@link #LEVEL_UNKNOWN}
+     */
+    public synchronized int getLevel(long seq) {
+        if (seq < firstSeq || seq >= nextSeq) {
+            return LEVEL_UNKNOWN;
+        }
+        return levels[(int) (seq % capacity)];
+    }
+
+    /**
+     * @return the recent error and fatal lines, including those evicted from the main ring
+     */
+    public String getErrors() {
+        return errors.join("\n");
+    }
+
+    /**
+     * @return the sequence numbers of the lines in [{@code fromSeq}, {@code toSeq}) matching {@code query},
+     * in order, or null if {@code cancelled} was set before the search finished
+     */
+    public long[] search(Query query, long fromSeq, long toSeq, AtomicBoolean cancelled) {
+        long[] result = new long[64];
+        int count = 0;
+        long seq = fromSeq;
+        while (seq < toSeq) {
+            if (cancelled != null && cancelled.get()) {
+                return null;
+            }
+            synchronized (this) {
+                seq = Math.max(seq, firstSeq);
+                long end = Math.min(Math.min(toSeq, nextSeq), seq + SEARCH_CHUNK);
+                for (; seq < end; seq++) {
+                    int index = (int) (seq % capacity);
+                    if (query.matches(lines[index], levels[index], tags[index], times[index])) {
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, count * 2);
+                        }
+                        result[count++] = seq;
+                    }
+                }
+                if (end >= nextSeq) {
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void evictOldest() {
+        int index = (int) (firstSeq % capacity);
+        chars -= lines[index].length();
+        lines[index] = null;
+        tags[index] = null;
+        firstSeq++;
+    }
+
+    private String intern(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String interned = internedTags.get(tag);
+        if (interned != null) {
+            return interned;
+        }
+        if (internedTags.size() < MAX_INTERNED_TAGS) {
+            internedTags.put(tag, tag);
+        }
+        return tag;
+    }
+
+    /**
+     * Parse the {@code threadtime} format, {@code MM-DD HH:MM:SS.mmm PID TID L TAG: message},
+     * falling back to the {@code brief} format, {@code L/TAG(PID): message}.
+     */
+    static Entry parse(String line) {
+        Entry entry = new Entry();
+        long time = parseTime(line);
+        if (time != NO_TIME) {
+            entry.time = time;
+            int i = 18;
+            i = skipSpaces(line, i);
+            i = skipDigits(line, i);
+            i = skipSpaces(line, i);
+            i = skipDigits(line, i);
+            i = skipSpaces(line, i);
+            if (i + 1 < line.length() && line.charAt(i + 1) == ' ') {
+                entry.level = levelOf(line.charAt(i));
+                int tagEnd = line.indexOf(": ", i + 2);
+                if (tagEnd > 0) {
+                    entry.tag = line.substring(i + 2, tagEnd).trim();
+                }
+            }
+        } else if (line.length() > 2 && line.charAt(1) == '/') {
+            entry.level = levelOf(line.charAt(0));
+            int tagEnd = line.indexOf('(', 2);
+            if (tagEnd > 0) {
+                entry.tag = line.substring(2, tagEnd).trim();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return {@code MM-DD HH:MM:SS.mmm} at the start of {@code text} as a number that orders like the
+     * time within a year, or {@link #NO_TIME}
+     */
+    public static long parseTime(String text) {
+        if (text.length() < 18 || text.charAt(2) != '-' || text.charAt(5) != ' ' || text.charAt(8) != ':'
+                || text.charAt(11) != ':' || text.charAt(14) != '.') {
+            return NO_TIME;
+        }
+        int[] fields = {0, 3, 6, 9, 12, 15};
+        long time = 0;
+        for (int f = 0; f < fields.length; f++) {
+            int start = fields[f];
+            int length = f == fields.length - 1 ? 3 : 2;
+            int value = 0;
+            for (int i = start; i < start + length; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return NO_TIME;
+                }
+                value = value * 10 + (c - '0');
+            }
+            time = time * (f == fields.length - 1 ? 1000 : 100) + value;
+        }
+        return time;
+    }
+
+    private static int levelOf(char c) {
+        return switch (c) {
+            case 'V' -> Log.VERBOSE;
+            case 'D' -> Log.DEBUG;
+            case 'I' -> Log.INFO;
+            case 'W' -> Log.WARN;
+            case 'E' -> Log.ERROR;
+            case 'F', 'A' -> Log.ASSERT;
+            default -> LEVEL_UNKNOWN;
+        };
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && s.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipDigits(String s, int i) {
+        while (i < s.length() && Character.isDigit(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static class Entry {
+        int level = LEVEL_UNKNOWN;
+        String tag;
+        long time = NO_TIME;
+    }
+
+    /**
+     * Which lines a search returns. Unset criteria match every line.
+     */
+    public static class Query {
+        private int minLevel = LEVEL_UNKNOWN;
+        private String tag;
+        private Pattern pattern;
+        private String text;
+        private long fromTime = NO_TIME;
+        private long toTime = NO_TIME;
+
+        public Query setMinLevel(int minLevel) {
+            this.minLevel = minLevel;
+            return this;
+        }
+
+        public Query setTag(String tag) {
+            this.tag = tag;
+            return this;
+        }
+
+        /**
+         * Match lines containing {@code text} literally.
+         */
+        public Query setText(String text) {
+            this.text = text;
+            this.pattern = null;
+            return this;
+        }
+
+        /**
+         * Match lines in which {@code pattern} is found.
+         */
+        public Query setPattern(Pattern pattern) {
+            this.pattern = pattern;
+            this.text = null;
+            return this;
+        }
+
+        /**
+         * @param fromTime inclusive, in the form of {@link #parseTime}, or {@link #NO_TIME}
+         * @param toTime   exclusive, in the form of {@link #parseTime}, or {@link #NO_TIME}
+         */
+        public Query setTimeRange(long fromTime, long toTime) {
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return minLevel == LEVEL_UNKNOWN && tag == null && pattern == null && text == null
+                    && fromTime == NO_TIME && toTime == NO_TIME;
+        }
+
+        boolean matches(String line, int level, String lineTag, long time) {
+            // Cheap columns first, the text last
+            if (minLevel != LEVEL_UNKNOWN && level < minLevel) {
+                return false;
+            }
+            if (tag != null && !tag.equals(lineTag)) {
+                return false;
+            }
+            if (fromTime != NO_TIME && (time == NO_TIME || time < fromTime)) {
+                return false;
+            }
+            if (toTime != NO_TIME && (time == NO_TIME || time >= toTime)) {
+                return false;
+            }
+            if (text != null && !line.contains(text)) {
+                return false;
+            }
+            return pattern == null || pattern.matcher(line).find();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.koishi.launcher.h2co3.core.utils;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Times the config lookups of one launch-argument assembly, reading every key from the file like
+ * {@code H2CO3Tools.getValue} did before {@link ConfigStore} and through a {@link ConfigStore}, and the same for
+ * a burst of settings changes.
+ * <p>
+ * Not a test, run {@link #main} from the unit test source set; it needs the {@code org.json} test dependency and
+ * the default-returning Android stubs the module's unit tests are set up with. Arguments: lookups per launch
+ * (default 33, what getMcArgs and getJVMArguments resolve), keys in the file (default 120) and launches
+ * (default 200).
+ */
+public class ConfigStoreBenchmark {
+
+    private static final int WRITES = 50;
+
+    public static void main(String[] args) throws Exception {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 33;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+        int launches = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        Path dir = Files.createTempDirectory("config-benchmark");
+        Path file = dir.resolve("h2co3_config.json");
+        JSONObject content = new JSONObject();
+        for (int i = 0; i < keys; i++) {
+            content.put("key_" + i, i % 3 == 0 ? "value of setting " + i : i % 3 == 1 ? (Object) (i * 7) : (Object) (i % 2 == 0));
+        }
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        // Warm up both paths as much as they are measured
+        readEveryTime(file, lookups, launches);
+        readFromStore(copies(file, "warmup", launches), lookups);
+
+        Path[] measured = copies(file, "launch", launches);
+        long start = System.nanoTime();
+        readEveryTime(file, lookups, launches);
+        long before = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        readFromStore(measured, lookups);
+        long after = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            writeEveryTime(file, "written_" + i, i);
+        }
+        long writesBefore = System.nanoTime() - start;
+
+        ConfigStore store = ConfigStore.of(file.toString());
+        start = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            store.set("stored_" + i, i);
+        }
+        long setsAfter = System.nanoTime() - start;
+        start = System.nanoTime();
+        ConfigStore.flushAll();
+        long flushAfter = System.nanoTime() - start;
+
+        System.out.printf(Locale.ROOT, "launch with %d lookups in %d keys: %.3f ms before, %.4f ms after%n",
+                lookups, keys, before / 1e6 / launches, after / 1e6 / launches);
+        System.out.printf(Locale.ROOT, "%d changes: %.2f ms before, %.3f ms on the caller + %.2f ms for the one write after%n",
+                WRITES, writesBefore / 1e6, setsAfter / 1e6, flushAfter / 1e6);
+    }
+
+    private static void readEveryTime(Path file, int lookups, int launches) throws IOException, JSONException {
+        for (int launch = 0; launch < launches; launch++) {
+            for (int i = 0; i < lookups; i++) {
+                JSONObject json = new JSONObject(String.join("", Files.readAllLines(file)));
+                json.opt("key_" + i);
+            }
+        }
+    }
+
+    /**
+     * A new file, and so a new store, per launch, so the one parse of a store is part of what is measured.
+     */
+    private static void readFromStore(Path[] files, int lookups) {
+        for (Path file : files) {
+            ConfigStore store = ConfigStore.of(file.toString());
+            for (int i = 0; i < lookups; i++) {
+                store.get("key_" + i, null, Object.class);
+            }
+        }
+    }
+
+    private static Path[] copies(Path file, String prefix, int count) throws IOException {
+        Path[] copies = new Path[count];
+        for (int i = 0; i < count; i++) {
+            copies[i] = file.resolveSibling(prefix + "_" + i + ".json");
+            Files.copy(file, copies[i]);
+        }
+        return copies;
+    }
+
+    private static void writeEveryTime(Path file, String key, int value) throws IOException, JSONException {
+        JSONObject json = new JSONObject(String.join("", Files.readAllLines(file)));
+        json.put(key, value);
+        Files.write(file, json.toString().getBytes());
+    }
+}
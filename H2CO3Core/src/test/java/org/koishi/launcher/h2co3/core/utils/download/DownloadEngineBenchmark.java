@@ -0,0 +1,223 @@
+package org.koishi.launcher.h2co3.core.utils.download;
+
+import static org.koishi.launcher.h2co3.core.utils.Logging.LOG;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.koishi.launcher.h2co3.core.utils.H2CO3DownloadUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Downloads a batch of library-sized files from a local HTTP server, with the loop DownloadDialog ran before
+ * {@link DownloadEngine} (1 KB reads, a progress post per read, no checksum) and with the engine, both on the
+ * same number of threads.
+ * <p>
+ * The second round drops every file's connection half way through its first request. The old loop keeps the
+ * truncated file, the engine resumes it with a Range request; the bytes served show what each one fetched again.
+ * <p>
+ * Not a test, run {@link #main} from the unit test source set. Arguments: file count (default 200), file size
+ * in KB (default 256) and threads (default 4). Each round runs once for warm-up before it is reported.
+ */
+public class DownloadEngineBenchmark {
+
+    private static final int OLD_BUFFER_SIZE = 1024;
+
+    private final byte[][] files;
+    private final Set<String> cut = ConcurrentHashMap.newKeySet();
+    private final AtomicLong served = new AtomicLong();
+    private volatile boolean flaky;
+
+    private DownloadEngineBenchmark(byte[][] files) {
+        this.files = files;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int size = (args.length > 1 ? Integer.parseInt(args[1]) : 256) * 1024;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        // Every cut connection is logged as a failed attempt
+        LOG.setLevel(Level.SEVERE);
+
+        Random random = new Random(42);
+        byte[][] files = new byte[count][size];
+        String[] sha1 = new String[count];
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(files[i]);
+            sha1[i] = hex(digest.digest(files[i]));
+        }
+
+        DownloadEngineBenchmark benchmark = new DownloadEngineBenchmark(files);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", benchmark::serve);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(threads * 2);
+        server.setExecutor(serverThreads);
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        File dir = Files.createTempDirectory("download-benchmark").toFile();
+        long total = (long) count * size;
+
+        try {
+            for (boolean flaky : new boolean[]{false, true}) {
+                benchmark.flaky = flaky;
+                for (int run = 0; run < 2; run++) {
+                    benchmark.cut.clear();
+                    benchmark.served.set(0);
+                    long start = System.nanoTime();
+                    int corrupt = benchmark.downloadOld(base, new File(dir, "old" + run + flaky), threads, sha1);
+                    long oldNanos = System.nanoTime() - start;
+                    long oldServed = benchmark.served.get();
+
+                    benchmark.cut.clear();
+                    benchmark.served.set(0);
+                    List<DownloadEntry> entries = new ArrayList<>();
+                    File target = new File(dir, "engine" + run + flaky);
+                    for (int i = 0; i < count; i++) {
+                        entries.add(new DownloadEntry(base + i, new File(target, i + ".jar"), sha1[i], size));
+                    }
+                    start = System.nanoTime();
+                    int failed = new DownloadEngine(threads).download(entries, (downloaded, all, finished, totalFiles) -> {
+                    }).size();
+                    long engineNanos = System.nanoTime() - start;
+                    long engineServed = benchmark.served.get();
+
+                    if (run > 0) {
+                        System.out.printf(Locale.ROOT, "%s, %d x %d KB on %d threads:%n", flaky ? "first request of each file cut" : "clean",
+                                count, size / 1024, threads);
+                        System.out.printf(Locale.ROOT, "  before: %.0f ms (%.1f MB/s), %.1f MB served, %d corrupt files%n",
+                                oldNanos / 1e6, total / 1e6 / (oldNanos / 1e9), oldServed / 1e6, corrupt);
+                        System.out.printf(Locale.ROOT, "  engine: %.0f ms (%.1f MB/s), %.1f MB served, %d failed files%n",
+                                engineNanos / 1e6, total / 1e6 / (engineNanos / 1e9), engineServed / 1e6, failed);
+                    }
+                }
+            }
+        } finally {
+            server.stop(0);
+            serverThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Serves file {@code /<index>}, from the offset of a {@code bytes=<offset>-} Range header when there is one.
+     */
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(1);
+            byte[] data = files[Integer.parseInt(path)];
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            int offset = 0;
+            if (range != null && range.startsWith("bytes=") && range.endsWith("-")) {
+                offset = Integer.parseInt(range.substring(6, range.length() - 1));
+            }
+            if (offset >= data.length) {
+                exchange.sendResponseHeaders(416, -1);
+                return;
+            }
+            int length = data.length - offset;
+            if (offset > 0) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + offset + "-" + (data.length - 1) + "/" + data.length);
+            }
+            exchange.sendResponseHeaders(offset > 0 ? 206 : 200, length);
+            OutputStream body = exchange.getResponseBody();
+            if (flaky && cut.add(path)) {
+                // Send half and drop the connection, as a stalled mobile connection would
+                int half = length / 2;
+                body.write(data, offset, half);
+                body.flush();
+                served.addAndGet(half);
+                throw new IOException("cut");
+            }
+            body.write(data, offset, length);
+            served.addAndGet(length);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * The DownloadTask of DownloadDialog before the engine, with the progress posts going to a single thread
+     * instead of the UI thread.
+     *
+     * @return how many files do not match their SHA-1 afterwards
+     */
+    private int downloadOld(String base, File dir, int threads, String[] sha1) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        AtomicInteger posted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                File file = new File(dir, index + ".jar");
+                file.getParentFile().mkdirs();
+                HttpURLConnection connection = (HttpURLConnection) new URL(base + index).openConnection();
+                connection.connect();
+                try (InputStream input = new BufferedInputStream(connection.getInputStream());
+                     OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+                    byte[] data = new byte[OLD_BUFFER_SIZE];
+                    int count;
+                    int downloaded = 0;
+                    while ((count = input.read(data)) != -1) {
+                        downloaded += count;
+                        output.write(data, 0, count);
+                        int progress = (int) (downloaded * 100L / files[index].length);
+                        ui.execute(() -> posted.set(progress));
+                    }
+                } catch (IOException ignored) {
+                    // The old task logged and moved on, leaving what it had written
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        ui.shutdown();
+        ui.awaitTermination(1, TimeUnit.MINUTES);
+
+        int corrupt = 0;
+        for (int i = 0; i < files.length; i++) {
+            File file = new File(dir, i + ".jar");
+            if (!file.isFile() || !sha1[i].equals(H2CO3DownloadUtils.sha1(file))) {
+                corrupt++;
+            }
+        }
+        return corrupt;
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,191 @@
+package org.koishi.launcher.h2co3.core.utils.file;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Installs a generated JRE, a universal archive of many small files and an architecture archive of native
+ * libraries, with the loop FileTools.uncompressTarXZ ran before {@link TarXZExtractor} and with the extractor
+ * the way RuntimeUtils.installJava uses it.
+ * <p>
+ * The old loop slept 25 ms before every entry of up to 20 KB; that time is reported from the entry count
+ * instead of being slept. Not a test, run {@link #main} from the unit test source set. Arguments: small files
+ * in the universal archive (default 1500) and writer threads (default 4). Each way runs once for warm-up
+ * before it is reported.
+ */
+public class TarXZExtractorBenchmark {
+
+    private static final int OLD_BUFFER_SIZE = 1024;
+    private static final int OLD_SLEEP_SIZE = 20480;
+    private static final long OLD_SLEEP_MILLIS = 25;
+    private static final String[] WORDS = {"java/lang/", "Object", "String", "<init>", "()V", "Code", "LineNumberTable",
+            "invokevirtual", "getstatic", "java/util/", "HashMap", "StackMapTable", "SourceFile", "this", "value"};
+
+    public static void main(String[] args) throws Exception {
+        int smallFiles = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        Random random = new Random(42);
+        Set<String> archPaths = new HashSet<>();
+        ByteArrayOutputStream universal = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new XZCompressorOutputStream(universal))) {
+            for (int i = 0; i < smallFiles; i++) {
+                add(tar, "./lib/classes/p" + i / 100 + "/C" + i + ".class", text(random, 1024 + random.nextInt(19 * 1024)));
+            }
+            for (int i = 0; i < 3; i++) {
+                add(tar, "./lib/modules" + i, text(random, 8 * 1024 * 1024));
+            }
+            // Also in the architecture archive, which wins
+            add(tar, "./lib/jvm.cfg", text(random, 128));
+        }
+        ByteArrayOutputStream arch = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new XZCompressorOutputStream(arch))) {
+            for (int i = 0; i < 60; i++) {
+                String path = "lib/libnative" + i + ".so";
+                archPaths.add(path);
+                add(tar, "./" + path, binary(random, 32 * 1024 + random.nextInt(512 * 1024)));
+            }
+            archPaths.add("lib/server/libjvm.so");
+            add(tar, "./lib/server/libjvm.so", binary(random, 12 * 1024 * 1024));
+            archPaths.add("lib/jvm.cfg");
+            add(tar, "./lib/jvm.cfg", text(random, 128));
+        }
+        byte[] universalBytes = universal.toByteArray();
+        byte[] archBytes = arch.toByteArray();
+
+        File dir = Files.createTempDirectory("tarxz-benchmark").toFile();
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        ExecutorService universalReader = Executors.newSingleThreadExecutor();
+        try {
+            for (int run = 0; run < 2; run++) {
+                File target = new File(dir, "old");
+                FileUtils.deleteDirectory(target);
+                long start = System.nanoTime();
+                int sleeps = extractOld(new ByteArrayInputStream(universalBytes), target)
+                        + extractOld(new ByteArrayInputStream(archBytes), target);
+                long oldNanos = System.nanoTime() - start;
+
+                target = new File(dir, "sequential");
+                FileUtils.deleteDirectory(target);
+                TarXZExtractor extractor = new TarXZExtractor(writers);
+                start = System.nanoTime();
+                extractor.extract(new ByteArrayInputStream(universalBytes), target, null, null);
+                extractor.extract(new ByteArrayInputStream(archBytes), target, null, path -> true);
+                long sequentialNanos = System.nanoTime() - start;
+
+                File concurrentTarget = new File(dir, "concurrent");
+                FileUtils.deleteDirectory(concurrentTarget);
+                start = System.nanoTime();
+                Future<?> universalTask = universalReader.submit(() -> {
+                    extractor.extract(new ByteArrayInputStream(universalBytes), concurrentTarget, null, path -> !archPaths.contains(path));
+                    return null;
+                });
+                extractor.extract(new ByteArrayInputStream(archBytes), concurrentTarget, null, path -> true);
+                universalTask.get();
+                long concurrentNanos = System.nanoTime() - start;
+
+                if (run > 0) {
+                    System.out.printf(Locale.ROOT, "universal %.1f MB xz, architecture %.1f MB xz, %d writer threads:%n",
+                            universalBytes.length / 1e6, archBytes.length / 1e6, threads);
+                    System.out.printf(Locale.ROOT, "  before: %.0f ms + %d x %d ms of sleeps = %.1f s%n", oldNanos / 1e6,
+                            sleeps, OLD_SLEEP_MILLIS, (oldNanos / 1e6 + sleeps * OLD_SLEEP_MILLIS) / 1e3);
+                    System.out.printf(Locale.ROOT, "  extractor, one archive after the other: %.0f ms%n", sequentialNanos / 1e6);
+                    System.out.printf(Locale.ROOT, "  extractor, both archives side by side: %.0f ms%n", concurrentNanos / 1e6);
+                }
+            }
+        } finally {
+            writers.shutdown();
+            universalReader.shutdown();
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    /**
+     * FileTools.uncompressTarXZ before the extractor, without its sleeps and symlinks.
+     *
+     * @return how many 25 ms sleeps it would have taken
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private static int extractOld(InputStream in, File dest) throws IOException {
+        dest.mkdirs();
+        int sleeps = 0;
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(new XZCompressorInputStream(in))) {
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = tarIn.getNextTarEntry()) != null) {
+                if (tarEntry.getSize() <= OLD_SLEEP_SIZE) {
+                    sleeps++;
+                }
+                File destPath = new File(dest, tarEntry.getName());
+                if (tarEntry.isDirectory()) {
+                    destPath.mkdirs();
+                } else if (!destPath.exists() || destPath.length() != tarEntry.getSize()) {
+                    destPath.getParentFile().mkdirs();
+                    try (FileOutputStream os = new FileOutputStream(destPath)) {
+                        byte[] buffer = new byte[OLD_BUFFER_SIZE];
+                        int byteCount;
+                        while ((byteCount = tarIn.read(buffer)) != -1) {
+                            os.write(buffer, 0, byteCount);
+                        }
+                    }
+                }
+            }
+        }
+        return sleeps;
+    }
+
+    private static void add(TarArchiveOutputStream tar, String name, byte[] data) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(data.length);
+        tar.putArchiveEntry(entry);
+        tar.write(data);
+        tar.closeArchiveEntry();
+    }
+
+    /**
+     * Class-file-like data, compresses about as well as the classes of a JRE.
+     */
+    private static byte[] text(Random random, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 32);
+        while (out.size() < size) {
+            byte[] word = WORDS[random.nextInt(WORDS.length)].getBytes();
+            out.write(word, 0, word.length);
+            out.write(random.nextInt(256));
+        }
+        byte[] data = out.toByteArray();
+        return data.length == size ? data : Arrays.copyOf(data, size);
+    }
+
+    /**
+     * Native-library-like data: short runs of random bytes between repeated text.
+     */
+    private static byte[] binary(Random random, int size) {
+        byte[] data = text(random, size);
+        for (int i = 0; i < size; i += 64) {
+            int run = Math.min(8, size - i);
+            for (int j = 0; j < run; j++) {
+                data[i + j] = (byte) random.nextInt(256);
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,59 @@
+package org.koishi.launcher.h2co3.core.utils.logcat;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Times adding a long session of logcat lines to a {@link LogStore} and searching it the way the log screen does.
+ * <p>
+ * Not a test, run {@link #main} from the unit test source set. Arguments: line count (default 300000)
+ * and repetitions (default 5); the first repetition warms up and is not reported.
+ */
+public class LogStoreBenchmark {
+
+    private static final String[] TAGS = {"ActivityManager", "H2CO3", "LWJGL", "OpenGLRenderer", "jvm"};
+    private static final char[] LEVELS = {'V', 'D', 'I', 'I', 'I', 'W', 'E'};
+
+    public static void main(String[] args) {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String[] lines = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lines[i] = String.format(Locale.ROOT, "10-17 12:%02d:%02d.%03d  4242  4243 %c %s: message %d of the session, value=%d",
+                    i / 60_000 % 60, i / 1000 % 60, i % 1000, LEVELS[i % LEVELS.length], TAGS[i % TAGS.length], i, i * 31 % 977);
+        }
+
+        for (int r = 0; r < repetitions; r++) {
+            // Half the capacity, so the second half of the lines evicts the first
+            LogStore store = new LogStore(lineCount / 2, Long.MAX_VALUE);
+            long start = System.nanoTime();
+            for (String line : lines) {
+                store.add(line);
+            }
+            long addNanos = System.nanoTime() - start;
+
+            long first = store.getFirstSeq();
+            long next = store.getNextSeq();
+            start = System.nanoTime();
+            int errorMatches = store.search(new LogStore.Query().setMinLevel(Log.ERROR), first, next, new AtomicBoolean()).length;
+            long levelNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int regexMatches = store.search(new LogStore.Query().setPattern(Pattern.compile("value=9\\d\\d")), first, next, new AtomicBoolean()).length;
+            long regexNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int errorChars = store.getErrors().length();
+            long errorsNanos = System.nanoTime() - start;
+
+            if (r > 0) {
+                System.out.printf(Locale.ROOT, "add %d lines: %.1f ms (%.0f ns/line), level filter: %.1f ms (%d), regex: %.1f ms (%d), errors: %.2f ms (%d chars)%n",
+                        lineCount, addNanos / 1e6, (double) addNanos / lineCount, levelNanos / 1e6, errorMatches,
+                        regexNanos / 1e6, regexMatches, errorsNanos / 1e6, errorChars);
+            }
+        }
+    }
+}
@@ -18,7 +18,9 @@ import android.widget.RelativeLayout;
 
 import androidx.annotation.NonNull;
 
+import org.koishi.launcher.h2co3.core.H2CO3Tools;
 import org.koishi.launcher.h2co3.launcher.utils.H2CO3LauncherBridge;
+import org.koishi.launcher.h2co3.launcher.utils.InputEventQueue;
 import org.koishi.launcher.h2co3.launcher.utils.H2CO3LauncherBridgeCallBack;
 import org.koishi.launcher.h2co3.resources.component.activity.H2CO3Activity;
 
@@ -87,6 +89,19 @@ public abstract class H2CO3LauncherActivity extends H2CO3Activity implements Tex
 
     public abstract void onClick(View view);
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // The game process may be killed from here on without another callback
+        H2CO3Tools.flushConfig();
+    }
+
+    @Override
+    protected void onDestroy() {
+        H2CO3Tools.flushConfig();
+        super.onDestroy();
+    }
+
     @Override
     protected void onPostResume() {
         super.onPostResume();
@@ -128,7 +143,7 @@ public abstract class H2CO3LauncherActivity extends H2CO3Activity implements Tex
     }
 
     public int[] getPointer() {
-        return H2CO3LauncherBridge.getPointer();
+        return InputEventQueue.get().getPointer();
     }
 
     public void setKey(int keyCode, int keyChar, boolean isPressed) {
@@ -7,6 +7,7 @@ import static org.koishi.launcher.h2co3.core.H2CO3Tools.setH2CO3Value;
 
 import org.koishi.launcher.h2co3.core.H2CO3Tools;
 
+import java.io.File;
 import java.util.HashMap;
 
 public class H2CO3GameHelper extends HashMap<String, String> {
@@ -110,8 +111,19 @@ public class H2CO3GameHelper extends HashMap<String, String> {
 
     public static void setDir(String dir) {
         H2CO3GameHelper.setGameDirectory(dir);
-        H2CO3GameHelper.setGameAssets(dir + "/assets/virtual/legacy");
-        H2CO3GameHelper.setGameAssetsRoot(dir + "/assets");
+        H2CO3GameHelper.setGameAssetsFor(dir);
         H2CO3GameHelper.setGameCurrentVersion(dir + "/versions");
     }
+
+    /**
+     * Use the assets of {@code gameDir} if it has its own, otherwise the shared asset store,
+     * so game directories do not each need a full copy of the objects.
+     */
+    public static void setGameAssetsFor(String gameDir) {
+        boolean ownAssets = new File(gameDir, "assets/objects").isDirectory()
+                || !new File(H2CO3Tools.SHARED_ASSETS_DIR, "objects").isDirectory();
+        String assetsRoot = ownAssets ? gameDir + "/assets" : H2CO3Tools.SHARED_ASSETS_DIR;
+        setGameAssets(assetsRoot + "/virtual/legacy");
+        setGameAssetsRoot(assetsRoot);
+    }
 }
\ No newline at end of file
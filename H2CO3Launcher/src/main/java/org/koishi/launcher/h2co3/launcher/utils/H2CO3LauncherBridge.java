@@ -20,6 +20,7 @@ import android.content.Intent;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.SurfaceTexture;
 import android.net.Uri;
 import android.os.Handler;
@@ -30,12 +31,12 @@ import androidx.annotation.NonNull;
 import androidx.core.content.FileProvider;
 
 import org.koishi.launcher.h2co3.core.H2CO3Tools;
+import org.koishi.launcher.h2co3.core.utils.LogRingBuffer;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -54,8 +55,20 @@ public class H2CO3LauncherBridge implements Serializable {
     public native int dlopen(String name);
     public native void setEventPipe();
     public native void nativeMoveWindow(int x, int y);
-    public native int[] renderAWTScreenFrame();
+    /**
+     * Copy the pixels of the AWT screen that changed since the last call into {@code frame}.
+     *
+     * @param frame     a direct buffer of {@code width * height} pixels in the layout of an ARGB_8888 bitmap,
+     *                  holding the last frame
+     * @param dirtyRect receives left, top, right and bottom of the changed pixels
+     * @return 1 if pixels changed, 0 if the screen is unchanged, -1 if there is no screen of this size
+     */
+    public native int renderAWTScreenFrame(ByteBuffer frame, int width, int height, int[] dirtyRect);
     public static native void pushEvent(long time, int type, int p1, int p2);
+    /**
+     * Queue {@code count} events with one JNI call; {@code params} holds type, p1 and p2 of each event.
+     */
+    public static native void pushEvents(long[] times, int[] params, int count);
     public static native int[] getPointer();
     public native void setLdLibraryPath(String path);
     public native void h2co3LauncherSetNativeWindow(Surface surface);
@@ -67,6 +80,7 @@ public class H2CO3LauncherBridge implements Serializable {
 
     public static final int DEFAULT_WIDTH = 1280;
     public static final int DEFAULT_HEIGHT = 720;
+    private static final long AWT_IDLE_FRAME_MILLIS = 16;
     public static final int KeyPress = 2;
     public static final int KeyRelease = 3;
     public static final int ButtonPress = 4;
@@ -91,6 +105,8 @@ public class H2CO3LauncherBridge implements Serializable {
     private Thread thread;
     private ExecutorService mExecutor;
     private SurfaceTexture surfaceTexture;
+    private int awtScreenWidth = DEFAULT_WIDTH;
+    private int awtScreenHeight = DEFAULT_HEIGHT;
 
     public void setThread(Thread thread) {
         this.thread = thread;
@@ -150,6 +166,10 @@ public class H2CO3LauncherBridge implements Serializable {
     }
 
     public void onExit(int code) throws IOException {
+        // Also called by the exit trap, which ends the process before jliLaunch returns
+        LaunchMode.onLaunchExited(code);
+        // so the config is written now, a delayed write would never run
+        H2CO3Tools.flushConfig();
         if (callback != null) {
             callback.onLog("OpenJDK exited with code : " + code);
             callback.onExit(code);
@@ -181,19 +201,27 @@ public class H2CO3LauncherBridge implements Serializable {
     }
 
     public static void pushEventMouseButton(int button, boolean press) {
-        pushEvent(System.nanoTime(), press ? ButtonPress : ButtonRelease, button, 0);
+        InputEventQueue.get().push(System.nanoTime(), press ? ButtonPress : ButtonRelease, button, 0);
     }
 
     public static void pushEventPointer(int x, int y) {
-        pushEvent(System.nanoTime(), MotionNotify, x, y);
+        InputEventQueue.get().push(System.nanoTime(), MotionNotify, x, y);
     }
 
     public static void pushEventKey(int keyCode, int keyChar, boolean press) {
-        pushEvent(System.nanoTime(), press ? KeyPress : KeyRelease, keyCode, keyChar);
+        InputEventQueue.get().push(System.nanoTime(), press ? KeyPress : KeyRelease, keyCode, keyChar);
     }
 
     public void pushEventWindow(int width, int height) {
-        pushEvent(System.nanoTime(), ConfigureNotify, width, height);
+        InputEventQueue.get().push(System.nanoTime(), ConfigureNotify, width, height);
+    }
+
+    /**
+     * Set the size of the AWT screen, as passed to {@code cacio.managed.screensize}.
+     */
+    public void setAWTScreenSize(int width, int height) {
+        this.awtScreenWidth = width;
+        this.awtScreenHeight = height;
     }
 
     public SurfaceTexture getSurfaceTexture() {
@@ -212,20 +240,28 @@ public class H2CO3LauncherBridge implements Serializable {
             receiveLog("start Android AWT Renderer thread\n");
             mExecutor = Executors.newSingleThreadExecutor();
             mExecutor.execute(() -> {
-                Canvas canvas;
-                Bitmap rgbArrayBitmap = Bitmap.createBitmap(DEFAULT_WIDTH, DEFAULT_HEIGHT, Bitmap.Config.ARGB_8888);
+                int width = awtScreenWidth;
+                int height = awtScreenHeight;
+                Bitmap frameBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                ByteBuffer frameBuffer = ByteBuffer.allocateDirect(width * height * 4);
+                int[] dirty = new int[4];
+                Rect dirtyRect = new Rect();
                 Paint paint = new Paint();
                 try {
+                    Canvas canvas = this.surface.lockCanvas(null);
+                    canvas.drawRGB(0, 0, 0);
+                    this.surface.unlockCanvasAndPost(canvas);
                     while (!surfaceDestroyed && this.surface.isValid()) {
-                        canvas = this.surface.lockCanvas(null);
-                        canvas.drawRGB(0, 0, 0);
-                        int[] rgbArray = renderAWTScreenFrame();
-                        if (rgbArray != null) {
-                            canvas.save();
-                            rgbArrayBitmap.setPixels(rgbArray, 0, DEFAULT_WIDTH, 0, 0, DEFAULT_WIDTH, DEFAULT_HEIGHT);
-                            canvas.drawBitmap(rgbArrayBitmap, 0, 0, paint);
-                            canvas.restore();
+                        // Only changed pixels are copied, an unchanged screen is not drawn again
+                        if (renderAWTScreenFrame(frameBuffer, width, height, dirty) <= 0) {
+                            Thread.sleep(AWT_IDLE_FRAME_MILLIS);
+                            continue;
                         }
+                        frameBuffer.rewind();
+                        frameBitmap.copyPixelsFromBuffer(frameBuffer);
+                        dirtyRect.set(dirty[0], dirty[1], dirty[2], dirty[3]);
+                        canvas = this.surface.lockCanvas(dirtyRect);
+                        canvas.drawBitmap(frameBitmap, 0, 0, paint);
                         this.surface.unlockCanvasAndPost(canvas);
                     }
                 } catch (Throwable throwable) {
@@ -238,7 +274,7 @@ public class H2CO3LauncherBridge implements Serializable {
                         }
                     });
                 }
-                rgbArrayBitmap.recycle();
+                frameBitmap.recycle();
                 this.surface.release();
             });
         }
@@ -299,7 +335,10 @@ public class H2CO3LauncherBridge implements Serializable {
     }
 
     public static class DefaultLogReceiver implements LogReceiver {
-        private final List<String> logs = new ArrayList<>();
+        public static final int MAX_LOG_ENTRIES = 4096;
+        public static final int MAX_LOG_CHARS = 512 * 1024;
+
+        private final LogRingBuffer logs = new LogRingBuffer(MAX_LOG_ENTRIES, MAX_LOG_CHARS);
 
         @Override
         public void pushLog(String log) {
@@ -308,8 +347,7 @@ public class H2CO3LauncherBridge implements Serializable {
 
         @Override
         public String getLogs() {
-            List<String> logsCopy = new ArrayList<>(logs);
-            return String.join("\n", logsCopy);
+            return logs.join("\n");
         }
     }
 
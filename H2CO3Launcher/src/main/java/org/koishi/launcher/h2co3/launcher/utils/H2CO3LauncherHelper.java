@@ -15,15 +15,12 @@ import org.koishi.launcher.h2co3.core.utils.Architecture;
 import org.koishi.launcher.h2co3.core.utils.CommandBuilder;
 import org.koishi.launcher.h2co3.core.utils.Logging;
 import org.koishi.launcher.h2co3.core.utils.OperatingSystem;
+import org.koishi.launcher.h2co3.core.utils.RuntimeLayout;
 import org.koishi.launcher.h2co3.core.utils.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -32,7 +29,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.TimeZone;
 import java.util.logging.Level;
-import java.util.stream.Stream;
 
 public class H2CO3LauncherHelper {
 
@@ -49,42 +45,15 @@ public class H2CO3LauncherHelper {
     }
 
     public static Map<String, String> readJREReleaseProperties(String javaPath) throws IOException {
-        Map<String, String> jreReleaseMap = new HashMap<>();
-        Path releaseFilePath = Paths.get(javaPath, "release");
-        try (BufferedReader jreReleaseReader = Files.newBufferedReader(releaseFilePath)) {
-            String currLine;
-            while ((currLine = jreReleaseReader.readLine()) != null) {
-                if (currLine.contains("=")) {
-                    String[] keyValue = currLine.split("=");
-                    jreReleaseMap.put(keyValue[0], keyValue[1].replace("\"", ""));
-                }
-            }
-        }
-        return jreReleaseMap;
+        return RuntimeLayout.of(javaPath).getReleaseProperties();
     }
 
     public static String getJreLibDir(String javaPath) throws IOException {
-        String jreArchitecture = readJREReleaseProperties(javaPath).get("OS_ARCH");
-        if (Architecture.archAsInt(jreArchitecture) == Architecture.ARCH_X86) {
-            jreArchitecture = "i386/i486/i586";
-        }
-        String jreLibDir = "/lib";
-        if (jreArchitecture == null) {
-            throw new IOException("Unsupported architecture!");
-        }
-        for (String arch : jreArchitecture.split("/")) {
-            File file = new File(javaPath, "lib/" + arch);
-            if (file.exists() && file.isDirectory()) {
-                jreLibDir = "/lib/" + arch;
-            }
-        }
-        return jreLibDir;
+        return RuntimeLayout.of(javaPath).getLibDir();
     }
 
     public static String getJvmLibDir(String javaPath) throws IOException {
-        String jreLibDir = getJreLibDir(javaPath);
-        File jvmFile = new File(javaPath + jreLibDir + "/server/libjvm.so");
-        return jvmFile.exists() ? "/server" : "/client";
+        return RuntimeLayout.of(javaPath).getJvmDir();
     }
 
     public static String getLibraryPath(Context context, String javaPath) throws IOException {
@@ -192,39 +161,14 @@ public class H2CO3LauncherHelper {
     }
 
     public static void setUpJavaRuntime(Context context, H2CO3LauncherBridge bridge) throws IOException {
-        String jreLibDir = H2CO3GameHelper.getJavaPath() + getJreLibDir(H2CO3GameHelper.getJavaPath());
-        String jliLibDir = new File(jreLibDir + "/jli/libjli.so").exists() ? jreLibDir + "/jli" : jreLibDir;
-        String jvmLibDir = jreLibDir + getJvmLibDir(H2CO3GameHelper.getJavaPath());
-        // dlopen jre
-        bridge.dlopen(jliLibDir + "/libjli.so");
-        bridge.dlopen(jvmLibDir + "/libjvm.so");
-        bridge.dlopen(jreLibDir + "/libfreetype.so");
-        bridge.dlopen(jreLibDir + "/libverify.so");
-        bridge.dlopen(jreLibDir + "/libjava.so");
-        bridge.dlopen(jreLibDir + "/libnet.so");
-        bridge.dlopen(jreLibDir + "/libnio.so");
-        bridge.dlopen(jreLibDir + "/libawt.so");
-        bridge.dlopen(jreLibDir + "/libawt_headless.so");
-        bridge.dlopen(jreLibDir + "/libfontmanager.so");
-        bridge.dlopen(jreLibDir + "/libtinyiconv.so");
-        bridge.dlopen(jreLibDir + "/libinstrument.so");
+        RuntimeLayout layout = RuntimeLayout.of(H2CO3GameHelper.getJavaPath());
+        // dlopen jre, dependencies first
+        for (String library : layout.getPreloadLibraries()) {
+            bridge.dlopen(library);
+        }
         bridge.dlopen(context.getApplicationInfo().nativeLibraryDir + "/libopenal.so");
         bridge.dlopen(context.getApplicationInfo().nativeLibraryDir + "/libglfw.so");
         bridge.dlopen(context.getApplicationInfo().nativeLibraryDir + "/liblwjgl.so");
-        File javaPath = new File(H2CO3GameHelper.getJavaPath());
-        for (File file : locateLibs(javaPath)) {
-            bridge.dlopen(file.getAbsolutePath());
-        }
-    }
-
-    public static ArrayList<File> locateLibs(File path) throws IOException {
-        ArrayList<File> returnValue = new ArrayList<>();
-        try (Stream<Path> walk = Files.walk(path.toPath())) {
-            walk.filter(Files::isRegularFile)
-                    .filter(p -> p.toString().endsWith(".so"))
-                    .forEach(p -> returnValue.add(p.toFile()));
-        }
-        return returnValue;
     }
 
     public static void setupGraphicAndSoundEngine(Context context, H2CO3LauncherBridge bridge) {
@@ -244,6 +188,7 @@ public class H2CO3LauncherHelper {
         bridge.getCallback().onLog("");
         printTaskTitle(bridge, task + " Logs");
         bridge.getCallback().onLog("Hook exit " + (bridge.setupExitTrap(bridge) == 0 ? "success" : "failed"));
+        LaunchMode.onLaunchStarted();
         int exitCode = bridge.jliLaunch(args);
         Log.e(TAG, "Jvm Exited With Code:" + exitCode);
         bridge.onExit(exitCode);
@@ -288,6 +233,7 @@ public class H2CO3LauncherHelper {
 
         // initialize H2CO3LAUNCHERBridge
         H2CO3LauncherBridge bridge = new H2CO3LauncherBridge();
+        bridge.setAWTScreenSize(width, height);
         bridge.setLogPath(H2CO3Tools.LOG_FILE_PATH + "/latest_jar_executor.log");
         Thread javaGUIThread = new Thread(() -> {
             try {
@@ -323,6 +269,7 @@ public class H2CO3LauncherHelper {
 
         // initialize H2CO3LAUNCHERBridge
         H2CO3LauncherBridge bridge = new H2CO3LauncherBridge();
+        bridge.setAWTScreenSize(width, height);
         bridge.setLogPath(H2CO3Tools.LOG_DIR + "/latest_api_installer.log");
         Thread apiInstallerThread = new Thread(() -> {
             try {
@@ -354,17 +301,11 @@ public class H2CO3LauncherHelper {
     public static CommandBuilder getMcArgs(Context context, int width, int height) throws IOException {
         H2CO3Tools.loadPaths(context);
         H2CO3GameHelper.setRender(H2CO3Tools.GL_GL114);
-        MinecraftVersion version = MinecraftVersion.fromDirectory(new File(H2CO3GameHelper.getGameCurrentVersion()));
+        LaunchPlan version = LaunchPlan.of(new File(H2CO3GameHelper.getGameCurrentVersion()));
         String lwjglPath = H2CO3Tools.RUNTIME_DIR + "/h2co3Launcher/lwjgl";
         String javaPath = H2CO3GameHelper.getJavaPath();
-        boolean highVersion = version.minimumLauncherVersion >= 21;
-        String classPath;
         boolean isJava8 = javaPath.equals(H2CO3Tools.JAVA_8_PATH);
-        if (!highVersion) {
-            classPath = lwjglPath + "/lwjgl.jar:" + version.getClassPath(false, isJava8);
-        } else {
-            classPath = lwjglPath + "/lwjgl.jar:" + version.getClassPath(true, isJava8);
-        }
+        String classPath = lwjglPath + "/lwjgl.jar:" + version.getClassPath(isJava8);
         CommandBuilder args = new CommandBuilder();
         addCacioOptions(args, height, width, javaPath);
         args.add("-cp");
@@ -372,8 +313,9 @@ public class H2CO3LauncherHelper {
         args.addDefault("-Djava.library.path=", getLibraryPath(context, javaPath));
         args.addDefault("-Djna.boot.library.path=", H2CO3Tools.NATIVE_LIB_DIR);
         args.addDefault("-Dfml.earlyprogresswindow=", "false");
-        args.addDefault("-Dorg.lwjgl.util.DebugLoader=", "true");
-        args.addDefault("-Dorg.lwjgl.util.Debug=", "true");
+        LaunchMode launchMode = LaunchMode.forNextLaunch();
+        Logging.LOG.log(Level.INFO, "Launch mode: " + launchMode);
+        launchMode.addArguments(args);
         args.addDefault("-Dos.name=", "Linux");
         args.addDefault("-Dos.version=Android-", Build.VERSION.RELEASE);
         args.addDefault("-Dlwjgl.platform=", "H2CO3Launcher");
@@ -406,6 +348,8 @@ public class H2CO3LauncherHelper {
         } else {
             args.addDefault("-Dorg.lwjgl.opengl.libname=", "libgl4es_114.so");
         }
+        // remember the GL functions each renderer lacks
+        args.addDefault("-Dorg.lwjgl.opengl.functionCache=", H2CO3Tools.CACHE_DIR + "/lwjgl");
         args.addDefault("-Djava.io.tmpdir=", H2CO3Tools.CACHE_DIR);
 
         String[] accountArgs = new String[0];
@@ -419,10 +363,15 @@ public class H2CO3LauncherHelper {
                 args.add(JVMArg);
             }
         }
-        args.add("-Xms" + "1024" + "M");
-        args.add("-Xmx" + "6000" + "M");
-        args.add(version.mainClass);
-        String[] minecraftArgs = version.getMinecraftArguments(highVersion);
+        // heap and GC for this device, options from the version win
+        JvmLaunchProfile.Device device = JvmLaunchProfile.Device.of(context);
+        JvmLaunchProfile.JavaRuntime runtime = JvmLaunchProfile.JavaRuntime.of(javaPath);
+        JvmLaunchProfile profile = JvmLaunchProfile.of(new File(H2CO3GameHelper.getGameCurrentVersion()).getName());
+        List<String> jvmFlags = profile.resolve(device, runtime);
+        Logging.LOG.log(Level.INFO, "JVM profile " + profile.select(device) + " for " + device + ", " + runtime + ": " + String.join(" ", jvmFlags));
+        JvmLaunchProfile.apply(args, jvmFlags);
+        args.add(version.getMainClass());
+        String[] minecraftArgs = version.getMinecraftArguments();
         args.add(minecraftArgs);
         args.add("--width");
         args.add(String.valueOf(width));
@@ -0,0 +1,170 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import android.os.Looper;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated single-producer/single-consumer ring between the UI thread and the native event queue.
+ * <p>
+ * The UI thread only writes four array slots and publishes the tail, so queuing an event allocates
+ * nothing and never waits on JNI. A dispatcher thread drains whatever has accumulated and hands it to
+ * {@link H2CO3LauncherBridge#pushEvents} in batches; of consecutive {@code MotionNotify} events only
+ * the last one crosses into native code, as they carry absolute positions.
+ * Events from any other thread, and events that find the ring full, drain the ring themselves
+ * and are then pushed directly, so no event is dropped or reordered within its thread.
+ */
+public final class InputEventQueue {
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    private static final int BATCH_SIZE = 128;
+    private static final long NO_POINTER = Long.MIN_VALUE;
+
+    private final long[] times = new long[CAPACITY];
+    private final int[] types = new int[CAPACITY];
+    private final int[] params1 = new int[CAPACITY];
+    private final int[] params2 = new int[CAPACITY];
+    // Written by the producer only.
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only, which is whoever holds drainLock.
+    private final AtomicLong head = new AtomicLong();
+    private final Object drainLock = new Object();
+    // Owned by whoever holds drainLock.
+    private final long[] batchTimes = new long[BATCH_SIZE];
+    private final int[] batchParams = new int[BATCH_SIZE * 3];
+    private volatile long lastPointer = NO_POINTER;
+    private final Thread producer;
+    private final Sink sink;
+    private final Thread dispatcher;
+    private volatile boolean dispatcherWaiting;
+
+    /**
+     * @param producer the only thread that queues events, every other thread pushes through {@code sink} directly
+     */
+    InputEventQueue(Thread producer, Sink sink) {
+        this.producer = producer;
+        this.sink = sink;
+        dispatcher = new Thread(this::dispatchLoop, "H2CO3 Input Dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public static InputEventQueue get() {
+        return Holder.INSTANCE;
+    }
+
+    public void push(long time, int type, int p1, int p2) {
+        if (type == H2CO3LauncherBridge.MotionNotify) {
+            lastPointer = ((long) p1 << 32) | (p2 & 0xFFFFFFFFL);
+        }
+        if (Thread.currentThread() != producer) {
+            synchronized (drainLock) {
+                drain();
+                sink.push(time, type, p1, p2);
+            }
+            return;
+        }
+
+        long t = tail.get();
+        if (t - head.get() >= CAPACITY) {
+            flush();
+        }
+        int index = (int) (t & MASK);
+        times[index] = time;
+        types[index] = type;
+        params1[index] = p1;
+        params2[index] = p2;
+        // A full volatile write, so the dispatcher cannot park after missing both the event and the unpark.
+        tail.set(t + 1);
+        if (dispatcherWaiting) {
+            // Cleared before the unpark, so a burst wakes the dispatcher once instead of once per event.
+            dispatcherWaiting = false;
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Push every queued event now, e.g. before reading state that depends on them.
+     */
+    public void flush() {
+        synchronized (drainLock) {
+            drain();
+        }
+    }
+
+    /**
+     * @return the pointer position of the last motion event, queued or pushed
+     */
+    public int[] getPointer() {
+        long pointer = lastPointer;
+        if (pointer == NO_POINTER) {
+            return H2CO3LauncherBridge.getPointer();
+        }
+        return new int[]{(int) (pointer >> 32), (int) pointer};
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            flush();
+            dispatcherWaiting = true;
+            if (head.get() == tail.get()) {
+                LockSupport.park(this);
+            }
+            dispatcherWaiting = false;
+        }
+    }
+
+    // Caller holds drainLock.
+    private void drain() {
+        long h = head.get();
+        long t = tail.get();
+        int count = 0;
+        while (h < t) {
+            int index = (int) (h & MASK);
+            boolean superseded = types[index] == H2CO3LauncherBridge.MotionNotify
+                    && h + 1 < t && types[(int) ((h + 1) & MASK)] == H2CO3LauncherBridge.MotionNotify;
+            if (!superseded) {
+                batchTimes[count] = times[index];
+                batchParams[count * 3] = types[index];
+                batchParams[count * 3 + 1] = params1[index];
+                batchParams[count * 3 + 2] = params2[index];
+                count++;
+            }
+            h++;
+            if (count == BATCH_SIZE) {
+                head.lazySet(h);
+                sink.pushEvents(batchTimes, batchParams, count);
+                count = 0;
+            }
+        }
+        head.lazySet(h);
+        if (count > 0) {
+            sink.pushEvents(batchTimes, batchParams, count);
+        }
+    }
+
+    /**
+     * Where drained events go, the native event queue outside of benchmarks.
+     */
+    interface Sink {
+        void push(long time, int type, int p1, int p2);
+
+        void pushEvents(long[] times, int[] params, int count);
+    }
+
+    // Created on first use, so the queue can be constructed without the native library or a main looper.
+    private static final class Holder {
+        static final InputEventQueue INSTANCE = new InputEventQueue(Looper.getMainLooper().getThread(), new Sink() {
+            @Override
+            public void push(long time, int type, int p1, int p2) {
+                H2CO3LauncherBridge.pushEvent(time, type, p1, p2);
+            }
+
+            @Override
+            public void pushEvents(long[] times, int[] params, int count) {
+                H2CO3LauncherBridge.pushEvents(times, params, count);
+            }
+        });
+    }
+}
@@ -0,0 +1,285 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import org.koishi.launcher.h2co3.core.H2CO3Tools;
+import org.koishi.launcher.h2co3.core.utils.Architecture;
+import org.koishi.launcher.h2co3.core.utils.CommandBuilder;
+import org.koishi.launcher.h2co3.core.utils.Logging;
+import org.koishi.launcher.h2co3.core.utils.RuntimeLayout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Heap size and garbage collector options for the game JVM, picked from the memory and CPU of the device.
+ * <p>
+ * {@link #resolve} is a pure function of a {@link Device} and a {@link JavaRuntime}, so the same device always
+ * gets the same options. {@link #apply} only adds options the command does not set already, so options
+ * from the version JSON or the user win over the profile.
+ */
+public enum JvmLaunchProfile {
+    /**
+     * Pick one of the others from the device.
+     */
+    AUTO(0, 0, 0, 0),
+    /**
+     * Small heap and Parallel GC, to stay clear of the low memory killer.
+     */
+    LOW_MEMORY(0.25f, 0, 1, 2),
+    BALANCED(0.35f, 50, 2, 4),
+    /**
+     * Large heap and short pauses, Shenandoah when the runtime has it.
+     */
+    PERFORMANCE(0.45f, 30, 2, 8);
+
+    private static final int MIN_HEAP_MB = 512;
+    private static final int MAX_HEAP_MB_32 = 1024;
+    private static final int MAX_HEAP_MB_64 = 8192;
+    private static final int MIN_INITIAL_HEAP_MB = 256;
+    // Metaspace, code cache, GL driver and native buffers live outside the heap
+    private static final int NON_HEAP_RESERVE_MB = 768;
+    private static final int HEAP_ALIGN_MB = 64;
+    private static final int METASPACE_SIZE_MB_8 = 128;
+    private static final int METASPACE_SIZE_MB_11 = 192;
+    private static final int METASPACE_SIZE_MB_17 = 256;
+
+    private final float memoryShare;
+    private final int maxPauseMillis;
+    private final int minGCThreads;
+    private final int maxGCThreads;
+
+    JvmLaunchProfile(float memoryShare, int maxPauseMillis, int minGCThreads, int maxGCThreads) {
+        this.memoryShare = memoryShare;
+        this.maxPauseMillis = maxPauseMillis;
+        this.minGCThreads = minGCThreads;
+        this.maxGCThreads = maxGCThreads;
+    }
+
+    public static JvmLaunchProfile parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return AUTO;
+        }
+    }
+
+    /**
+     * @return the profile {@link #AUTO} stands for on {@code device}, other profiles themselves
+     */
+    public JvmLaunchProfile select(Device device) {
+        if (this != AUTO) {
+            return this;
+        }
+        if (device.totalMemoryMB < 4608 || device.cores <= 2 || !device.is64Bit) {
+            return LOW_MEMORY;
+        }
+        if (device.totalMemoryMB >= 10240 && device.cores >= 8) {
+            return PERFORMANCE;
+        }
+        return BALANCED;
+    }
+
+    /**
+     * @return the JVM options of this profile for {@code device} and {@code runtime}
+     */
+    public List<String> resolve(Device device, JavaRuntime runtime) {
+        JvmLaunchProfile profile = select(device);
+        List<String> flags = new ArrayList<>();
+
+        int heap = profile.heapSize(device, device.is64Bit && runtime.is64Bit);
+        flags.add("-Xms" + Math.min(heap, Math.max(MIN_INITIAL_HEAP_MB, align(heap / 4))) + "M");
+        flags.add("-Xmx" + heap + "M");
+
+        int gcThreads = Math.max(profile.minGCThreads, Math.min(profile.maxGCThreads,
+                profile == PERFORMANCE ? device.cores * 3 / 4 : device.cores / 2));
+        if (profile == LOW_MEMORY || heap < 1024) {
+            // Parallel has the smallest footprint, G1 remembered sets cost memory a small heap cannot spare
+            flags.add("-XX:+UseParallelGC");
+            flags.add("-XX:ParallelGCThreads=" + gcThreads);
+        } else if (profile == PERFORMANCE && runtime.hasShenandoah() && heap >= 2048) {
+            flags.add("-XX:+UseShenandoahGC");
+            flags.add("-XX:ParallelGCThreads=" + gcThreads);
+            flags.add("-XX:ConcGCThreads=" + Math.max(1, (gcThreads + 1) / 2));
+        } else {
+            flags.add("-XX:+UseG1GC");
+            flags.add("-XX:MaxGCPauseMillis=" + profile.maxPauseMillis);
+            flags.add("-XX:ParallelGCThreads=" + gcThreads);
+            flags.add("-XX:ConcGCThreads=" + Math.max(1, (gcThreads + 1) / 2));
+            if (runtime.majorVersion == 8) {
+                // On by default since 9
+                flags.add("-XX:+ParallelRefProcEnabled");
+            }
+        }
+
+        flags.add("-XX:MetaspaceSize=" + metaspaceSize(runtime) + "M");
+        return flags;
+    }
+
+    /**
+     * The metaspace usage that triggers the first metaspace GC, not a limit. At the default of about 20 MB,
+     * loading a modded game runs full GCs one after another; newer versions load more classes before the menu.
+     */
+    private static int metaspaceSize(JavaRuntime runtime) {
+        if (runtime.majorVersion >= 17) {
+            return METASPACE_SIZE_MB_17;
+        }
+        return runtime.majorVersion >= 11 ? METASPACE_SIZE_MB_11 : METASPACE_SIZE_MB_8;
+    }
+
+    private int heapSize(Device device, boolean is64Bit) {
+        long byShare = (long) (device.totalMemoryMB * memoryShare);
+        // Do not count on more than is free now, but never go below a fifth of the device either
+        long byAvailable = Math.max(device.availableMemoryMB - NON_HEAP_RESERVE_MB, device.totalMemoryMB / 5);
+        long heap = Math.min(byShare, byAvailable);
+        int maxHeap = is64Bit ? MAX_HEAP_MB_64 : MAX_HEAP_MB_32;
+        return align((int) Math.max(MIN_HEAP_MB, Math.min(maxHeap, heap)));
+    }
+
+    private static int align(int megabytes) {
+        return megabytes / HEAP_ALIGN_MB * HEAP_ALIGN_MB;
+    }
+
+    /**
+     * Add {@code flags} to {@code args} unless an option of the same name is there already.
+     * No collector is added if {@code args} already selects one.
+     */
+    public static void apply(CommandBuilder args, List<String> flags) {
+        List<String> existing = args.asList();
+        boolean hasCollector = existing.stream().anyMatch(JvmLaunchProfile::isCollector);
+        for (String flag : flags) {
+            if (isCollector(flag) && hasCollector) {
+                continue;
+            }
+            String name = nameOf(flag);
+            if (existing.stream().noneMatch(arg -> nameOf(arg).equals(name))) {
+                args.add(flag);
+            }
+        }
+    }
+
+    private static boolean isCollector(String arg) {
+        return arg.startsWith("-XX:+Use") && arg.endsWith("GC");
+    }
+
+    private static String nameOf(String arg) {
+        if (arg.startsWith("-Xms") || arg.startsWith("-Xmx")) {
+            return arg.substring(0, 4);
+        }
+        if (arg.startsWith("-XX:+") || arg.startsWith("-XX:-")) {
+            return "-XX:" + arg.substring(5);
+        }
+        int index = arg.indexOf('=');
+        return index < 0 ? arg : arg.substring(0, index);
+    }
+
+    /**
+     * @return the profile chosen for the game version {@code version}, {@link #AUTO} if none
+     */
+    public static JvmLaunchProfile of(String version) {
+        return parse(H2CO3Tools.getH2CO3Value("jvm_profile_" + version, AUTO.name(), String.class));
+    }
+
+    public static void set(String version, JvmLaunchProfile profile) {
+        H2CO3Tools.setH2CO3Value("jvm_profile_" + version, profile.name());
+    }
+
+    public static class Device {
+        public final long totalMemoryMB;
+        public final long availableMemoryMB;
+        public final int cores;
+        public final boolean is64Bit;
+
+        public Device(long totalMemoryMB, long availableMemoryMB, int cores, boolean is64Bit) {
+            this.totalMemoryMB = totalMemoryMB;
+            this.availableMemoryMB = availableMemoryMB;
+            this.cores = cores;
+            this.is64Bit = is64Bit;
+        }
+
+        public static Device of(Context context) {
+            ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
+            ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            activityManager.getMemoryInfo(memoryInfo);
+            return new Device(memoryInfo.totalMem >> 20, memoryInfo.availMem >> 20,
+                    Runtime.getRuntime().availableProcessors(), Architecture.is64BitsDevice());
+        }
+
+        @Override
+        public String toString() {
+            return "memory " + availableMemoryMB + "/" + totalMemoryMB + " MB, " + cores + " cores, " + (is64Bit ? "64" : "32") + " bit";
+        }
+    }
+
+    public static class JavaRuntime {
+        public final int majorVersion;
+        public final String implementor;
+        public final boolean is64Bit;
+        private final boolean shenandoah;
+
+        public JavaRuntime(int majorVersion, String implementor, boolean is64Bit, boolean shenandoah) {
+            this.majorVersion = majorVersion;
+            this.implementor = implementor;
+            this.is64Bit = is64Bit;
+            this.shenandoah = shenandoah;
+        }
+
+        public static JavaRuntime of(String javaPath) {
+            String version = null;
+            String implementor = null;
+            String arch = null;
+            boolean shenandoah = false;
+            try {
+                RuntimeLayout layout = RuntimeLayout.of(javaPath);
+                Map<String, String> release = layout.getReleaseProperties();
+                version = release.get("JAVA_VERSION");
+                implementor = release.get("IMPLEMENTOR");
+                arch = release.get("OS_ARCH");
+                shenandoah = layout.hasShenandoah();
+            } catch (IOException e) {
+                Logging.LOG.log(Level.WARNING, "Failed to read the release file of " + javaPath, e);
+            }
+            int major = parseMajorVersion(version);
+            if (major == 0) {
+                major = javaPath.equals(H2CO3Tools.JAVA_21_PATH) ? 21
+                        : javaPath.equals(H2CO3Tools.JAVA_17_PATH) ? 17
+                        : javaPath.equals(H2CO3Tools.JAVA_11_PATH) ? 11 : 8;
+            }
+            boolean is64Bit = arch == null ? Architecture.is64BitsDevice() : arch.contains("64");
+            return new JavaRuntime(major, implementor, is64Bit, shenandoah);
+        }
+
+        /**
+         * @return 8 for {@code 1.8.0_402}, 17 for {@code 17.0.10}, 0 if unknown
+         */
+        public static int parseMajorVersion(String version) {
+            if (version == null) {
+                return 0;
+            }
+            String[] parts = version.split("[._+-]");
+            try {
+                int major = Integer.parseInt(parts[0]);
+                return major == 1 && parts.length > 1 ? Integer.parseInt(parts[1]) : major;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * @return whether the JVM was built with Shenandoah, a JVM without it refuses {@code -XX:+UseShenandoahGC}
+         */
+        public boolean hasShenandoah() {
+            return shenandoah;
+        }
+
+        @Override
+        public String toString() {
+            return "Java " + majorVersion + (implementor == null ? "" : " (" + implementor + ")");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import org.koishi.launcher.h2co3.core.H2CO3Tools;
+import org.koishi.launcher.h2co3.core.utils.CommandBuilder;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * How much LWJGL checks and reports about itself in the game.
+ * <p>
+ * The selected mode is used unless the last launch crashed, that is it exited with a non-zero exit code or the
+ * JVM wrote a fatal error log. The launch after a crash is {@link #DIAGNOSTIC} so the crash can be reproduced
+ * with full logs, and only that one: the next is back to the selected mode however the diagnostic run ends.
+ * A game closed from the recents screen never reports its exit and does not count as a crash.
+ */
+public enum LaunchMode {
+    /**
+     * No debug output, no argument checks, the plain allocator.
+     */
+    PERFORMANCE(false),
+    /**
+     * Debug output, loader tracing, argument checks and the leak tracking allocator.
+     */
+    DIAGNOSTIC(true);
+
+    private static final String KEY_SELECTED = "launch_mode";
+    private static final String KEY_STARTED = "launch_mode_started";
+    private static final String KEY_CRASHED = "launch_mode_crashed";
+    private static final String ERROR_FILE_PREFIX = "hs_err_pid";
+    private static final String ERROR_FILE_SUFFIX = ".log";
+    // File systems that keep modification times in whole seconds
+    private static final long TIMESTAMP_SLACK_MILLIS = 2000;
+
+    static StateStore store = new StateStore() {
+        @Override
+        public <T> T get(String key, T defaultValue, Class<T> type) {
+            return H2CO3Tools.getH2CO3Value(key, defaultValue, type);
+        }
+
+        @Override
+        public void set(String key, Serializable value) {
+            H2CO3Tools.setH2CO3Value(key, value);
+        }
+    };
+    // Where the JVM writes its fatal error log
+    static Supplier<File> errorFileDir = () -> new File(H2CO3Tools.LOG_DIR);
+
+    private final Map<String, String> lwjglProperties;
+
+    LaunchMode(boolean diagnostic) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("-Dorg.lwjgl.util.Debug=", String.valueOf(diagnostic));
+        properties.put("-Dorg.lwjgl.util.DebugLoader=", String.valueOf(diagnostic));
+        properties.put("-Dorg.lwjgl.util.DebugAllocator=", String.valueOf(diagnostic));
+        properties.put("-Dorg.lwjgl.util.NoChecks=", String.valueOf(!diagnostic));
+        this.lwjglProperties = Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * Add the LWJGL properties of this mode and the fatal error log location crashes are detected by,
+     * unless {@code args} sets them already.
+     */
+    public void addArguments(CommandBuilder args) {
+        for (Map.Entry<String, String> property : lwjglProperties.entrySet()) {
+            args.addDefault(property.getKey(), property.getValue());
+        }
+        args.addDefault("-XX:ErrorFile=", new File(errorFileDir.get(), ERROR_FILE_PREFIX + "%p" + ERROR_FILE_SUFFIX).getPath());
+    }
+
+    public static LaunchMode getSelected() {
+        try {
+            return valueOf(store.get(KEY_SELECTED, PERFORMANCE.name(), String.class).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return PERFORMANCE;
+        }
+    }
+
+    public static void setSelected(LaunchMode mode) {
+        store.set(KEY_SELECTED, mode.name());
+    }
+
+    /**
+     * @return the mode of the next launch, {@link #DIAGNOSTIC} if the last one crashed
+     */
+    public static LaunchMode forNextLaunch() {
+        if (store.get(KEY_CRASHED, false, Boolean.class)) {
+            return DIAGNOSTIC;
+        }
+        // The exit was never reported: killed, closed from recents, or a JVM crash that aborted the process
+        long started = store.get(KEY_STARTED, 0L, Number.class).longValue();
+        if (started != 0 && hasErrorFileSince(started)) {
+            return DIAGNOSTIC;
+        }
+        return getSelected();
+    }
+
+    private static boolean hasErrorFileSince(long time) {
+        File[] errorFiles = errorFileDir.get().listFiles((dir, name) -> name.startsWith(ERROR_FILE_PREFIX) && name.endsWith(ERROR_FILE_SUFFIX));
+        if (errorFiles != null) {
+            for (File errorFile : errorFiles) {
+                if (errorFile.lastModified() >= time - TIMESTAMP_SLACK_MILLIS) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mark a launch as running and use up the crash of the last one. The caller flushes the config,
+     * like for {@link #onLaunchExited}.
+     */
+    public static void onLaunchStarted() {
+        store.set(KEY_CRASHED, false);
+        store.set(KEY_STARTED, System.currentTimeMillis());
+    }
+
+    public static void onLaunchExited(int exitCode) {
+        store.set(KEY_CRASHED, exitCode != 0);
+        store.set(KEY_STARTED, 0L);
+    }
+
+    /**
+     * Where the launch state is kept, the launcher config unless replaced in tests.
+     */
+    interface StateStore {
+        <T> T get(String key, T defaultValue, Class<T> type);
+
+        void set(String key, Serializable value);
+    }
+}
@@ -0,0 +1,166 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import org.koishi.launcher.h2co3.core.H2CO3Tools;
+import org.koishi.launcher.h2co3.core.utils.H2CO3DownloadUtils;
+import org.koishi.launcher.h2co3.core.utils.Logging;
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Everything {@link H2CO3LauncherHelper#getMcArgs} needs from a {@link MinecraftVersion}, resolved once:
+ * the merged version data, both classpath variants and the raw argument templates.
+ * <p>
+ * Plans are cached in {@code CACHE_DIR/launch_plans} and stay valid while every version JSON of the
+ * inheritance chain keeps its modification time and size, or failing that, its SHA-1. A cache hit
+ * skips JSON parsing and {@code inheritsFrom} merging entirely.
+ */
+public class LaunchPlan {
+    private static final int FORMAT_VERSION = 1;
+    private static final String CACHE_DIR_NAME = "launch_plans";
+
+    private int format;
+    private List<Source> sources;
+    private String id;
+    private String type;
+    private String mainClass;
+    private int minimumLauncherVersion;
+    private String assetsIndexName;
+    private String classPath;
+    private String classPathJava8;
+    private String jvmTemplate;
+    private String gameTemplate;
+    private String extraGameArguments;
+
+    public static LaunchPlan of(File versionDir) {
+        File cacheFile = getCacheFile(versionDir);
+        LaunchPlan cached = readCache(cacheFile);
+        if (cached != null && cached.isUpToDate()) {
+            return cached;
+        }
+
+        LaunchPlan plan = build(MinecraftVersion.fromDirectory(versionDir));
+        try {
+            FileTools.makeDirectory(cacheFile.getParentFile());
+            FileTools.saveSafely(cacheFile.toPath(), new Gson().toJson(plan));
+        } catch (IOException e) {
+            Logging.LOG.log(Level.WARNING, "Failed to save launch plan " + cacheFile, e);
+        }
+        return plan;
+    }
+
+    private static LaunchPlan build(MinecraftVersion version) {
+        LaunchPlan plan = new LaunchPlan();
+        plan.format = FORMAT_VERSION;
+        plan.sources = new ArrayList<>();
+        for (File file : version.getSourceFiles()) {
+            plan.sources.add(Source.of(file));
+        }
+        plan.id = version.getId();
+        plan.type = version.getType();
+        plan.mainClass = version.mainClass;
+        plan.minimumLauncherVersion = version.minimumLauncherVersion;
+        plan.assetsIndexName = version.getAssetsIndexName();
+        boolean highVersion = plan.isHighVersion();
+        plan.classPath = version.getClassPath(highVersion, false);
+        plan.classPathJava8 = version.getClassPath(highVersion, true);
+        plan.jvmTemplate = version.getJVMArgumentsTemplate();
+        plan.gameTemplate = version.getMinecraftArgumentsTemplate(highVersion);
+        plan.extraGameArguments = version.getExtraMinecraftArguments(highVersion);
+        return plan;
+    }
+
+    private static File getCacheFile(File versionDir) {
+        // Library paths depend on the game directory as well as on the version.
+        String location = versionDir.getAbsolutePath() + File.pathSeparator + H2CO3GameHelper.getGameDirectory();
+        String key = versionDir.getName() + "-" + Integer.toHexString(location.hashCode());
+        return new File(H2CO3Tools.CACHE_DIR + "/" + CACHE_DIR_NAME, key + ".json");
+    }
+
+    private static LaunchPlan readCache(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try {
+            LaunchPlan plan = new Gson().fromJson(FileTools.readText(cacheFile), LaunchPlan.class);
+            return plan != null && plan.format == FORMAT_VERSION && plan.sources != null ? plan : null;
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private boolean isUpToDate() {
+        for (Source source : sources) {
+            if (!source.matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isHighVersion() {
+        return minimumLauncherVersion >= 21;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public String getClassPath(boolean isJava8) {
+        return isJava8 ? classPathJava8 : classPath;
+    }
+
+    public String[] getJVMArguments() {
+        if (jvmTemplate == null) {
+            return new String[0];
+        }
+        return MinecraftVersion.substitute(jvmTemplate, id, type, assetsIndexName).split(" ");
+    }
+
+    public String[] getMinecraftArguments() {
+        return (MinecraftVersion.substitute(gameTemplate, id, type, assetsIndexName) + extraGameArguments).split(" ");
+    }
+
+    private static class Source {
+        String path;
+        long lastModified;
+        long length;
+        String sha1;
+
+        static Source of(File file) {
+            Source source = new Source();
+            source.path = file.getAbsolutePath();
+            source.lastModified = file.lastModified();
+            source.length = file.length();
+            try {
+                source.sha1 = H2CO3DownloadUtils.sha1(file);
+            } catch (IOException e) {
+                source.sha1 = null;
+            }
+            return source;
+        }
+
+        boolean matches() {
+            File file = new File(path);
+            if (!file.isFile()) {
+                return false;
+            }
+            if (file.lastModified() == lastModified && file.length() == length) {
+                return true;
+            }
+            // Touched but not changed, e.g. copied back from a backup.
+            try {
+                return sha1 != null && file.length() == length && sha1.equals(H2CO3DownloadUtils.sha1(file));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
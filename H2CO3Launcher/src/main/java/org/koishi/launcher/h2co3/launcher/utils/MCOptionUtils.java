@@ -1,73 +1,155 @@
 package org.koishi.launcher.h2co3.launcher.utils;
 
 import android.os.FileObserver;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.Nullable;
 
-import org.koishi.launcher.h2co3.core.H2CO3Tools;
+import org.koishi.launcher.h2co3.core.utils.Logging;
+import org.koishi.launcher.h2co3.core.utils.file.FileTools;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
 
+/**
+ * Reads and edits the {@code options.txt} of a game directory.
+ * <p>
+ * The file is kept as its lines, and an option is changed by replacing its line, so the order of the
+ * options and lines this class does not understand survive a save. A save only writes when an option
+ * actually changed, merges changes the game made to the file in the meantime and replaces the file
+ * atomically. Changes made by others are reported to the listeners once per burst of writes, the
+ * launcher's own saves are not reported.
+ */
 public class MCOptionUtils {
     private static final String OPTIONS_FILE_NAME = "options.txt";
     private static final String OPTION_SEPARATOR = ":";
     private static final String LINE_SEPARATOR = "\n";
     private static final String VALUE_SEPARATOR = ",";
     private static final int DEFAULT_GUI_SCALE = 0;
+    private static final int DEFAULT_RENDER_DISTANCE = 12;
+    private static final long RELOAD_DELAY_MILLIS = 300;
 
-    private static final HashMap<String, String> parameterMap = new HashMap<>();
+    private static final List<String> lines = new ArrayList<>();
+    private static final HashMap<String, Integer> lineIndex = new HashMap<>();
+    // Options set since the last save, applied again over changes the game made to the file
+    private static final Map<String, String> edits = new LinkedHashMap<>();
     private static final ArrayList<WeakReference<MCOptionListener>> optionListeners = new ArrayList<>();
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    private static final Runnable reloadTask = MCOptionUtils::reloadChangedFile;
     private static FileObserver fileObserver;
+    private static String observedGameDir;
+    private static String loadedGameDir;
+    private static String loadedContent;
+    private static long loadedModified = -1;
+    private static long loadedLength = -1;
 
-    private static String getOptionsFilePath(String gameDir) {
-        return gameDir + File.separator + OPTIONS_FILE_NAME;
+    private static File getOptionsFile(String gameDir) {
+        return new File(gameDir, OPTIONS_FILE_NAME);
     }
 
-    private static void loadOptionsFromFile(String filePath) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                int firstColonIndex = line.indexOf(OPTION_SEPARATOR);
-                if (firstColonIndex < 0) {
-                    continue;
-                }
-                parameterMap.put(line.substring(0, firstColonIndex), line.substring(firstColonIndex + 1));
-            }
+    /**
+     * Load the options of {@code gameDir}, unless they are loaded and the file has not changed since.
+     */
+    public static synchronized void loadOptions(String gameDir) {
+        if (!gameDir.equals(observedGameDir)) {
+            setupFileObserver(gameDir);
+        }
+        File file = getOptionsFile(gameDir);
+        if (gameDir.equals(loadedGameDir) && file.lastModified() == loadedModified && file.length() == loadedLength) {
+            return;
         }
+        read(gameDir);
     }
 
-    public static void loadOptions(String gameDir) {
-        if (fileObserver == null) {
-            setupFileObserver(gameDir);
+    /**
+     * @return whether the options differ from those loaded before
+     */
+    private static boolean read(String gameDir) {
+        File file = getOptionsFile(gameDir);
+        long modified = file.lastModified();
+        long length = file.length();
+        String content;
+        try {
+            content = file.isFile() ? FileTools.readText(file) : "";
+        } catch (IOException e) {
+            Logging.LOG.log(Level.WARNING, "Failed to read " + file, e);
+            return false;
         }
+        if (loadedGameDir != null && !loadedGameDir.equals(gameDir)) {
+            edits.clear();
+        }
+        boolean changed = !gameDir.equals(loadedGameDir) || !content.equals(loadedContent);
+        loadedGameDir = gameDir;
+        loadedModified = modified;
+        loadedLength = length;
+        if (!changed) {
+            return false;
+        }
+        loadedContent = content;
+        parse(content);
+        for (Map.Entry<String, String> edit : edits.entrySet()) {
+            apply(edit.getKey(), edit.getValue());
+        }
+        return true;
+    }
 
-        parameterMap.clear();
+    private static void parse(String content) {
+        lines.clear();
+        lineIndex.clear();
+        if (content.isEmpty()) {
+            return;
+        }
+        lines.addAll(Arrays.asList(content.split(LINE_SEPARATOR, -1)));
+        if (lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            int firstColonIndex = lines.get(i).indexOf(OPTION_SEPARATOR);
+            if (firstColonIndex > 0) {
+                lineIndex.put(lines.get(i).substring(0, firstColonIndex), i);
+            }
+        }
+    }
 
-        try {
-            loadOptionsFromFile(getOptionsFilePath(gameDir));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private static void apply(String key, String value) {
+        String line = key + OPTION_SEPARATOR + value;
+        Integer index = lineIndex.get(key);
+        if (index == null) {
+            lineIndex.put(key, lines.size());
+            lines.add(line);
+        } else {
+            lines.set(index, line);
         }
     }
 
-    public static void setOption(String key, String value) {
-        parameterMap.put(key, value);
+    public static synchronized void setOption(String key, String value) {
+        if (value.equals(getOption(key))) {
+            return;
+        }
+        apply(key, value);
+        edits.put(key, value);
     }
 
     public static void setOption(String key, List<String> values) {
-        parameterMap.put(key, values.toString());
+        setOption(key, values.toString());
     }
 
-    public static String getOption(String key) {
-        return parameterMap.get(key);
+    public static synchronized String getOption(String key) {
+        Integer index = lineIndex.get(key);
+        if (index == null) {
+            return null;
+        }
+        String value = lines.get(index).substring(key.length() + OPTION_SEPARATOR.length());
+        return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
     }
 
     public static List<String> getOptionAsList(String key) {
@@ -80,26 +162,77 @@ public class MCOptionUtils {
         return Arrays.asList(value.replace("[", "").replace("]", "").split(VALUE_SEPARATOR));
     }
 
-    public static void saveOptions(String gameDir) {
+    public static int getIntOption(String key, int defaultValue) {
+        String value = getOption(key);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBooleanOption(String key, boolean defaultValue) {
+        String value = getOption(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    public static int getGuiScale() {
+        return getIntOption("guiScale", DEFAULT_GUI_SCALE);
+    }
+
+    public static void setGuiScale(int guiScale) {
+        setOption("guiScale", String.valueOf(guiScale));
+    }
+
+    public static int getRenderDistance() {
+        return getIntOption("renderDistance", DEFAULT_RENDER_DISTANCE);
+    }
+
+    public static void setRenderDistance(int renderDistance) {
+        setOption("renderDistance", String.valueOf(renderDistance));
+    }
+
+    public static boolean isFullscreen() {
+        return getBooleanOption("fullscreen", false);
+    }
+
+    public static void setFullscreen(boolean fullscreen) {
+        setOption("fullscreen", String.valueOf(fullscreen));
+    }
+
+    /**
+     * Write the options set since the last save, if any, on top of the current file.
+     */
+    public static synchronized void saveOptions(String gameDir) {
+        if (edits.isEmpty()) {
+            return;
+        }
+        File file = getOptionsFile(gameDir);
+        if (!gameDir.equals(loadedGameDir) || file.lastModified() != loadedModified || file.length() != loadedLength) {
+            read(gameDir);
+        }
+
         StringBuilder result = new StringBuilder();
-        for (String key : parameterMap.keySet()) {
-            result.append(key)
-                    .append(OPTION_SEPARATOR)
-                    .append(parameterMap.get(key))
-                    .append(LINE_SEPARATOR);
+        for (String line : lines) {
+            result.append(line).append(LINE_SEPARATOR);
         }
+        String content = result.toString();
 
         try {
-            H2CO3Tools.write(getOptionsFilePath(gameDir), result.toString());
+            FileTools.saveSafely(file.toPath(), content);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        // Remembered so the file observer recognizes this write as ours
+        loadedContent = content;
+        loadedModified = file.lastModified();
+        loadedLength = file.length();
+        edits.clear();
     }
 
     public static int getMcScale(String gameDir) {
         loadOptions(gameDir);
-        String str = getOption("guiScale");
-        int guiScale = (str == null ? DEFAULT_GUI_SCALE : Integer.parseInt(str));
+        int guiScale = getGuiScale();
 
         int scale = Math.min(1920 / 320, 1080 / 240);
         if (scale < guiScale || guiScale == DEFAULT_GUI_SCALE) {
@@ -110,17 +243,34 @@ public class MCOptionUtils {
     }
 
     private static void setupFileObserver(String gameDir) {
-        fileObserver = new FileObserver(getOptionsFilePath(gameDir), FileObserver.MODIFY) {
+        if (fileObserver != null) {
+            fileObserver.stopWatching();
+        }
+        observedGameDir = gameDir;
+        // The directory is watched, the file itself is replaced on every save
+        fileObserver = new FileObserver(gameDir, FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO) {
             @Override
             public void onEvent(int i, @Nullable String s) {
-                loadOptions(gameDir);
-                notifyListeners();
+                if (OPTIONS_FILE_NAME.equals(s)) {
+                    handler.removeCallbacks(reloadTask);
+                    handler.postDelayed(reloadTask, RELOAD_DELAY_MILLIS);
+                }
             }
         };
 
         fileObserver.startWatching();
     }
 
+    private static void reloadChangedFile() {
+        boolean changed;
+        synchronized (MCOptionUtils.class) {
+            changed = observedGameDir != null && read(observedGameDir);
+        }
+        if (changed) {
+            notifyListeners();
+        }
+    }
+
     public static void notifyListeners() {
         for (WeakReference<MCOptionListener> weakReference : optionListeners) {
             MCOptionListener optionListener = weakReference.get();
@@ -147,4 +297,4 @@ public class MCOptionUtils {
     public interface MCOptionListener {
         void onOptionChanged();
     }
-}
\ No newline at end of file
+}
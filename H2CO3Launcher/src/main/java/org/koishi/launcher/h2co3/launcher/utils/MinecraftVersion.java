@@ -35,11 +35,15 @@ public class MinecraftVersion {
     private Arguments arguments;
     private String inheritsFrom;
     private String minecraftPath;
+    private transient List<File> sourceFiles;
 
     public static MinecraftVersion fromDirectory(File file) {
-        String json = new String(FileTools.readFile(new File(file, file.getName() + ".json")), StandardCharsets.UTF_8);
+        File jsonFile = new File(file, file.getName() + ".json");
+        String json = new String(FileTools.readFile(jsonFile), StandardCharsets.UTF_8);
         MinecraftVersion result = new Gson().fromJson(json, MinecraftVersion.class);
         result.minecraftPath = new File(file, file.getName() + ".jar").getAbsolutePath();
+        result.sourceFiles = new ArrayList<>();
+        result.sourceFiles.add(jsonFile);
 
         if (result.inheritsFrom != null && !result.inheritsFrom.isEmpty()) {
             MinecraftVersion self = result;
@@ -84,6 +88,7 @@ public class MinecraftVersion {
             if (!self.minecraftPath.isEmpty()) {
                 result.minecraftPath = self.minecraftPath;
             }
+            result.sourceFiles.addAll(self.sourceFiles);
         }
         result.minecraftArguments = "--username ${auth_player_name} --version ${version_name} --gameDir ${game_directory} --assetsDir ${assets_root} --assetIndex ${assets_index_name} --uuid ${auth_uuid} --accessToken ${auth_access_token} --userProperties ${user_properties} --userType ${user_type} --versionType ${version_type}";
 
@@ -110,130 +115,127 @@ public class MinecraftVersion {
     }
 
     public String[] getJVMArguments() {
-        StringBuilder test = new StringBuilder();
-        if (arguments != null && arguments.jvm != null) {
-            for (Object obj : this.arguments.jvm) {
-                if (obj instanceof String && !((String) obj).startsWith("-Djava.library.path") && !((String) obj).startsWith("-cp") && !((String) obj).startsWith("${classpath}")) {
-                    test.append(obj).append(" ");
-                }
-            }
-        } else {
+        String template = getJVMArgumentsTemplate();
+        if (template == null) {
             return new String[0];
         }
-        StringBuilder result = new StringBuilder();
-
-        int state = 0;
-        int start = 0;
-        int stop;
-        for (int i = 0; i < test.length(); i++) {
-            if (state == 0) {
-                if (test.charAt(i) != '$') {
-                    result.append(test.charAt(i));
-                } else {
-                    if (i + 1 < test.length() && test.charAt(i + 1) == '{') {
-                        state = 1;
-                        start = i;
-                    } else {
-                        result.append(test.charAt(i));
-                    }
-                }
-            } else {
-                if (test.charAt(i) == '}') {
-                    stop = i;
-                    String key = test.substring(start + 2, stop);
-                    String value = switch (key) {
-                        case "version_name" -> id;
-                        case "launcher_name" -> "Boat_H2CO3";
-                        case "launcher_version" -> "1.0.0";
-                        case "version_type" -> type;
-                        case "assets_index_name" -> assetIndex != null ? assetIndex.id : assets;
-                        case "game_directory" -> H2CO3GameHelper.getGameDirectory();
-                        case "assets_root" -> H2CO3GameHelper.getGameAssetsRoot();
-                        case "user_properties" -> H2CO3Auth.getUserProperties();
-                        case "auth_player_name" -> H2CO3Auth.getPlayerName();
-                        case "auth_session" -> H2CO3Auth.getAuthSession();
-                        case "auth_uuid" -> H2CO3Auth.getAuthUUID();
-                        case "auth_access_token" -> H2CO3Auth.getAuthAccessToken();
-                        case "user_type" -> H2CO3Auth.getUserType();
-                        case "primary_jar_name" ->
-                                H2CO3GameHelper.getGameCurrentVersion() + "/" + id + ".jar";
-                        case "library_directory" -> H2CO3GameHelper.getGameDirectory() + "/libraries";
-                        case "classpath_separator" -> ":";
-                        default -> "0";
-                    };
-                    result.append(value);
-                    state = 0;
-                }
-            }
-        }
-        return result.toString().split(" ");
+        return substitute(template, id, type, getAssetsIndexName()).split(" ");
     }
 
     public String[] getMinecraftArguments(boolean isHighVer) {
-        StringBuilder test = new StringBuilder();
-        if (isHighVer) {
-            for (Object obj : this.arguments.game) {
-                if (obj instanceof String) {
-                    test.append(obj).append(" ");
-                }
+        String result = substitute(getMinecraftArgumentsTemplate(isHighVer), id, type, getAssetsIndexName());
+        return (result + getExtraMinecraftArguments(isHighVer)).split(" ");
+    }
+
+    /**
+     * @return the JVM arguments with their {@code ${...}} placeholders still in place, or null if there are none
+     */
+    public String getJVMArgumentsTemplate() {
+        if (arguments == null || arguments.jvm == null) {
+            return null;
+        }
+        StringBuilder template = new StringBuilder();
+        for (Object obj : this.arguments.jvm) {
+            if (obj instanceof String && !((String) obj).startsWith("-Djava.library.path") && !((String) obj).startsWith("-cp") && !((String) obj).startsWith("${classpath}")) {
+                template.append(obj).append(" ");
             }
-        } else {
-            test = new StringBuilder(this.minecraftArguments);
         }
-        StringBuilder result = new StringBuilder();
+        return template.toString();
+    }
 
-        int state = 0;
-        int start = 0;
-        int stop;
-        for (int i = 0; i < test.length(); i++) {
-            if (state == 0) {
-                if (test.charAt(i) != '$') {
-                    result.append(test.charAt(i));
-                } else {
-                    if (i + 1 < test.length() && test.charAt(i + 1) == '{') {
-                        state = 1;
-                        start = i;
-                    } else {
-                        result.append(test.charAt(i));
-                    }
-                }
-            } else {
-                if (test.charAt(i) == '}') {
-                    stop = i;
-                    String key = test.substring(start + 2, stop);
-                    String value = switch (key) {
-                        case "version_name" -> id;
-                        case "launcher_name" -> "Boat_H2CO3";
-                        case "launcher_version" -> "1.0.0";
-                        case "version_type" -> type;
-                        case "assets_index_name" -> assetIndex != null ? assetIndex.id : assets;
-                        case "game_directory" -> H2CO3GameHelper.getGameDirectory();
-                        case "assets_root" -> H2CO3GameHelper.getGameAssetsRoot();
-                        case "user_properties" -> H2CO3Auth.getUserProperties();
-                        case "auth_player_name" -> H2CO3Auth.getPlayerName();
-                        case "auth_session" -> H2CO3Auth.getAuthSession();
-                        case "auth_uuid" -> H2CO3Auth.getAuthUUID();
-                        case "auth_access_token" -> H2CO3Auth.getAuthAccessToken();
-                        case "user_type" -> H2CO3Auth.getUserType();
-                        case "primary_jar_name" ->
-                                H2CO3GameHelper.getGameCurrentVersion() + "/" + id + ".jar";
-                        case "library_directory" -> H2CO3GameHelper.getGameDirectory() + "/libraries";
-                        case "classpath_separator" -> ":";
-                        default -> "0";
-                    };
-                    result.append(value);
-                    state = 0;
-                }
+    public String getMinecraftArgumentsTemplate(boolean isHighVer) {
+        if (!isHighVer) {
+            return this.minecraftArguments;
+        }
+        StringBuilder template = new StringBuilder();
+        for (Object obj : this.arguments.game) {
+            if (obj instanceof String) {
+                template.append(obj).append(" ");
             }
         }
+        return template.toString();
+    }
+
+    /**
+     * Old versions get the modern game arguments appended verbatim, without placeholder substitution.
+     */
+    public String getExtraMinecraftArguments(boolean isHighVer) {
+        StringBuilder extra = new StringBuilder();
         if (!isHighVer && arguments != null && arguments.game != null) {
             for (Object obj : this.arguments.game) {
                 if (obj instanceof String) {
-                    result.append(" ").append(obj);
+                    extra.append(" ").append(obj);
                 }
             }
         }
-        return result.toString().split(" ");
+        return extra.toString();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getAssetsIndexName() {
+        return assetIndex != null ? assetIndex.id : assets;
+    }
+
+    /**
+     * @return the version JSON files this version was merged from, parents first
+     */
+    public List<File> getSourceFiles() {
+        return sourceFiles;
+    }
+
+    /**
+     * Replace every {@code ${key}} in {@code template}; a {@code $} not followed by {@code {}
+     * is kept as is and an unterminated placeholder is dropped.
+     */
+    public static String substitute(String template, String id, String type, String assetsIndexName) {
+        StringBuilder result = new StringBuilder(template.length() + 256);
+        int length = template.length();
+        int i = 0;
+        while (i < length) {
+            char c = template.charAt(i);
+            if (c != '$' || i + 1 >= length || template.charAt(i + 1) != '{') {
+                result.append(c);
+                i++;
+                continue;
+            }
+            int stop = template.indexOf('}', i + 2);
+            if (stop < 0) {
+                break;
+            }
+            result.append(resolvePlaceholder(template.substring(i + 2, stop), id, type, assetsIndexName));
+            i = stop + 1;
+        }
+        return result.toString();
+    }
+
+    private static String resolvePlaceholder(String key, String id, String type, String assetsIndexName) {
+        return switch (key) {
+            case "version_name" -> id;
+            case "launcher_name" -> APP_NAME;
+            case "launcher_version" -> LAUNCHER_VERSION;
+            case "version_type" -> type;
+            case "assets_index_name" -> assetsIndexName;
+            case "game_directory" -> H2CO3GameHelper.getGameDirectory();
+            case "assets_root" -> H2CO3GameHelper.getGameAssetsRoot();
+            case "user_properties" -> H2CO3Auth.getUserProperties();
+            case "auth_player_name" -> H2CO3Auth.getPlayerName();
+            case "auth_session" -> H2CO3Auth.getAuthSession();
+            case "auth_uuid" -> H2CO3Auth.getAuthUUID();
+            case "auth_access_token" -> H2CO3Auth.getAuthAccessToken();
+            case "user_type" -> H2CO3Auth.getUserType();
+            case "primary_jar_name" ->
+                    H2CO3GameHelper.getGameCurrentVersion() + "/" + id + ".jar";
+            case "library_directory" -> H2CO3GameHelper.getGameDirectory() + "/libraries";
+            case "classpath_separator" -> CLASSPATH_SEPARATOR;
+            default -> DEFAULT_VALUE;
+        };
     }
 
     public List<String> getLibraries() {
@@ -0,0 +1,148 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures what queuing one input event costs the UI thread: bytes allocated, CPU time, and calls into the
+ * native event queue, here a counting {@link InputEventQueue.Sink}. CPU time of the calling thread leaves out
+ * the dispatcher, which runs on another core on a device.
+ * <p>
+ * "Before" repeats the per-event work of the BaseKeyEvent path the controllers used: an event object per
+ * touch, split key names with an event object per name, a name lookup, and one native call per event on the
+ * UI thread. "After" pushes pre-resolved codes into an {@link InputEventQueue}, as GameButton and the bridge
+ * do now. The events repeat a drag: six pointer moves, then a key press and release.
+ * <p>
+ * Not a test, run {@link #main} from the unit test source set on a HotSpot JVM, which reports per-thread
+ * allocation. Arguments: events (default 2000000) and repetitions (default 5); the first repetition warms up
+ * and is not reported. The events are queued as fast as possible, so the ring fills and the UI thread drains
+ * it now and then, which real input at a few hundred events a second does not do.
+ */
+public class InputEventQueueBenchmark {
+
+    // The constants of the app module's KeyEvent and KeyMap definitions
+    private static final String TAG = "GameButton";
+    private static final int KEYBOARD_BUTTON = 11;
+    private static final int MOUSE_POINTER_INC = 15;
+    private static final String MARK_KEYNAME_SPLIT = "\\|";
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private final Map<String, Integer> translation = new HashMap<>();
+
+    private InputEventQueueBenchmark() {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            translation.put(String.valueOf(c), (int) c);
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        InputEventQueueBenchmark benchmark = new InputEventQueueBenchmark();
+        InputEventQueue queue = new InputEventQueue(Thread.currentThread(), benchmark.new CountingSink());
+
+        for (int r = 0; r < repetitions; r++) {
+            benchmark.calls.set(0);
+            long allocated = allocatedBytes();
+            long start = THREADS.getCurrentThreadCpuTime();
+            for (int i = 0; i < count; i++) {
+                benchmark.sendBefore(i);
+            }
+            long beforeNanos = THREADS.getCurrentThreadCpuTime() - start;
+            long beforeBytes = allocatedBytes() - allocated;
+            long beforeCalls = benchmark.calls.get();
+
+            benchmark.calls.set(0);
+            benchmark.events.set(0);
+            allocated = allocatedBytes();
+            start = THREADS.getCurrentThreadCpuTime();
+            for (int i = 0; i < count; i++) {
+                sendAfter(queue, i);
+            }
+            long afterNanos = THREADS.getCurrentThreadCpuTime() - start;
+            long afterBytes = allocatedBytes() - allocated;
+            queue.flush();
+            long afterCalls = benchmark.calls.get();
+
+            if (r > 0) {
+                System.out.printf(Locale.ROOT, "%d events%n", count);
+                System.out.printf(Locale.ROOT, "  before: %.1f B/event, %.1f ns CPU/event, %.3f native calls/event%n",
+                        (double) beforeBytes / count, (double) beforeNanos / count, (double) beforeCalls / count);
+                System.out.printf(Locale.ROOT, "  after:  %.3f B/event, %.1f ns CPU/event, %.3f native calls/event, %.3f events pushed/event%n",
+                        (double) afterBytes / count, (double) afterNanos / count, (double) afterCalls / count,
+                        (double) benchmark.events.get() / count);
+            }
+        }
+    }
+
+    private void sendBefore(int i) {
+        int step = i & 7;
+        if (step < 6) {
+            KeyEvent e = new KeyEvent(TAG, null, false, MOUSE_POINTER_INC, new int[]{step, -step});
+            push(System.nanoTime(), H2CO3LauncherBridge.MotionNotify, e.pointer[0], e.pointer[1]);
+            return;
+        }
+        KeyEvent e = new KeyEvent(TAG, "W", step == 6, KEYBOARD_BUTTON, null);
+        for (String name : e.keyName.split(MARK_KEYNAME_SPLIT)) {
+            KeyEvent single = new KeyEvent(e.tag, name, e.pressed, e.type, e.pointer);
+            push(System.nanoTime(), single.pressed ? H2CO3LauncherBridge.KeyPress : H2CO3LauncherBridge.KeyRelease,
+                    translation.get(single.keyName), 0);
+        }
+    }
+
+    private static void sendAfter(InputEventQueue queue, int i) {
+        int step = i & 7;
+        if (step < 6) {
+            queue.push(System.nanoTime(), H2CO3LauncherBridge.MotionNotify, step, -step);
+        } else {
+            queue.push(System.nanoTime(), step == 6 ? H2CO3LauncherBridge.KeyPress : H2CO3LauncherBridge.KeyRelease, 'W', 0);
+        }
+    }
+
+    private void push(long time, int type, int p1, int p2) {
+        calls.incrementAndGet();
+        events.incrementAndGet();
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private class CountingSink implements InputEventQueue.Sink {
+        @Override
+        public void push(long time, int type, int p1, int p2) {
+            InputEventQueueBenchmark.this.push(time, type, p1, p2);
+        }
+
+        @Override
+        public void pushEvents(long[] times, int[] params, int count) {
+            calls.incrementAndGet();
+            events.addAndGet(count);
+        }
+    }
+
+    /**
+     * The fields of the app module's BaseKeyEvent.
+     */
+    private static final class KeyEvent {
+        final String tag;
+        final String keyName;
+        final boolean pressed;
+        final int type;
+        final int[] pointer;
+
+        KeyEvent(String tag, String keyName, boolean pressed, int type, int[] pointer) {
+            this.tag = tag;
+            this.keyName = keyName;
+            this.pressed = pressed;
+            this.type = type;
+            this.pointer = pointer;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.koishi.launcher.h2co3.core.utils.CommandBuilder;
+import org.koishi.launcher.h2co3.launcher.utils.JvmLaunchProfile.Device;
+import org.koishi.launcher.h2co3.launcher.utils.JvmLaunchProfile.JavaRuntime;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class JvmLaunchProfileTest {
+
+    private static final JavaRuntime JAVA_8 = new JavaRuntime(8, "Eclipse Adoptium", true, false);
+    private static final JavaRuntime JAVA_11 = new JavaRuntime(11, "Eclipse Adoptium", true, false);
+    private static final JavaRuntime JAVA_17 = new JavaRuntime(17, "Eclipse Adoptium", true, true);
+    private static final JavaRuntime JAVA_21 = new JavaRuntime(21, "Eclipse Adoptium", true, true);
+    private static final JavaRuntime JAVA_21_WITHOUT_SHENANDOAH = new JavaRuntime(21, "Eclipse Adoptium", true, false);
+    private static final JavaRuntime JAVA_8_32 = new JavaRuntime(8, "Eclipse Adoptium", false, false);
+
+    @Test
+    public void lowMemoryDeviceGetsSmallHeapAndParallelGC() {
+        Device device = new Device(4096, 2560, 4, true);
+        assertEquals(JvmLaunchProfile.LOW_MEMORY, JvmLaunchProfile.AUTO.select(device));
+        assertEquals(Arrays.asList(
+                "-Xms256M",
+                "-Xmx1024M",
+                "-XX:+UseParallelGC",
+                "-XX:ParallelGCThreads=2",
+                "-XX:MetaspaceSize=128M"
+        ), JvmLaunchProfile.AUTO.resolve(device, JAVA_8));
+    }
+
+    @Test
+    public void midRangeDeviceGetsG1() {
+        Device device = new Device(8192, 5120, 8, true);
+        assertEquals(JvmLaunchProfile.BALANCED, JvmLaunchProfile.AUTO.select(device));
+        assertEquals(Arrays.asList(
+                "-Xms704M",
+                "-Xmx2816M",
+                "-XX:+UseG1GC",
+                "-XX:MaxGCPauseMillis=50",
+                "-XX:ParallelGCThreads=4",
+                "-XX:ConcGCThreads=2",
+                "-XX:MetaspaceSize=256M"
+        ), JvmLaunchProfile.AUTO.resolve(device, JAVA_17));
+    }
+
+    @Test
+    public void highEndDeviceGetsShenandoah() {
+        Device device = new Device(12288, 8192, 8, true);
+        assertEquals(JvmLaunchProfile.PERFORMANCE, JvmLaunchProfile.AUTO.select(device));
+        assertEquals(Arrays.asList(
+                "-Xms1344M",
+                "-Xmx5504M",
+                "-XX:+UseShenandoahGC",
+                "-XX:ParallelGCThreads=6",
+                "-XX:ConcGCThreads=3",
+                "-XX:MetaspaceSize=256M"
+        ), JvmLaunchProfile.AUTO.resolve(device, JAVA_21));
+    }
+
+    @Test
+    public void runtimeWithoutShenandoahFallsBackToG1() {
+        Device device = new Device(12288, 8192, 8, true);
+        assertEquals(Arrays.asList(
+                "-Xms1344M",
+                "-Xmx5504M",
+                "-XX:+UseG1GC",
+                "-XX:MaxGCPauseMillis=30",
+                "-XX:ParallelGCThreads=6",
+                "-XX:ConcGCThreads=3",
+                "-XX:MetaspaceSize=256M"
+        ), JvmLaunchProfile.AUTO.resolve(device, JAVA_21_WITHOUT_SHENANDOAH));
+    }
+
+    @Test
+    public void thirtyTwoBitDeviceIsLowMemory() {
+        Device device = new Device(3072, 2048, 8, false);
+        assertEquals(JvmLaunchProfile.LOW_MEMORY, JvmLaunchProfile.AUTO.select(device));
+        assertEquals(Arrays.asList(
+                "-Xms256M",
+                "-Xmx768M",
+                "-XX:+UseParallelGC",
+                "-XX:ParallelGCThreads=2",
+                "-XX:MetaspaceSize=128M"
+        ), JvmLaunchProfile.AUTO.resolve(device, JAVA_8_32));
+    }
+
+    @Test
+    public void thirtyTwoBitRuntimeCapsHeap() {
+        Device device = new Device(8192, 6144, 8, true);
+        assertEquals(Arrays.asList(
+                "-Xms256M",
+                "-Xmx1024M",
+                "-XX:+UseG1GC",
+                "-XX:MaxGCPauseMillis=30",
+                "-XX:ParallelGCThreads=6",
+                "-XX:ConcGCThreads=3",
+                "-XX:+ParallelRefProcEnabled",
+                "-XX:MetaspaceSize=128M"
+        ), JvmLaunchProfile.PERFORMANCE.resolve(device, JAVA_8_32));
+    }
+
+    @Test
+    public void metaspaceSizeDependsOnJavaVersion() {
+        Device device = new Device(8192, 5120, 8, true);
+        assertEquals("-XX:MetaspaceSize=128M", last(JvmLaunchProfile.AUTO.resolve(device, JAVA_8)));
+        assertEquals("-XX:MetaspaceSize=192M", last(JvmLaunchProfile.AUTO.resolve(device, JAVA_11)));
+        assertEquals("-XX:MetaspaceSize=256M", last(JvmLaunchProfile.AUTO.resolve(device, JAVA_17)));
+        assertEquals("-XX:MetaspaceSize=256M", last(JvmLaunchProfile.AUTO.resolve(device, JAVA_21)));
+        for (JvmLaunchProfile profile : JvmLaunchProfile.values()) {
+            for (String flag : profile.resolve(device, JAVA_17)) {
+                assertFalse("no hard metaspace limit", flag.startsWith("-XX:MaxMetaspaceSize"));
+            }
+        }
+    }
+
+    @Test
+    public void applyKeepsExistingOptions() {
+        CommandBuilder args = new CommandBuilder().add("-Xmx2048M", "-XX:+UseZGC");
+        List<String> flags = JvmLaunchProfile.AUTO.resolve(new Device(8192, 5120, 8, true), JAVA_17);
+        JvmLaunchProfile.apply(args, flags);
+        assertEquals(Arrays.asList(
+                "-Xmx2048M",
+                "-XX:+UseZGC",
+                "-Xms704M",
+                "-XX:MaxGCPauseMillis=50",
+                "-XX:ParallelGCThreads=4",
+                "-XX:ConcGCThreads=2",
+                "-XX:MetaspaceSize=256M"
+        ), args.asList());
+    }
+
+    private static String last(List<String> flags) {
+        return flags.get(flags.size() - 1);
+    }
+
+    @Test
+    public void parsesMajorVersions() {
+        assertEquals(8, JavaRuntime.parseMajorVersion("1.8.0_402"));
+        assertEquals(17, JavaRuntime.parseMajorVersion("17.0.10"));
+        assertEquals(21, JavaRuntime.parseMajorVersion("21"));
+        assertEquals(0, JavaRuntime.parseMajorVersion(null));
+    }
+}
@@ -0,0 +1,193 @@
+package org.koishi.launcher.h2co3.launcher.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.koishi.launcher.h2co3.core.utils.CommandBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class LaunchModeTest {
+
+    private LaunchMode.StateStore originalStore;
+    private Supplier<File> originalErrorFileDir;
+    private FakeStore store;
+    private File errorFileDir;
+
+    @Before
+    public void setUp() throws IOException {
+        originalStore = LaunchMode.store;
+        originalErrorFileDir = LaunchMode.errorFileDir;
+        store = new FakeStore();
+        errorFileDir = Files.createTempDirectory("launch-mode").toFile();
+        LaunchMode.store = store;
+        LaunchMode.errorFileDir = () -> errorFileDir;
+    }
+
+    @After
+    public void tearDown() {
+        LaunchMode.store = originalStore;
+        LaunchMode.errorFileDir = originalErrorFileDir;
+        File[] files = errorFileDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        errorFileDir.delete();
+    }
+
+    @Test
+    public void performanceArguments() {
+        CommandBuilder args = new CommandBuilder();
+        LaunchMode.PERFORMANCE.addArguments(args);
+        assertEquals(Arrays.asList(
+                "-Dorg.lwjgl.util.Debug=false",
+                "-Dorg.lwjgl.util.DebugLoader=false",
+                "-Dorg.lwjgl.util.DebugAllocator=false",
+                "-Dorg.lwjgl.util.NoChecks=true",
+                "-XX:ErrorFile=" + errorFileDir.getPath() + "/hs_err_pid%p.log"
+        ), args.asList());
+    }
+
+    @Test
+    public void diagnosticArguments() {
+        CommandBuilder args = new CommandBuilder();
+        LaunchMode.DIAGNOSTIC.addArguments(args);
+        assertEquals(Arrays.asList(
+                "-Dorg.lwjgl.util.Debug=true",
+                "-Dorg.lwjgl.util.DebugLoader=true",
+                "-Dorg.lwjgl.util.DebugAllocator=true",
+                "-Dorg.lwjgl.util.NoChecks=false",
+                "-XX:ErrorFile=" + errorFileDir.getPath() + "/hs_err_pid%p.log"
+        ), args.asList());
+    }
+
+    @Test
+    public void argumentsAlreadySetWin() {
+        CommandBuilder args = new CommandBuilder().add("-Dorg.lwjgl.util.Debug=true");
+        LaunchMode.PERFORMANCE.addArguments(args);
+        assertEquals(Arrays.asList(
+                "-Dorg.lwjgl.util.Debug=true",
+                "-Dorg.lwjgl.util.DebugLoader=false",
+                "-Dorg.lwjgl.util.DebugAllocator=false",
+                "-Dorg.lwjgl.util.NoChecks=true",
+                "-XX:ErrorFile=" + errorFileDir.getPath() + "/hs_err_pid%p.log"
+        ), args.asList());
+    }
+
+    @Test
+    public void cleanExitKeepsSelectedMode() {
+        assertEquals(LaunchMode.PERFORMANCE, LaunchMode.forNextLaunch());
+
+        LaunchMode.onLaunchStarted();
+        exit(0);
+        assertEquals(LaunchMode.PERFORMANCE, LaunchMode.forNextLaunch());
+    }
+
+    @Test
+    public void nonZeroExitMakesOnlyTheNextLaunchDiagnostic() {
+        LaunchMode.onLaunchStarted();
+        exit(1);
+        assertEquals(LaunchMode.DIAGNOSTIC, LaunchMode.forNextLaunch());
+
+        // The diagnostic run is closed from recents
+        LaunchMode.onLaunchStarted();
+        killed();
+        assertEquals(LaunchMode.PERFORMANCE, LaunchMode.forNextLaunch());
+    }
+
+    @Test
+    public void closedFromRecentsIsNotACrash() {
+        LaunchMode.onLaunchStarted();
+        killed();
+        assertEquals(LaunchMode.PERFORMANCE, LaunchMode.forNextLaunch());
+    }
+
+    @Test
+    public void fatalErrorLogIsACrash() throws IOException {
+        LaunchMode.onLaunchStarted();
+        File errorFile = new File(errorFileDir, "hs_err_pid1234.log");
+        assertTrue(errorFile.createNewFile());
+        killed();
+        assertEquals(LaunchMode.DIAGNOSTIC, LaunchMode.forNextLaunch());
+    }
+
+    @Test
+    public void fatalErrorLogOfAnEarlierLaunchIsIgnored() throws IOException {
+        File errorFile = new File(errorFileDir, "hs_err_pid1234.log");
+        assertTrue(errorFile.createNewFile());
+        assertTrue(errorFile.setLastModified(System.currentTimeMillis() - 60_000));
+        LaunchMode.onLaunchStarted();
+        killed();
+        assertEquals(LaunchMode.PERFORMANCE, LaunchMode.forNextLaunch());
+    }
+
+    @Test
+    public void selectedDiagnosticStays() {
+        LaunchMode.setSelected(LaunchMode.DIAGNOSTIC);
+        LaunchMode.onLaunchStarted();
+        exit(0);
+        assertEquals(LaunchMode.DIAGNOSTIC, LaunchMode.forNextLaunch());
+    }
+
+    /**
+     * What the bridge does when the game exits: record the exit and flush the config.
+     */
+    private void exit(int exitCode) {
+        LaunchMode.onLaunchExited(exitCode);
+        store.flush();
+        store.restart();
+    }
+
+    /**
+     * The process ends without reporting its exit, after its activity was paused and flushed the config.
+     */
+    private void killed() {
+        store.flush();
+        store.restart();
+    }
+
+    /**
+     * Keeps changes in memory until flushed, like the write-behind launcher config.
+     */
+    private static class FakeStore implements LaunchMode.StateStore {
+        private final Map<String, Object> disk = new HashMap<>();
+        private final Map<String, Object> pending = new HashMap<>();
+
+        @Override
+        public <T> T get(String key, T defaultValue, Class<T> type) {
+            if (pending.containsKey(key)) {
+                return type.cast(pending.get(key));
+            }
+            return disk.containsKey(key) ? type.cast(disk.get(key)) : defaultValue;
+        }
+
+        @Override
+        public void set(String key, Serializable value) {
+            pending.put(key, value);
+        }
+
+        void flush() {
+            disk.putAll(pending);
+            pending.clear();
+        }
+
+        /**
+         * Lose what was not flushed, as when the process ends.
+         */
+        void restart() {
+            pending.clear();
+        }
+    }
+}
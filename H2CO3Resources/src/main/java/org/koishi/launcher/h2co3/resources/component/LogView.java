@@ -13,8 +13,7 @@ import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.RoundRectShape;
-import android.os.Handler;
-import android.view.View;
+import android.text.Editable;
 import android.view.ViewGroup;
 import android.widget.ScrollView;
 import android.widget.TextView;
@@ -25,7 +24,14 @@ import org.koishi.launcher.h2co3.core.login.utils.DisplayUtils;
 
 public class LogView extends ScrollView {
 
+    // Older text is trimmed so layout and line numbering stay cheap in long sessions
+    private static final int MAX_CHARS = 64 * 1024;
+
     private final TextView mTextView;
+    // Text received since the last frame, shared with the log thread
+    private final StringBuilder pending = new StringBuilder();
+    private boolean flushScheduled;
+    private final Runnable flushTask = this::flushPending;
 
     public LogView(@NonNull Context context) {
         super(context);
@@ -38,24 +44,48 @@ public class LogView extends ScrollView {
         mTextView.setTextIsSelectable(true);
         mTextView.setTextSize(DisplayUtils.getPxFromSp(context, 10));
         mTextView.setLineSpacing(0, 1f);
+        mTextView.setText("", TextView.BufferType.EDITABLE);
     }
 
+    /**
+     * Queue {@code str} for display. May be called from any thread; the text view is updated at most
+     * once per frame with everything received since the last one.
+     */
     public void appendLog(String str) {
-        this.post(() -> {
-            if (mTextView != null) {
-                LogView.this.mTextView.append(str);
-                new Handler().postDelayed(() -> toBottom(LogView.this, mTextView), 50);
+        synchronized (pending) {
+            pending.append(str);
+            if (pending.length() > MAX_CHARS) {
+                pending.delete(0, pending.length() - MAX_CHARS);
+            }
+            if (flushScheduled) {
+                return;
             }
-        });
+            flushScheduled = true;
+        }
+        this.postOnAnimation(flushTask);
+    }
+
+    private void flushPending() {
+        String text;
+        synchronized (pending) {
+            text = pending.toString();
+            pending.setLength(0);
+            flushScheduled = false;
+        }
+        Editable editable = mTextView.getEditableText();
+        editable.append(text);
+        if (editable.length() > MAX_CHARS) {
+            editable.delete(0, editable.length() - MAX_CHARS);
+        }
+        this.post(this::toBottom);
     }
 
-    private void toBottom(final ScrollView scrollView, final View view) {
-        int offset = view.getHeight()
-                - scrollView.getHeight();
+    private void toBottom() {
+        int offset = mTextView.getHeight() - getHeight();
         if (offset < 0) {
             offset = 0;
         }
-        scrollView.scrollTo(0, offset);
+        scrollTo(0, offset);
     }
 
     private LayerDrawable getViewBackground() {
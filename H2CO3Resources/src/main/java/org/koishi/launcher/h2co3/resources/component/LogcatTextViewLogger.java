@@ -46,7 +46,8 @@ public class LogcatTextViewLogger implements Runnable {
                 while ((newlineIndex = log.indexOf("\n")) != -1) {
                     final String line = log.substring(0, newlineIndex);
                     log.delete(0, newlineIndex + 1);
-                    textView.post(() -> appendColoredText(line));
+                    // LogcatView accepts lines from any thread and refreshes once per frame
+                    appendColoredText(line);
                 }
             }
         } catch (IOException e) {
@@ -25,15 +25,39 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import org.koishi.launcher.h2co3.core.utils.logcat.LogStore;
 import org.koishi.launcher.h2co3.resources.R;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Shows the lines of a {@link LogStore}, optionally filtered by a {@link LogStore.Query}.
+ * <p>
+ * Lines may be added from any thread. The list is refreshed at most once per frame and only follows
+ * new lines while it is scrolled to the bottom. Filtering runs on a background thread and a newer
+ * filter cancels the running one.
+ */
 public class LogcatView extends RecyclerView {
 
+    public static final int DEFAULT_CAPACITY = 100000;
+    public static final long DEFAULT_MAX_CHARS = 8 * 1024 * 1024;
+
+    private final LogStore store = new LogStore(DEFAULT_CAPACITY, DEFAULT_MAX_CHARS);
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Logcat Search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object refreshLock = new Object();
+    private boolean refreshScheduled;
+    private final Runnable refreshTask = this::refresh;
     private LogcatAdapter adapter;
-    private int lastScrollPosition = 0;
+    private LogStore.Query query;
+    private AtomicBoolean searchCancelled;
+    private boolean searching;
 
     public LogcatView(Context context) {
         super(context);
@@ -56,34 +80,153 @@ public class LogcatView extends RecyclerView {
         setLayoutManager(new LinearLayoutManager(getContext()));
     }
 
+    public LogStore getStore() {
+        return store;
+    }
+
+    /**
+     * Add a line. May be called from any thread.
+     */
     public void addLog(String log) {
-        lastScrollPosition = ((LinearLayoutManager) getLayoutManager()).findLastVisibleItemPosition();
-        adapter.addLog(log);
-        scrollToPosition(adapter.getItemCount() - 1);
+        store.add(log);
+        synchronized (refreshLock) {
+            if (refreshScheduled) {
+                return;
+            }
+            refreshScheduled = true;
+        }
+        postOnAnimation(refreshTask);
     }
 
     public void clearLogs() {
-        adapter.clearLogs();
+        store.clear();
+        setFilter(query);
     }
 
-    private class LogcatAdapter extends RecyclerView.Adapter<LogcatAdapter.LogViewHolder> {
+    /**
+     * Show only the lines matching {@code query}, or every line if it is null or empty.
+     */
+    public void setFilter(LogStore.Query query) {
+        this.query = query != null && !query.isEmpty() ? query : null;
+        if (searchCancelled != null) {
+            searchCancelled.set(true);
+            searchCancelled = null;
+        }
+        searching = false;
+        adapter.reset(this.query != null);
+        refresh();
+    }
 
-        private List<String> logs;
+    private void refresh() {
+        synchronized (refreshLock) {
+            refreshScheduled = false;
+        }
+        boolean atBottom = !canScrollVertically(1);
+        if (query == null) {
+            adapter.showAll(store.getFirstSeq(), store.getNextSeq());
+        } else if (!searching) {
+            // New lines are searched incrementally, from where the last search stopped
+            long fromSeq = adapter.searchedSeq;
+            long toSeq = store.getNextSeq();
+            if (fromSeq < toSeq) {
+                searching = true;
+                LogStore.Query searchQuery = query;
+                AtomicBoolean cancelled = new AtomicBoolean();
+                searchCancelled = cancelled;
+                searchExecutor.execute(() -> {
+                    long[] matches = store.search(searchQuery, fromSeq, toSeq, cancelled);
+                    if (matches != null) {
+                        post(() -> {
+                            if (!cancelled.get()) {
+                                boolean follow = !canScrollVertically(1);
+                                searching = false;
+                                adapter.appendMatches(matches, toSeq, store.getFirstSeq());
+                                followTail(follow);
+                                refresh();
+                            }
+                        });
+                    }
+                });
+            }
+        }
+        followTail(atBottom);
+    }
 
-        public LogcatAdapter() {
-            logs = new ArrayList<>();
+    private void followTail(boolean atBottom) {
+        if (atBottom && adapter.getItemCount() > 0) {
+            scrollToPosition(adapter.getItemCount() - 1);
         }
+    }
 
-        public void addLog(String log) {
-            logs.add(log);
-            notifyItemInserted(logs.size() - 1);
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (searchCancelled != null) {
+            searchCancelled.set(true);
         }
+    }
 
-        public void clearLogs() {
-            logs.clear();
+    private class LogcatAdapter extends RecyclerView.Adapter<LogcatAdapter.LogViewHolder> {
+
+        // Lines shown while unfiltered: [firstSeq, nextSeq)
+        private long firstSeq;
+        private long nextSeq;
+        // Lines shown while filtered
+        private boolean filtered;
+        private long[] matches = new long[0];
+        private int matchCount;
+        private long searchedSeq;
+
+        public void reset(boolean filtered) {
+            this.filtered = filtered;
+            matchCount = 0;
+            searchedSeq = store.getFirstSeq();
+            firstSeq = nextSeq = store.getFirstSeq();
             notifyDataSetChanged();
         }
 
+        public void showAll(long first, long next) {
+            int oldCount = getItemCount();
+            int removed = (int) Math.min(first - firstSeq, oldCount);
+            firstSeq = first;
+            nextSeq = next;
+            if (removed > 0) {
+                notifyItemRangeRemoved(0, removed);
+            }
+            int kept = oldCount - removed;
+            if (getItemCount() > kept) {
+                notifyItemRangeInserted(kept, getItemCount() - kept);
+            }
+        }
+
+        public void appendMatches(long[] found, long toSeq, long oldestSeq) {
+            // Drop matches the store has evicted since
+            int dropped = 0;
+            while (dropped < matchCount && matches[dropped] < oldestSeq) {
+                dropped++;
+            }
+            if (dropped > 0) {
+                System.arraycopy(matches, dropped, matches, 0, matchCount - dropped);
+                matchCount -= dropped;
+            }
+            if (matchCount + found.length > matches.length) {
+                matches = Arrays.copyOf(matches, Math.max(matchCount + found.length, matches.length * 2));
+            }
+            System.arraycopy(found, 0, matches, matchCount, found.length);
+            int oldCount = matchCount;
+            matchCount += found.length;
+            searchedSeq = toSeq;
+            if (dropped > 0) {
+                notifyDataSetChanged();
+            } else if (found.length > 0) {
+                notifyItemRangeInserted(oldCount, found.length);
+            }
+        }
+
+        private long seqAt(int position) {
+            return filtered ? matches[position] : firstSeq + position;
+        }
+
         @NonNull
         @Override
         public LogViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -93,16 +236,14 @@ public class LogcatView extends RecyclerView {
 
         @Override
         public void onBindViewHolder(@NonNull LogViewHolder holder, int position) {
-            String log = logs.get(position);
-            holder.logTextView.setText(log);
-            if (position != lastScrollPosition) {
-                scrollToPosition(lastScrollPosition);
-            }
+            // Null once evicted, the next refresh removes it
+            String log = store.get(seqAt(position));
+            holder.logTextView.setText(log != null ? log : "");
         }
 
         @Override
         public int getItemCount() {
-            return logs.size();
+            return filtered ? matchCount : (int) (nextSeq - firstSeq);
         }
 
         private class LogViewHolder extends RecyclerView.ViewHolder implements View.OnLongClickListener {
@@ -119,7 +260,10 @@ public class LogcatView extends RecyclerView {
             public boolean onLongClick(View v) {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION) {
-                    String log = logs.get(position);
+                    String log = store.get(seqAt(position));
+                    if (log == null) {
+                        return false;
+                    }
                     ClipboardManager clipboard = (ClipboardManager) getContext().getSystemService(Context.CLIPBOARD_SERVICE);
                     ClipData clip = ClipData.newPlainText("Log", log);
                     clipboard.setPrimaryClip(clip);
@@ -129,4 +273,4 @@ public class LogcatView extends RecyclerView {
             }
         }
     }
-}
\ No newline at end of file
+}
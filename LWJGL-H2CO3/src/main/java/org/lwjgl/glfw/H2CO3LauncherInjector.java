@@ -14,9 +14,13 @@ import static org.lwjgl.system.MemoryUtil.memAddressSafe;
 import org.lwjgl.system.JNI;
 import org.lwjgl.system.NativeType;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -47,6 +51,18 @@ public class H2CO3LauncherInjector {
     private static final int INJECTOR_MODE_ENABLE            = 1;
     private static final int INJECTOR_MODE_DISABLE           = 0;
 
+    private static final int HIT_RESULT_CODE_UNKNOWN         = 0;
+    private static final int HIT_RESULT_CODE_MISS            = 1;
+    private static final int HIT_RESULT_CODE_BLOCK           = 2;
+    private static final int HIT_RESULT_CODE_ENTITY          = 3;
+
+    private static final int RESOLVE_PENDING                 = 0;
+    private static final int RESOLVE_DONE                    = 1;
+    private static final int RESOLVE_FAILED                  = 2;
+
+    // Stands for a hit result class without the type member
+    private static final MethodHandle MISSING = MethodHandles.identity(Object.class);
+
     private static int level = 0;
     @Nullable
     private static String param0 = null;
@@ -57,6 +73,14 @@ public class H2CO3LauncherInjector {
     @Nullable
     private static String param3 = null;
 
+    private static volatile int resolveState = RESOLVE_PENDING;
+    private static MethodHandle minecraftGetter;
+    private static MethodHandle targetGetter;
+    // Hit result classes differ by kind on 1.13+, so the type getter is looked up per class
+    private static final Map<Class<?>, MethodHandle> typeGetters = new ConcurrentHashMap<>();
+    // Hit result types are enum constants, mapped by identity to their code
+    private static final Map<Object, Integer> typeCodes = new ConcurrentHashMap<>();
+
     public static void setClassLoader(ClassLoader classLoader) {
         String prop = System.getProperty("h2co3launcher.injector");
         if (!get && prop != null && !prop.isEmpty()) {
@@ -79,6 +103,9 @@ public class H2CO3LauncherInjector {
         H2CO3LauncherInjector.param1 = param1;
         H2CO3LauncherInjector.param2 = param2;
         H2CO3LauncherInjector.param3 = param3;
+        resolveState = RESOLVE_PENDING;
+        typeGetters.clear();
+        typeCodes.clear();
         get = true;
         H2CO3LauncherInjectorCallback callback = new H2CO3LauncherInjectorCallback() {
             @Override
@@ -100,79 +127,125 @@ public class H2CO3LauncherInjector {
     }
 
     public static void nglfwSetHitResultType(String type) {
-        int typeInt;
+        setHitResultType(hitResultCode(type));
+    }
+
+    private static int hitResultCode(String type) {
         switch (type) {
             case HIT_RESULT_TYPE_MISS:
-                typeInt = 1;
-                break;
+                return HIT_RESULT_CODE_MISS;
             case HIT_RESULT_TYPE_BLOCK:
             case HIT_RESULT_TYPE_BLOCK_OLD:
-                typeInt = 2;
-                break;
+                return HIT_RESULT_CODE_BLOCK;
             case HIT_RESULT_TYPE_ENTITY:
-                typeInt = 3;
-                break;
+                return HIT_RESULT_CODE_ENTITY;
             default:
-                typeInt = 0;
-                break;
+                return HIT_RESULT_CODE_UNKNOWN;
         }
-        JNI.invokeV(typeInt, H2CO3LauncherInjector.SetHitResultType);
+    }
+
+    private static void setHitResultType(int code) {
+        JNI.invokeV(code, H2CO3LauncherInjector.SetHitResultType);
     }
 
     public static void getHitResultType() {
         if (!get) {
-            nglfwSetHitResultType(HIT_RESULT_TYPE_UNKNOWN);
+            setHitResultType(HIT_RESULT_CODE_UNKNOWN);
             apiLog("H2CO3Launcher Injector not initialized!");
             return;
         }
         if (param0 != null && param1 != null && param2 != null && param3 != null) {
+            if (!resolve()) {
+                setHitResultType(HIT_RESULT_CODE_UNKNOWN);
+                return;
+            }
             Object type = null;
             boolean success = false;
             try {
+                Object minecraft = minecraftGetter.invokeExact();
+                Object target = targetGetter.invokeExact(minecraft);
+                if (target != null && (level == INJECTOR_LEVEL_2 || level == INJECTOR_LEVEL_3 || level == INJECTOR_LEVEL_4)) {
+                    MethodHandle typeGetter = typeGetters.get(target.getClass());
+                    if (typeGetter == null) {
+                        typeGetter = resolveTypeGetter(target.getClass());
+                        typeGetters.put(target.getClass(), typeGetter);
+                    }
+                    if (typeGetter == MISSING) {
+                        setHitResultType(HIT_RESULT_CODE_UNKNOWN);
+                        return;
+                    }
+                    type = typeGetter.invokeExact(target);
+                }
+                success = true;
+            } catch (Throwable e) {
+                apiLog(String.valueOf(e.getMessage()));
+            }
+            if (level == INJECTOR_LEVEL_2 && success && type == null) {
+                setHitResultType(HIT_RESULT_CODE_MISS);
+            } else if (type != null) {
+                Integer code = typeCodes.get(type);
+                if (code == null) {
+                    code = typeCode(type.toString());
+                    typeCodes.put(type, code);
+                }
+                setHitResultType(code);
+            } else {
+                setHitResultType(HIT_RESULT_CODE_UNKNOWN);
+            }
+        }
+    }
+
+    // The names each level reports, others are unknown
+    private static int typeCode(String type) {
+        if (level == INJECTOR_LEVEL_2) {
+            return type.equals(HIT_RESULT_TYPE_BLOCK_OLD) || type.equals(HIT_RESULT_TYPE_ENTITY) ? hitResultCode(type) : HIT_RESULT_CODE_UNKNOWN;
+        }
+        return type.equals(HIT_RESULT_TYPE_MISS) || type.equals(HIT_RESULT_TYPE_BLOCK) || type.equals(HIT_RESULT_TYPE_ENTITY) ? hitResultCode(type) : HIT_RESULT_CODE_UNKNOWN;
+    }
+
+    /**
+     * Looks up the Minecraft instance getter and its hit result field once, later calls only return the outcome.
+     */
+    private static boolean resolve() {
+        if (resolveState == RESOLVE_PENDING) {
+            resolveHandles();
+        }
+        return resolveState == RESOLVE_DONE;
+    }
+
+    private static synchronized void resolveHandles() {
+        if (resolveState == RESOLVE_PENDING) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
                 Class<?> minecraftClass = Class.forName(param0, true, classLoader);
                 Method method = minecraftClass.getDeclaredMethod(param1);
                 method.setAccessible(true);
-                Object minecraft = method.invoke(null);
+                minecraftGetter = lookup.unreflect(method).asType(MethodType.methodType(Object.class));
                 Field targetField = minecraftClass.getDeclaredField(param2);
                 targetField.setAccessible(true);
-                Object target = targetField.get(minecraft);
-                if (target != null) {
-                    switch (level) {
-                        case INJECTOR_LEVEL_2:
-                        case INJECTOR_LEVEL_3:
-                            Field typeField = target.getClass().getDeclaredField(param3);
-                            typeField.setAccessible(true);
-                            type = typeField.get(target);
-                            break;
-                        case INJECTOR_LEVEL_4:
-                            Method typeMethod = target.getClass().getDeclaredMethod(param3);
-                            typeMethod.setAccessible(true);
-                            type = typeMethod.invoke(target);
-                            break;
-                        default:
-                            break;
-                    }
-                }
-                success = true;
-            } catch (ClassNotFoundException | NoSuchFieldException | NoSuchMethodException |
-                     IllegalAccessException | InvocationTargetException e) {
+                targetGetter = lookup.unreflectGetter(targetField).asType(MethodType.methodType(Object.class, Object.class));
+                resolveState = RESOLVE_DONE;
+            } catch (ClassNotFoundException | NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
                 apiLog(e.getMessage());
+                resolveState = RESOLVE_FAILED;
             }
-            if (level == INJECTOR_LEVEL_2) {
-                if (success && type == null) {
-                    nglfwSetHitResultType(HIT_RESULT_TYPE_MISS);
-                } else if (success && (type.toString().equals(HIT_RESULT_TYPE_BLOCK_OLD) || type.toString().equals(HIT_RESULT_TYPE_ENTITY))) {
-                    nglfwSetHitResultType(type.toString());
-                } else {
-                    nglfwSetHitResultType(HIT_RESULT_TYPE_UNKNOWN);
-                }
-            } else {
-                if (type != null && (type.toString().equals(HIT_RESULT_TYPE_MISS) || type.toString().equals(HIT_RESULT_TYPE_BLOCK) || type.toString().equals(HIT_RESULT_TYPE_ENTITY))) {
-                    nglfwSetHitResultType(type.toString());
-                } else {
-                    nglfwSetHitResultType(HIT_RESULT_TYPE_UNKNOWN);
-                }
+        }
+    }
+
+    private static MethodHandle resolveTypeGetter(Class<?> targetClass) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            if (level == INJECTOR_LEVEL_4) {
+                Method typeMethod = targetClass.getDeclaredMethod(param3);
+                typeMethod.setAccessible(true);
+                return lookup.unreflect(typeMethod).asType(MethodType.methodType(Object.class, Object.class));
             }
+            Field typeField = targetClass.getDeclaredField(param3);
+            typeField.setAccessible(true);
+            return lookup.unreflectGetter(typeField).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+            apiLog(e.getMessage());
+            return MISSING;
         }
     }
 
@@ -33,51 +33,197 @@ package org.lwjgl.input;
 
 /**
  * A java implementation of a LWJGL compatible event queue.
+ * <p>
+ * Producers never block: each claims a slot of a power of two ring with a CAS on the tail and publishes
+ * it through the slot's sequence number, so input callbacks from any thread can put events concurrently
+ * while a single consumer copies them out. When the ring fills up, it is closed and the producers carry
+ * on in a ring of twice the size, up to {@code org.lwjgl.input.EventQueue.capacity} events. Events that
+ * only move the mouse may be put as coalescable; those are refused once the largest ring is three quarters
+ * full, so the caller can fold them into its next event and the remaining space is kept for button and
+ * key events. Refused and dropped events are counted.
  * @author elias_naur
  */
 
+import org.lwjgl.LWJGLUtil;
+
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 
 class EventQueue {
-	private static final int QUEUE_SIZE = 200;
+	private static final int INITIAL_CAPACITY = 256;
+	private static final int MAX_CAPACITY = roundUpToPowerOfTwo(Math.max(INITIAL_CAPACITY,
+			LWJGLUtil.getPrivilegedInteger("org.lwjgl.input.EventQueue.capacity", 4096)));
 
 	private final int event_size;
 
-	private final ByteBuffer queue;
+	/** The ring producers put into */
+	private volatile Ring producer_ring;
+	/** The ring the consumer copies from, which trails producer_ring while older rings still hold events */
+	private Ring consumer_ring;
+
+	private final AtomicLong coalesced_events = new AtomicLong();
+	private final AtomicLong dropped_events = new AtomicLong();
 
 	protected EventQueue(int event_size) {
 		this.event_size = event_size;
-		this.queue = ByteBuffer.allocate(QUEUE_SIZE*event_size);
+		this.producer_ring = new Ring(INITIAL_CAPACITY, event_size);
+		this.consumer_ring = producer_ring;
 	}
 
 	protected synchronized void clearEvents() {
-		queue.clear();
+		while (skipEvent()) {
+		}
 	}
 
 	/**
 	 * Copy available events into the specified buffer.
 	 */
 	public synchronized void copyEvents(ByteBuffer dest) {
-		queue.flip();
-		int old_limit = queue.limit();
-		if (dest.remaining() < queue.remaining())
-			queue.limit(dest.remaining() + queue.position());
-		dest.put(queue);
-		queue.limit(old_limit);
-		queue.compact();
+		while (dest.remaining() >= event_size) {
+			Ring ring = nextConsumerRing();
+			if (ring == null)
+				return;
+			long head = ring.head;
+			int index = (int)(head & ring.mask);
+			dest.put(ring.data, index*event_size, event_size);
+			ring.sequences.lazySet(index, head + ring.capacity);
+			ring.head = head + 1;
+		}
 	}
 
 	/**
 	 * Put an event into the queue.
 	 * @return true if the event fitted into the queue, false otherwise
 	 */
-	public synchronized boolean putEvent(ByteBuffer event) {
+	public boolean putEvent(ByteBuffer event) {
+		return putEvent(event, false);
+	}
+
+	/**
+	 * Put an event into the queue.
+	 * @param coalescable whether the caller can merge the event into its next one if it is refused
+	 * @return true if the event fitted into the queue, false otherwise
+	 */
+	public boolean putEvent(ByteBuffer event, boolean coalescable) {
 		if (event.remaining() != event_size)
 			throw new IllegalArgumentException("Internal error: event size " + event_size + " does not equal the given event size " + event.remaining());
-		if (queue.remaining() >= event.remaining()) {
-			queue.put(event);
-			return true;
-		} else
+		Ring ring = producer_ring;
+		while (true) {
+			long tail = ring.tail.get();
+			if ((tail & Ring.CLOSED) != 0) {
+				ring = ring.next.get();
+				continue;
+			}
+			int index = (int)(tail & ring.mask);
+			long sequence = ring.sequences.get(index);
+			if (sequence == tail) {
+				if (coalescable && ring.capacity == MAX_CAPACITY && tail - ring.head >= MAX_CAPACITY - MAX_CAPACITY/4) {
+					coalesced_events.incrementAndGet();
+					return false;
+				}
+				if (ring.tail.compareAndSet(tail, tail + 1)) {
+					event.get(ring.data, index*event_size, event_size);
+					ring.sequences.lazySet(index, tail + 1);
+					return true;
+				}
+			} else if (sequence < tail) {
+				// Full
+				if (ring.capacity == MAX_CAPACITY) {
+					if (coalescable) {
+						coalesced_events.incrementAndGet();
+					} else if (dropped_events.incrementAndGet() == 1) {
+						LWJGLUtil.log("Input event queue overflowed at " + MAX_CAPACITY + " events, dropping events");
+					}
+					return false;
+				}
+				grow(ring, tail);
+			}
+			// Otherwise another producer claimed the slot first, retry
+		}
+	}
+
+	/**
+	 * @return the number of events refused as coalescable since the queue was created
+	 */
+	public long getCoalescedEvents() {
+		return coalesced_events.get();
+	}
+
+	/**
+	 * @return the number of events lost to a full queue since the queue was created
+	 */
+	public long getDroppedEvents() {
+		return dropped_events.get();
+	}
+
+	/**
+	 * @return the number of events the queue can currently hold
+	 */
+	public int getCapacity() {
+		return producer_ring.capacity;
+	}
+
+	private void grow(Ring ring, long tail) {
+		// Link the successor before closing, so a producer that sees the ring closed always finds it
+		ring.next.compareAndSet(null, new Ring(Math.min(ring.capacity*2, MAX_CAPACITY), event_size));
+		if (ring.tail.compareAndSet(tail, tail | Ring.CLOSED))
+			producer_ring = ring.next.get();
+	}
+
+	/**
+	 * @return the ring holding the next event, or null if there is none
+	 */
+	private Ring nextConsumerRing() {
+		while (true) {
+			Ring ring = consumer_ring;
+			long head = ring.head;
+			if (ring.sequences.get((int)(head & ring.mask)) == head + 1)
+				return ring;
+			long tail = ring.tail.get();
+			// A closed ring is done once every slot claimed before closing has been copied
+			if ((tail & Ring.CLOSED) == 0 || (tail & ~Ring.CLOSED) != head)
+				return null;
+			consumer_ring = ring.next.get();
+		}
+	}
+
+	private boolean skipEvent() {
+		Ring ring = nextConsumerRing();
+		if (ring == null)
 			return false;
+		long head = ring.head;
+		ring.sequences.lazySet((int)(head & ring.mask), head + ring.capacity);
+		ring.head = head + 1;
+		return true;
+	}
+
+	private static int roundUpToPowerOfTwo(int value) {
+		int highest = Integer.highestOneBit(value);
+		return highest == value ? value : highest << 1;
+	}
+
+	private static final class Ring {
+		static final long CLOSED = 1L << 62;
+
+		final int capacity;
+		final int mask;
+		final byte[] data;
+		/** Slot i is free for position p when its sequence is p, and holds the event of position p when it is p + 1 */
+		final AtomicLongArray sequences;
+		final AtomicLong tail = new AtomicLong();
+		final AtomicReference<Ring> next = new AtomicReference<Ring>();
+		/** Written by the consumer only */
+		volatile long head;
+
+		Ring(int capacity, int event_size) {
+			this.capacity = capacity;
+			this.mask = capacity - 1;
+			this.data = new byte[capacity*event_size];
+			this.sequences = new AtomicLongArray(capacity);
+			for (int i = 0; i < capacity; i++)
+				sequences.set(i, i);
+		}
 	}
-}
\ No newline at end of file
+}
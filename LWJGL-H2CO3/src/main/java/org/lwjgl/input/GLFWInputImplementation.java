@@ -21,6 +21,9 @@ public class GLFWInputImplementation implements InputImplementation {
     public int mouseY = 0;
     public int mouseLastX = 0;
     public int mouseLastY = 0;
+    // Position the queued mouse events have reported so far, behind mouseX/mouseY while motion is coalesced
+    private int eventX = 0;
+    private int eventY = 0;
     public boolean grab;
     public boolean correctCursor;
 
@@ -151,6 +154,8 @@ public class GLFWInputImplementation implements InputImplementation {
                 mouseY = y;
                 mouseLastX = mouseX;
                 mouseLastY = mouseY;
+                eventX = x;
+                eventY = y;
                 correctCursor = false;
                 return;
             }
@@ -158,7 +163,7 @@ public class GLFWInputImplementation implements InputImplementation {
         eventBuffer.clear();
         eventBuffer.put(button).put(state);
         if (grab) {
-            eventBuffer.putInt(rebaseX - mouseX).putInt(rebaseY - mouseY);
+            eventBuffer.putInt(rebaseX - eventX).putInt(rebaseY - eventY);
         } else {
             eventBuffer.putInt(rebaseX).putInt(rebaseY);
         }
@@ -167,11 +172,23 @@ public class GLFWInputImplementation implements InputImplementation {
         }
         eventBuffer.putInt(dz).putLong(nanos);
         eventBuffer.flip();
-        eventQueue.putEvent(eventBuffer);
+        // A refused motion event is carried by the next queued one, which reports its position or delta
+        if (eventQueue.putEvent(eventBuffer, button == -1 && dz == 0)) {
+            eventX = rebaseX;
+            eventY = rebaseY;
+        }
         mouseX = rebaseX;
         mouseY = rebaseY;
     }
 
+    public long getCoalescedMouseEvents() {
+        return eventQueue.getCoalescedEvents();
+    }
+
+    public long getDroppedEvents() {
+        return eventQueue.getDroppedEvents() + keyboardEventQueue.getDroppedEvents();
+    }
+
     public void putKeyboardEvent(int keycode, byte state, int ch, long nanos, boolean repeat) {
         keyDownBuffer[keycode] = state;
         keyboardEvent.clear();
@@ -1,38 +1,300 @@
 package org.lwjgl.opengl;
 
-import java.lang.reflect.Field;
-
 public class ContextCapabilities {
 	
-	GLCapabilities cap = GL.createCapabilities();
+	final GLCapabilities cap;
 	
 	public ContextCapabilities() {
-		
-		Field[] fields = GLCapabilities.class.getFields();
-		
-		try {
-			for ( Field field : fields ) {
-				
-				String name = field.getName();
-				
-				if (name.startsWith("GL_") || name.startsWith("OpenGL")) {
-					
-					boolean value = field.getBoolean(cap);
-					
-					try {
-						Field f = this.getClass().getField(name);
-						f.setBoolean(this, value);
-					} catch (Exception e) {
-					}
-				}
-				if (name.equals("glGetBufferSubData") || name.equals("glBufferSubData")) {
-					Field f = this.getClass().getField(name);
-					f.setLong(this, field.getLong(cap));
-				}
-			}
-		} catch (Exception e) {
-			System.out.println(e);
-		}
+		this(GL.createCapabilities());
+	}
+
+	ContextCapabilities(GLCapabilities cap) {
+		this.cap = cap;
+		// Copies the fields shared with GLCapabilities, the others have no LWJGL 3 counterpart and stay false.
+		GL_AMD_blend_minmax_factor = cap.GL_AMD_blend_minmax_factor;
+		GL_AMD_conservative_depth = cap.GL_AMD_conservative_depth;
+		GL_AMD_debug_output = cap.GL_AMD_debug_output;
+		GL_AMD_depth_clamp_separate = cap.GL_AMD_depth_clamp_separate;
+		GL_AMD_draw_buffers_blend = cap.GL_AMD_draw_buffers_blend;
+		GL_AMD_interleaved_elements = cap.GL_AMD_interleaved_elements;
+		GL_AMD_performance_monitor = cap.GL_AMD_performance_monitor;
+		GL_AMD_pinned_memory = cap.GL_AMD_pinned_memory;
+		GL_AMD_query_buffer_object = cap.GL_AMD_query_buffer_object;
+		GL_AMD_sample_positions = cap.GL_AMD_sample_positions;
+		GL_AMD_seamless_cubemap_per_texture = cap.GL_AMD_seamless_cubemap_per_texture;
+		GL_AMD_shader_atomic_counter_ops = cap.GL_AMD_shader_atomic_counter_ops;
+		GL_AMD_shader_stencil_export = cap.GL_AMD_shader_stencil_export;
+		GL_AMD_shader_trinary_minmax = cap.GL_AMD_shader_trinary_minmax;
+		GL_AMD_sparse_texture = cap.GL_AMD_sparse_texture;
+		GL_AMD_stencil_operation_extended = cap.GL_AMD_stencil_operation_extended;
+		GL_AMD_texture_texture4 = cap.GL_AMD_texture_texture4;
+		GL_AMD_transform_feedback3_lines_triangles = cap.GL_AMD_transform_feedback3_lines_triangles;
+		GL_AMD_vertex_shader_layer = cap.GL_AMD_vertex_shader_layer;
+		GL_AMD_vertex_shader_tessellator = cap.GL_AMD_vertex_shader_tessellator;
+		GL_AMD_vertex_shader_viewport_index = cap.GL_AMD_vertex_shader_viewport_index;
+		GL_ARB_ES2_compatibility = cap.GL_ARB_ES2_compatibility;
+		GL_ARB_ES3_compatibility = cap.GL_ARB_ES3_compatibility;
+		GL_ARB_arrays_of_arrays = cap.GL_ARB_arrays_of_arrays;
+		GL_ARB_base_instance = cap.GL_ARB_base_instance;
+		GL_ARB_bindless_texture = cap.GL_ARB_bindless_texture;
+		GL_ARB_blend_func_extended = cap.GL_ARB_blend_func_extended;
+		GL_ARB_buffer_storage = cap.GL_ARB_buffer_storage;
+		GL_ARB_clear_buffer_object = cap.GL_ARB_clear_buffer_object;
+		GL_ARB_clear_texture = cap.GL_ARB_clear_texture;
+		GL_ARB_color_buffer_float = cap.GL_ARB_color_buffer_float;
+		GL_ARB_compatibility = cap.GL_ARB_compatibility;
+		GL_ARB_compressed_texture_pixel_storage = cap.GL_ARB_compressed_texture_pixel_storage;
+		GL_ARB_compute_shader = cap.GL_ARB_compute_shader;
+		GL_ARB_compute_variable_group_size = cap.GL_ARB_compute_variable_group_size;
+		GL_ARB_conservative_depth = cap.GL_ARB_conservative_depth;
+		GL_ARB_copy_buffer = cap.GL_ARB_copy_buffer;
+		GL_ARB_copy_image = cap.GL_ARB_copy_image;
+		GL_ARB_debug_output = cap.GL_ARB_debug_output;
+		GL_ARB_depth_buffer_float = cap.GL_ARB_depth_buffer_float;
+		GL_ARB_depth_clamp = cap.GL_ARB_depth_clamp;
+		GL_ARB_depth_texture = cap.GL_ARB_depth_texture;
+		GL_ARB_draw_buffers = cap.GL_ARB_draw_buffers;
+		GL_ARB_draw_buffers_blend = cap.GL_ARB_draw_buffers_blend;
+		GL_ARB_draw_elements_base_vertex = cap.GL_ARB_draw_elements_base_vertex;
+		GL_ARB_draw_indirect = cap.GL_ARB_draw_indirect;
+		GL_ARB_draw_instanced = cap.GL_ARB_draw_instanced;
+		GL_ARB_enhanced_layouts = cap.GL_ARB_enhanced_layouts;
+		GL_ARB_explicit_attrib_location = cap.GL_ARB_explicit_attrib_location;
+		GL_ARB_explicit_uniform_location = cap.GL_ARB_explicit_uniform_location;
+		GL_ARB_fragment_coord_conventions = cap.GL_ARB_fragment_coord_conventions;
+		GL_ARB_fragment_layer_viewport = cap.GL_ARB_fragment_layer_viewport;
+		GL_ARB_fragment_program = cap.GL_ARB_fragment_program;
+		GL_ARB_fragment_program_shadow = cap.GL_ARB_fragment_program_shadow;
+		GL_ARB_fragment_shader = cap.GL_ARB_fragment_shader;
+		GL_ARB_framebuffer_no_attachments = cap.GL_ARB_framebuffer_no_attachments;
+		GL_ARB_framebuffer_object = cap.GL_ARB_framebuffer_object;
+		GL_ARB_framebuffer_sRGB = cap.GL_ARB_framebuffer_sRGB;
+		GL_ARB_geometry_shader4 = cap.GL_ARB_geometry_shader4;
+		GL_ARB_get_program_binary = cap.GL_ARB_get_program_binary;
+		GL_ARB_gpu_shader5 = cap.GL_ARB_gpu_shader5;
+		GL_ARB_gpu_shader_fp64 = cap.GL_ARB_gpu_shader_fp64;
+		GL_ARB_half_float_pixel = cap.GL_ARB_half_float_pixel;
+		GL_ARB_half_float_vertex = cap.GL_ARB_half_float_vertex;
+		GL_ARB_imaging = cap.GL_ARB_imaging;
+		GL_ARB_indirect_parameters = cap.GL_ARB_indirect_parameters;
+		GL_ARB_instanced_arrays = cap.GL_ARB_instanced_arrays;
+		GL_ARB_internalformat_query = cap.GL_ARB_internalformat_query;
+		GL_ARB_internalformat_query2 = cap.GL_ARB_internalformat_query2;
+		GL_ARB_invalidate_subdata = cap.GL_ARB_invalidate_subdata;
+		GL_ARB_map_buffer_alignment = cap.GL_ARB_map_buffer_alignment;
+		GL_ARB_map_buffer_range = cap.GL_ARB_map_buffer_range;
+		GL_ARB_matrix_palette = cap.GL_ARB_matrix_palette;
+		GL_ARB_multi_bind = cap.GL_ARB_multi_bind;
+		GL_ARB_multi_draw_indirect = cap.GL_ARB_multi_draw_indirect;
+		GL_ARB_multisample = cap.GL_ARB_multisample;
+		GL_ARB_multitexture = cap.GL_ARB_multitexture;
+		GL_ARB_occlusion_query = cap.GL_ARB_occlusion_query;
+		GL_ARB_occlusion_query2 = cap.GL_ARB_occlusion_query2;
+		GL_ARB_pixel_buffer_object = cap.GL_ARB_pixel_buffer_object;
+		GL_ARB_point_parameters = cap.GL_ARB_point_parameters;
+		GL_ARB_point_sprite = cap.GL_ARB_point_sprite;
+		GL_ARB_program_interface_query = cap.GL_ARB_program_interface_query;
+		GL_ARB_provoking_vertex = cap.GL_ARB_provoking_vertex;
+		GL_ARB_query_buffer_object = cap.GL_ARB_query_buffer_object;
+		GL_ARB_robust_buffer_access_behavior = cap.GL_ARB_robust_buffer_access_behavior;
+		GL_ARB_robustness = cap.GL_ARB_robustness;
+		GL_ARB_sample_shading = cap.GL_ARB_sample_shading;
+		GL_ARB_sampler_objects = cap.GL_ARB_sampler_objects;
+		GL_ARB_seamless_cube_map = cap.GL_ARB_seamless_cube_map;
+		GL_ARB_seamless_cubemap_per_texture = cap.GL_ARB_seamless_cubemap_per_texture;
+		GL_ARB_separate_shader_objects = cap.GL_ARB_separate_shader_objects;
+		GL_ARB_shader_atomic_counters = cap.GL_ARB_shader_atomic_counters;
+		GL_ARB_shader_bit_encoding = cap.GL_ARB_shader_bit_encoding;
+		GL_ARB_shader_draw_parameters = cap.GL_ARB_shader_draw_parameters;
+		GL_ARB_shader_group_vote = cap.GL_ARB_shader_group_vote;
+		GL_ARB_shader_image_load_store = cap.GL_ARB_shader_image_load_store;
+		GL_ARB_shader_image_size = cap.GL_ARB_shader_image_size;
+		GL_ARB_shader_objects = cap.GL_ARB_shader_objects;
+		GL_ARB_shader_precision = cap.GL_ARB_shader_precision;
+		GL_ARB_shader_stencil_export = cap.GL_ARB_shader_stencil_export;
+		GL_ARB_shader_storage_buffer_object = cap.GL_ARB_shader_storage_buffer_object;
+		GL_ARB_shader_subroutine = cap.GL_ARB_shader_subroutine;
+		GL_ARB_shader_texture_lod = cap.GL_ARB_shader_texture_lod;
+		GL_ARB_shading_language_100 = cap.GL_ARB_shading_language_100;
+		GL_ARB_shading_language_420pack = cap.GL_ARB_shading_language_420pack;
+		GL_ARB_shading_language_include = cap.GL_ARB_shading_language_include;
+		GL_ARB_shading_language_packing = cap.GL_ARB_shading_language_packing;
+		GL_ARB_shadow = cap.GL_ARB_shadow;
+		GL_ARB_shadow_ambient = cap.GL_ARB_shadow_ambient;
+		GL_ARB_sparse_texture = cap.GL_ARB_sparse_texture;
+		GL_ARB_stencil_texturing = cap.GL_ARB_stencil_texturing;
+		GL_ARB_sync = cap.GL_ARB_sync;
+		GL_ARB_tessellation_shader = cap.GL_ARB_tessellation_shader;
+		GL_ARB_texture_border_clamp = cap.GL_ARB_texture_border_clamp;
+		GL_ARB_texture_buffer_object = cap.GL_ARB_texture_buffer_object;
+		GL_ARB_texture_buffer_object_rgb32 = cap.GL_ARB_texture_buffer_object_rgb32;
+		GL_ARB_texture_buffer_range = cap.GL_ARB_texture_buffer_range;
+		GL_ARB_texture_compression = cap.GL_ARB_texture_compression;
+		GL_ARB_texture_compression_bptc = cap.GL_ARB_texture_compression_bptc;
+		GL_ARB_texture_compression_rgtc = cap.GL_ARB_texture_compression_rgtc;
+		GL_ARB_texture_cube_map = cap.GL_ARB_texture_cube_map;
+		GL_ARB_texture_cube_map_array = cap.GL_ARB_texture_cube_map_array;
+		GL_ARB_texture_env_add = cap.GL_ARB_texture_env_add;
+		GL_ARB_texture_env_combine = cap.GL_ARB_texture_env_combine;
+		GL_ARB_texture_env_crossbar = cap.GL_ARB_texture_env_crossbar;
+		GL_ARB_texture_env_dot3 = cap.GL_ARB_texture_env_dot3;
+		GL_ARB_texture_float = cap.GL_ARB_texture_float;
+		GL_ARB_texture_gather = cap.GL_ARB_texture_gather;
+		GL_ARB_texture_mirror_clamp_to_edge = cap.GL_ARB_texture_mirror_clamp_to_edge;
+		GL_ARB_texture_mirrored_repeat = cap.GL_ARB_texture_mirrored_repeat;
+		GL_ARB_texture_multisample = cap.GL_ARB_texture_multisample;
+		GL_ARB_texture_non_power_of_two = cap.GL_ARB_texture_non_power_of_two;
+		GL_ARB_texture_query_levels = cap.GL_ARB_texture_query_levels;
+		GL_ARB_texture_query_lod = cap.GL_ARB_texture_query_lod;
+		GL_ARB_texture_rectangle = cap.GL_ARB_texture_rectangle;
+		GL_ARB_texture_rg = cap.GL_ARB_texture_rg;
+		GL_ARB_texture_rgb10_a2ui = cap.GL_ARB_texture_rgb10_a2ui;
+		GL_ARB_texture_stencil8 = cap.GL_ARB_texture_stencil8;
+		GL_ARB_texture_storage = cap.GL_ARB_texture_storage;
+		GL_ARB_texture_storage_multisample = cap.GL_ARB_texture_storage_multisample;
+		GL_ARB_texture_swizzle = cap.GL_ARB_texture_swizzle;
+		GL_ARB_texture_view = cap.GL_ARB_texture_view;
+		GL_ARB_timer_query = cap.GL_ARB_timer_query;
+		GL_ARB_transform_feedback2 = cap.GL_ARB_transform_feedback2;
+		GL_ARB_transform_feedback3 = cap.GL_ARB_transform_feedback3;
+		GL_ARB_transform_feedback_instanced = cap.GL_ARB_transform_feedback_instanced;
+		GL_ARB_transpose_matrix = cap.GL_ARB_transpose_matrix;
+		GL_ARB_uniform_buffer_object = cap.GL_ARB_uniform_buffer_object;
+		GL_ARB_vertex_array_bgra = cap.GL_ARB_vertex_array_bgra;
+		GL_ARB_vertex_array_object = cap.GL_ARB_vertex_array_object;
+		GL_ARB_vertex_attrib_64bit = cap.GL_ARB_vertex_attrib_64bit;
+		GL_ARB_vertex_attrib_binding = cap.GL_ARB_vertex_attrib_binding;
+		GL_ARB_vertex_blend = cap.GL_ARB_vertex_blend;
+		GL_ARB_vertex_buffer_object = cap.GL_ARB_vertex_buffer_object;
+		GL_ARB_vertex_program = cap.GL_ARB_vertex_program;
+		GL_ARB_vertex_shader = cap.GL_ARB_vertex_shader;
+		GL_ARB_vertex_type_10f_11f_11f_rev = cap.GL_ARB_vertex_type_10f_11f_11f_rev;
+		GL_ARB_vertex_type_2_10_10_10_rev = cap.GL_ARB_vertex_type_2_10_10_10_rev;
+		GL_ARB_viewport_array = cap.GL_ARB_viewport_array;
+		GL_ARB_window_pos = cap.GL_ARB_window_pos;
+		GL_ATI_meminfo = cap.GL_ATI_meminfo;
+		GL_ATI_shader_texture_lod = cap.GL_ATI_shader_texture_lod;
+		GL_ATI_texture_compression_3dc = cap.GL_ATI_texture_compression_3dc;
+		GL_EXT_abgr = cap.GL_EXT_abgr;
+		GL_EXT_bgra = cap.GL_EXT_bgra;
+		GL_EXT_bindable_uniform = cap.GL_EXT_bindable_uniform;
+		GL_EXT_blend_color = cap.GL_EXT_blend_color;
+		GL_EXT_blend_equation_separate = cap.GL_EXT_blend_equation_separate;
+		GL_EXT_blend_func_separate = cap.GL_EXT_blend_func_separate;
+		GL_EXT_blend_minmax = cap.GL_EXT_blend_minmax;
+		GL_EXT_blend_subtract = cap.GL_EXT_blend_subtract;
+		GL_EXT_compiled_vertex_array = cap.GL_EXT_compiled_vertex_array;
+		GL_EXT_depth_bounds_test = cap.GL_EXT_depth_bounds_test;
+		GL_EXT_direct_state_access = cap.GL_EXT_direct_state_access;
+		GL_EXT_draw_buffers2 = cap.GL_EXT_draw_buffers2;
+		GL_EXT_draw_instanced = cap.GL_EXT_draw_instanced;
+		GL_EXT_framebuffer_blit = cap.GL_EXT_framebuffer_blit;
+		GL_EXT_framebuffer_multisample = cap.GL_EXT_framebuffer_multisample;
+		GL_EXT_framebuffer_multisample_blit_scaled = cap.GL_EXT_framebuffer_multisample_blit_scaled;
+		GL_EXT_framebuffer_object = cap.GL_EXT_framebuffer_object;
+		GL_EXT_framebuffer_sRGB = cap.GL_EXT_framebuffer_sRGB;
+		GL_EXT_geometry_shader4 = cap.GL_EXT_geometry_shader4;
+		GL_EXT_gpu_program_parameters = cap.GL_EXT_gpu_program_parameters;
+		GL_EXT_gpu_shader4 = cap.GL_EXT_gpu_shader4;
+		GL_EXT_packed_depth_stencil = cap.GL_EXT_packed_depth_stencil;
+		GL_EXT_packed_float = cap.GL_EXT_packed_float;
+		GL_EXT_pixel_buffer_object = cap.GL_EXT_pixel_buffer_object;
+		GL_EXT_point_parameters = cap.GL_EXT_point_parameters;
+		GL_EXT_provoking_vertex = cap.GL_EXT_provoking_vertex;
+		GL_EXT_secondary_color = cap.GL_EXT_secondary_color;
+		GL_EXT_separate_shader_objects = cap.GL_EXT_separate_shader_objects;
+		GL_EXT_shader_image_load_store = cap.GL_EXT_shader_image_load_store;
+		GL_EXT_shadow_funcs = cap.GL_EXT_shadow_funcs;
+		GL_EXT_shared_texture_palette = cap.GL_EXT_shared_texture_palette;
+		GL_EXT_stencil_clear_tag = cap.GL_EXT_stencil_clear_tag;
+		GL_EXT_stencil_two_side = cap.GL_EXT_stencil_two_side;
+		GL_EXT_stencil_wrap = cap.GL_EXT_stencil_wrap;
+		GL_EXT_texture_array = cap.GL_EXT_texture_array;
+		GL_EXT_texture_buffer_object = cap.GL_EXT_texture_buffer_object;
+		GL_EXT_texture_compression_latc = cap.GL_EXT_texture_compression_latc;
+		GL_EXT_texture_compression_rgtc = cap.GL_EXT_texture_compression_rgtc;
+		GL_EXT_texture_compression_s3tc = cap.GL_EXT_texture_compression_s3tc;
+		GL_EXT_texture_filter_anisotropic = cap.GL_EXT_texture_filter_anisotropic;
+		GL_EXT_texture_integer = cap.GL_EXT_texture_integer;
+		GL_EXT_texture_mirror_clamp = cap.GL_EXT_texture_mirror_clamp;
+		GL_EXT_texture_sRGB = cap.GL_EXT_texture_sRGB;
+		GL_EXT_texture_sRGB_decode = cap.GL_EXT_texture_sRGB_decode;
+		GL_EXT_texture_shared_exponent = cap.GL_EXT_texture_shared_exponent;
+		GL_EXT_texture_snorm = cap.GL_EXT_texture_snorm;
+		GL_EXT_texture_swizzle = cap.GL_EXT_texture_swizzle;
+		GL_EXT_timer_query = cap.GL_EXT_timer_query;
+		GL_EXT_transform_feedback = cap.GL_EXT_transform_feedback;
+		GL_EXT_vertex_array_bgra = cap.GL_EXT_vertex_array_bgra;
+		GL_EXT_vertex_attrib_64bit = cap.GL_EXT_vertex_attrib_64bit;
+		OpenGL11 = cap.OpenGL11;
+		OpenGL12 = cap.OpenGL12;
+		OpenGL13 = cap.OpenGL13;
+		OpenGL14 = cap.OpenGL14;
+		OpenGL15 = cap.OpenGL15;
+		OpenGL20 = cap.OpenGL20;
+		OpenGL21 = cap.OpenGL21;
+		OpenGL30 = cap.OpenGL30;
+		OpenGL31 = cap.OpenGL31;
+		OpenGL32 = cap.OpenGL32;
+		OpenGL33 = cap.OpenGL33;
+		OpenGL40 = cap.OpenGL40;
+		OpenGL41 = cap.OpenGL41;
+		OpenGL42 = cap.OpenGL42;
+		OpenGL43 = cap.OpenGL43;
+		OpenGL44 = cap.OpenGL44;
+		GL_GREMEDY_frame_terminator = cap.GL_GREMEDY_frame_terminator;
+		GL_GREMEDY_string_marker = cap.GL_GREMEDY_string_marker;
+		GL_INTEL_map_texture = cap.GL_INTEL_map_texture;
+		GL_KHR_debug = cap.GL_KHR_debug;
+		GL_KHR_texture_compression_astc_ldr = cap.GL_KHR_texture_compression_astc_ldr;
+		GL_NVX_gpu_memory_info = cap.GL_NVX_gpu_memory_info;
+		GL_NV_bindless_multi_draw_indirect = cap.GL_NV_bindless_multi_draw_indirect;
+		GL_NV_bindless_texture = cap.GL_NV_bindless_texture;
+		GL_NV_blend_equation_advanced = cap.GL_NV_blend_equation_advanced;
+		GL_NV_blend_square = cap.GL_NV_blend_square;
+		GL_NV_conditional_render = cap.GL_NV_conditional_render;
+		GL_NV_copy_depth_to_color = cap.GL_NV_copy_depth_to_color;
+		GL_NV_copy_image = cap.GL_NV_copy_image;
+		GL_NV_deep_texture3D = cap.GL_NV_deep_texture3D;
+		GL_NV_depth_buffer_float = cap.GL_NV_depth_buffer_float;
+		GL_NV_depth_clamp = cap.GL_NV_depth_clamp;
+		GL_NV_draw_texture = cap.GL_NV_draw_texture;
+		GL_NV_explicit_multisample = cap.GL_NV_explicit_multisample;
+		GL_NV_fence = cap.GL_NV_fence;
+		GL_NV_float_buffer = cap.GL_NV_float_buffer;
+		GL_NV_fog_distance = cap.GL_NV_fog_distance;
+		GL_NV_fragment_program4 = cap.GL_NV_fragment_program4;
+		GL_NV_fragment_program_option = cap.GL_NV_fragment_program_option;
+		GL_NV_framebuffer_multisample_coverage = cap.GL_NV_framebuffer_multisample_coverage;
+		GL_NV_geometry_shader4 = cap.GL_NV_geometry_shader4;
+		GL_NV_gpu_shader5 = cap.GL_NV_gpu_shader5;
+		GL_NV_half_float = cap.GL_NV_half_float;
+		GL_NV_light_max_exponent = cap.GL_NV_light_max_exponent;
+		GL_NV_multisample_coverage = cap.GL_NV_multisample_coverage;
+		GL_NV_multisample_filter_hint = cap.GL_NV_multisample_filter_hint;
+		GL_NV_packed_depth_stencil = cap.GL_NV_packed_depth_stencil;
+		GL_NV_path_rendering = cap.GL_NV_path_rendering;
+		GL_NV_pixel_data_range = cap.GL_NV_pixel_data_range;
+		GL_NV_point_sprite = cap.GL_NV_point_sprite;
+		GL_NV_primitive_restart = cap.GL_NV_primitive_restart;
+		GL_NV_shader_atomic_float = cap.GL_NV_shader_atomic_float;
+		GL_NV_shader_buffer_load = cap.GL_NV_shader_buffer_load;
+		GL_NV_shader_buffer_store = cap.GL_NV_shader_buffer_store;
+		GL_NV_texgen_reflection = cap.GL_NV_texgen_reflection;
+		GL_NV_texture_barrier = cap.GL_NV_texture_barrier;
+		GL_NV_texture_compression_vtc = cap.GL_NV_texture_compression_vtc;
+		GL_NV_texture_multisample = cap.GL_NV_texture_multisample;
+		GL_NV_texture_shader = cap.GL_NV_texture_shader;
+		GL_NV_texture_shader2 = cap.GL_NV_texture_shader2;
+		GL_NV_texture_shader3 = cap.GL_NV_texture_shader3;
+		GL_NV_transform_feedback = cap.GL_NV_transform_feedback;
+		GL_NV_transform_feedback2 = cap.GL_NV_transform_feedback2;
+		GL_NV_vertex_array_range = cap.GL_NV_vertex_array_range;
+		GL_NV_vertex_array_range2 = cap.GL_NV_vertex_array_range2;
+		GL_NV_vertex_attrib_integer_64bit = cap.GL_NV_vertex_attrib_integer_64bit;
+		GL_NV_vertex_buffer_unified_memory = cap.GL_NV_vertex_buffer_unified_memory;
+		glGetBufferSubData = cap.glGetBufferSubData;
+		glBufferSubData = cap.glBufferSubData;
 	}
 	
 	public boolean GL_AMD_blend_minmax_factor;
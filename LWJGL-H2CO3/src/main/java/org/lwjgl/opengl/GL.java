@@ -467,10 +467,16 @@ public final class GL {
         }
         apiFilterExtensions(supportedExtensions, Configuration.OPENGL_EXTENSION_FILTER);
 
-        GLCapabilities caps = new GLCapabilities(functionProvider, supportedExtensions, forwardCompatible, bufferFactory == null
+        GLFunctionCache functionCache = GLFunctionCache.open(functionProvider, GetString);
+
+        GLCapabilities caps = new GLCapabilities(functionCache == null ? functionProvider : functionCache, supportedExtensions, forwardCompatible, bufferFactory == null
             ? BufferUtils::createPointerBuffer
             : bufferFactory);
 
+        if (functionCache != null) {
+            functionCache.save();
+        }
+
         setCapabilities(caps);
 
         return caps;
@@ -0,0 +1,190 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: https://www.lwjgl.org/license
+ */
+package org.lwjgl.opengl;
+
+import org.lwjgl.system.*;
+
+import javax.annotation.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.lwjgl.opengl.GL11C.*;
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.JNI.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A {@link FunctionProvider} that remembers which functions a renderer does not export.
+ *
+ * <p>Creating a {@link GLCapabilities} instance asks for every function of every supported version and extension, and the same missing function is asked
+ * for again by each extension that lists it. A miss is the most expensive lookup, as the provider falls back from {@code GetProcAddress} to the library
+ * symbol table. This provider answers a name it has seen missing without a lookup, and persists the missing names per renderer, so that later launches on
+ * the same renderer skip them altogether. Function addresses themselves are never persisted.</p>
+ *
+ * <p>A renderer is identified by its strings and by the path, size and modification time of the library files behind it, so that a rebuilt library
+ * reporting the same strings is looked up from scratch. Nothing is persisted if the library files cannot be found.</p>
+ *
+ * @see Configuration#OPENGL_FUNCTION_CACHE
+ */
+final class GLFunctionCache implements FunctionProvider {
+
+    private static final String HEADER = "# Missing OpenGL functions of: ";
+
+    private final FunctionProvider provider;
+    private final Path       file;
+    private final String     renderer;
+    private final Set<String> missing;
+
+    private boolean changed;
+
+    private GLFunctionCache(FunctionProvider provider, Path file, String renderer, Set<String> missing) {
+        this.provider = provider;
+        this.file = file;
+        this.renderer = renderer;
+        this.missing = missing;
+    }
+
+    /**
+     * Returns a caching provider for the renderer of the current context, or null if {@link Configuration#OPENGL_FUNCTION_CACHE} is not set or the
+     * library files cannot be identified.
+     *
+     * @param provider  the provider to delegate to
+     * @param GetString the address of {@code glGetString}
+     */
+    @Nullable
+    static GLFunctionCache open(FunctionProvider provider, long GetString) {
+        String directory = Configuration.OPENGL_FUNCTION_CACHE.get();
+        if (directory == null) {
+            return null;
+        }
+
+        String libraries = describeLibraries(provider);
+        if (libraries == null) {
+            apiLog("Could not identify the OpenGL library files, the function cache is disabled");
+            return null;
+        }
+
+        String strings = (System.getenv("LIBGL_NAME") + "|" + Configuration.OPENGL_LIBRARY_NAME.get() + "|" +
+            memUTF8Safe(callP(GL_RENDERER, GetString)) + "|" + memUTF8Safe(callP(GL_VERSION, GetString))).replace('\n', ' ');
+        // Named by the strings only, so a rebuilt library replaces the file of the old one
+        Path file = Paths.get(directory, "lwjgl_gl_functions_" + Integer.toHexString(strings.hashCode()) + ".txt");
+        String renderer = strings + libraries;
+
+        Set<String> missing = new HashSet<>(256);
+        if (Files.isRegularFile(file)) {
+            try {
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                // A different renderer with the same hash, or a changed library, starts from scratch
+                if (!lines.isEmpty() && lines.get(0).equals(HEADER + renderer)) {
+                    missing.addAll(lines.subList(1, lines.size()));
+                }
+            } catch (IOException e) {
+                apiLog("Failed to read the OpenGL function cache " + file + ": " + e);
+            }
+        }
+        return new GLFunctionCache(provider, file, renderer, missing);
+    }
+
+    /**
+     * Returns the path, size and modification time of the library the functions come from and of the renderer library it loads, or null if neither
+     * can be found.
+     */
+    @Nullable
+    private static String describeLibraries(FunctionProvider provider) {
+        Set<Path> paths = new LinkedHashSet<>();
+        if (provider instanceof SharedLibrary) {
+            String path = ((SharedLibrary)provider).getPath();
+            if (path != null) {
+                paths.add(Paths.get(path));
+            }
+        }
+        String name = System.getenv("LIBGL_NAME");
+        if (name != null) {
+            Path path = findLibrary(name);
+            if (path != null) {
+                paths.add(path);
+            }
+        }
+
+        StringBuilder description = new StringBuilder();
+        for (Path path : paths) {
+            try {
+                description.append('|').append(path).append(':').append(Files.size(path)).append(':').append(Files.getLastModifiedTime(path).toMillis());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return description.length() == 0 ? null : description.toString();
+    }
+
+    @Nullable
+    private static Path findLibrary(String name) {
+        if (name.indexOf('/') >= 0) {
+            Path path = Paths.get(name);
+            return Files.isRegularFile(path) ? path : null;
+        }
+        String[] directories = {System.getenv("LD_LIBRARY_PATH"), System.getProperty("java.library.path")};
+        for (String directoryList : directories) {
+            if (directoryList == null) {
+                continue;
+            }
+            for (String directory : directoryList.split(File.pathSeparator)) {
+                if (directory.isEmpty()) {
+                    continue;
+                }
+                Path path = Paths.get(directory, name);
+                if (Files.isRegularFile(path)) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getFunctionAddress(CharSequence functionName) {
+        String name = functionName.toString();
+        if (missing.contains(name)) {
+            return NULL;
+        }
+
+        long address = provider.getFunctionAddress(name);
+        if (address == NULL) {
+            missing.add(name);
+            changed = true;
+        }
+        return address;
+    }
+
+    @Override
+    public long getFunctionAddress(ByteBuffer functionName) {
+        return getFunctionAddress(memASCII(memAddress(functionName)));
+    }
+
+    /** Persists the missing function names, if any were found since the cache was opened. */
+    void save() {
+        if (!changed) {
+            return;
+        }
+
+        List<String> lines = new ArrayList<>(missing.size() + 1);
+        lines.add(HEADER + renderer);
+        lines.addAll(new TreeSet<>(missing));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        } catch (IOException e) {
+            apiLog("Failed to write the OpenGL function cache " + file + ": " + e);
+        }
+    }
+
+}
@@ -592,6 +592,21 @@ public class Configuration<T> {
      */
     public static final Configuration<Object> OPENGL_EXTENSION_FILTER = new Configuration<>("org.lwjgl.opengl.extensionFilter", StateInit.STRING);
 
+    /**
+     * Sets the directory in which the OpenGL functions a renderer does not export are remembered.
+     *
+     * <p>When set, {@code GL.createCapabilities} does not look up a missing function more than once, and skips the functions found missing by earlier
+     * launches on the same renderer. Renderers are told apart by the {@code LIBGL_NAME} environment variable, the library name, the
+     * {@code GL_RENDERER} and {@code GL_VERSION} strings and the path, size and modification time of the library files, so a rebuilt library
+     * starts from scratch. Nothing is remembered if the library files cannot be found. Function addresses are always resolved anew.</p>
+     *
+     * <p style="font-family: monospace">
+     * Property: <b>org.lwjgl.opengl.functionCache</b><br>
+     * &nbsp; &nbsp; Type: String<br>
+     * &nbsp; &nbsp;Usage: Dynamic</p>
+     */
+    public static final Configuration<String> OPENGL_FUNCTION_CACHE = new Configuration<>("org.lwjgl.opengl.functionCache", StateInit.STRING);
+
     // -- OPENGL ES
 
     /** Similar to {@link #EGL_EXPLICIT_INIT} for the OpenGL ES library (<b>org.lwjgl.opengles.explicitInit</b>). */
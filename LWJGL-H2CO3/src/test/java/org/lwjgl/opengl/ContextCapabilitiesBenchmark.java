@@ -0,0 +1,68 @@
+package org.lwjgl.opengl;
+
+import java.lang.reflect.Field;
+
+/**
+ * Times filling a {@link ContextCapabilities} from a {@link GLCapabilities}, with the direct assignments of the
+ * constructor and with the per-field reflection it replaced.
+ * <p>
+ * Not a test, run {@link #main} from the test source set. The argument is the number of timed copies of each kind
+ * (default 2000), after as many for warm-up. The first reflective copy is also reported on its own, it is what
+ * a game pays once per context.
+ */
+public class ContextCapabilitiesBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		GLCapabilities cap = newCapabilities();
+
+		long start = System.nanoTime();
+		copyReflectively(cap, new ContextCapabilities(cap));
+		long firstReflective = System.nanoTime() - start;
+
+		for (int i = 0; i < iterations; i++) {
+			new ContextCapabilities(cap);
+			copyReflectively(cap, new ContextCapabilities(cap));
+		}
+
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			new ContextCapabilities(cap);
+		}
+		long direct = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			copyReflectively(cap, new ContextCapabilities(cap));
+		}
+		long reflective = System.nanoTime() - start;
+
+		System.out.printf("direct: %.1f us/copy, reflective: %.1f us/copy, first reflective copy: %.1f ms%n",
+				direct / 1e3 / iterations, reflective / 1e3 / iterations, firstReflective / 1e6);
+	}
+
+	/**
+	 * The copy ContextCapabilities used to do: look up every extension field of GLCapabilities by name.
+	 */
+	private static void copyReflectively(GLCapabilities cap, ContextCapabilities target) throws ReflectiveOperationException {
+		for (Field field : GLCapabilities.class.getFields()) {
+			String name = field.getName();
+			if (name.startsWith("GL_") || name.startsWith("OpenGL")) {
+				boolean value = field.getBoolean(cap);
+				try {
+					target.getClass().getField(name).setBoolean(target, value);
+				} catch (Exception ignored) {
+				}
+			}
+			if (name.equals("glGetBufferSubData") || name.equals("glBufferSubData")) {
+				target.getClass().getField(name).setLong(target, field.getLong(cap));
+			}
+		}
+	}
+
+	private static GLCapabilities newCapabilities() throws Exception {
+		Field theUnsafe = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+		theUnsafe.setAccessible(true);
+		return (GLCapabilities) ((sun.misc.Unsafe) theUnsafe.get(null)).allocateInstance(GLCapabilities.class);
+	}
+}
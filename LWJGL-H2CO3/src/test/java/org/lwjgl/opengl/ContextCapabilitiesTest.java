@@ -0,0 +1,70 @@
+package org.lwjgl.opengl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ContextCapabilitiesTest {
+
+	@Test
+	public void copiesEverySharedField() throws Exception {
+		List<Field[]> shared = sharedFields();
+		assertTrue(shared.size() > 200);
+		// Alternate the values and then flip them, so a field copied from the wrong source fails either way
+		for (int flip = 0; flip < 2; flip++) {
+			GLCapabilities cap = newCapabilities();
+			for (int i = 0; i < shared.size(); i++) {
+				Field source = shared.get(i)[0];
+				if (source.getType() == boolean.class) {
+					source.setBoolean(cap, (i + flip) % 2 == 0);
+				} else {
+					source.setLong(cap, (i + 1) * (flip == 0 ? 1L : -1L));
+				}
+			}
+
+			ContextCapabilities context = new ContextCapabilities(cap);
+			for (Field[] fields : shared) {
+				assertEquals(fields[1].getName(), fields[0].get(cap), fields[1].get(context));
+			}
+		}
+	}
+
+	/**
+	 * @return the public fields of {@link ContextCapabilities} with a field of the same name and type in
+	 * {@link GLCapabilities}, as {source, target} pairs
+	 */
+	private static List<Field[]> sharedFields() throws NoSuchFieldException {
+		List<Field[]> shared = new ArrayList<>();
+		for (Field target : ContextCapabilities.class.getFields()) {
+			if (Modifier.isStatic(target.getModifiers())) {
+				continue;
+			}
+			Field source;
+			try {
+				source = GLCapabilities.class.getField(target.getName());
+			} catch (NoSuchFieldException e) {
+				continue;
+			}
+			if (source.getType() == target.getType()) {
+				source.setAccessible(true);
+				shared.add(new Field[]{source, target});
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * A GLCapabilities without a context, its constructor would load function pointers.
+	 */
+	private static GLCapabilities newCapabilities() throws Exception {
+		Field theUnsafe = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+		theUnsafe.setAccessible(true);
+		return (GLCapabilities) ((sun.misc.Unsafe) theUnsafe.get(null)).allocateInstance(GLCapabilities.class);
+	}
+}